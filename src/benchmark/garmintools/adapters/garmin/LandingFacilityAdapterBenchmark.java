@@ -0,0 +1,89 @@
+/**
+ *    Copyright 2016 Iron City Software LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package garmintools.adapters.garmin;
+
+import garmintools.sections.Ids;
+import garmintools.synthetic.SyntheticDatabase;
+import garmintools.wrappers.LandingFacility;
+import garmintools.wrappers.LandingFacilityDetail;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Reads and writes the landing facility and landing facility detail sections of a synthetic database. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LandingFacilityAdapterBenchmark {
+  // About 25000 of the facilities have details.
+  @Param({"30000"})
+  public int numLandingFacilities;
+
+  private SyntheticDatabase database;
+  private LandingFacilityGarminAdapter landingFacilityAdapter;
+  private LandingFacilityDetailGarminAdapter landingFacilityDetailAdapter;
+  private List<LandingFacility> landingFacilities;
+  private List<LandingFacilityDetail> landingFacilityDetails;
+
+  @Setup
+  public void setUp() throws IOException {
+    database = SyntheticDatabase.create(numLandingFacilities);
+    landingFacilityAdapter = new LandingFacilityGarminAdapter();
+    landingFacilityDetailAdapter = new LandingFacilityDetailGarminAdapter();
+    landingFacilities = readLandingFacilities();
+    landingFacilityDetails = readLandingFacilityDetails();
+  }
+
+  @Benchmark
+  public List<LandingFacility> readLandingFacilities() {
+    return landingFacilityAdapter.read(database.sectionManager.getDataLengthSection(),
+        database.getEntry(Ids.LANDING_FACILITY_SECTION), database.getSection(Ids.LANDING_FACILITY_SECTION));
+  }
+
+  @Benchmark
+  public GarminOutput writeLandingFacilities() {
+    return landingFacilityAdapter.write(landingFacilities);
+  }
+
+  @Benchmark
+  public List<LandingFacilityDetail> readLandingFacilityDetails() {
+    return landingFacilityDetailAdapter.read(database.sectionManager.getDataLengthSection(),
+        database.getEntry(Ids.LANDING_FACILITY_DETAIL_SECTION),
+        database.getSection(Ids.LANDING_FACILITY_DETAIL_SECTION));
+  }
+
+  @Benchmark
+  public GarminOutput writeLandingFacilityDetails() {
+    return landingFacilityDetailAdapter.write(landingFacilityDetails);
+  }
+}
@@ -0,0 +1,75 @@
+/**
+ *    Copyright 2016 Iron City Software LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package garmintools.encoding;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Reads a buffer of random bits in fields of 1 to 24 bits, the widths the string decoder asks for. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BitBufferBenchmark {
+  @Param({"1048576"})
+  public int numBytes;
+
+  private byte data[];
+  private int fieldWidths[];
+
+  @Setup
+  public void setUp() {
+    Random random = new Random(42);
+    data = new byte[numBytes];
+    random.nextBytes(data);
+    int numBits = numBytes * 8;
+    int numFields = 0;
+    int widths[] = new int[numBits];
+    for (int remainingBits = numBits; remainingBits > 0; ) {
+      int width = Math.min(1 + random.nextInt(24), remainingBits);
+      widths[numFields++] = width;
+      remainingBits -= width;
+    }
+    fieldWidths = new int[numFields];
+    System.arraycopy(widths, 0, fieldWidths, 0, numFields);
+  }
+
+  @Benchmark
+  public int readNumBits() {
+    BitBuffer bitBuffer = new BitBuffer(ByteBuffer.wrap(data));
+    int result = 0;
+    for (int width : fieldWidths) {
+      result ^= bitBuffer.readNumBits(width);
+    }
+    return result;
+  }
+}
@@ -0,0 +1,108 @@
+/**
+ *    Copyright 2016 Iron City Software LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package garmintools.encoding;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Encodes and decodes airport identifiers through the array methods, which allocate per
+ * identifier, and the buffer methods, which do not.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SixBitAsciiEncodingBenchmark {
+  private static final String IDENTIFIER_CHARACTERS = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
+
+  @Param({"10000"})
+  public int numIdentifiers;
+
+  private String identifiers[];
+  private byte encodedIdentifiers[][];
+  private ByteBuffer encodedBuffer;
+  private char text[];
+
+  @Setup
+  public void setUp() {
+    Random random = new Random(42);
+    identifiers = new String[numIdentifiers];
+    encodedIdentifiers = new byte[numIdentifiers][];
+    for (int i = 0; i < numIdentifiers; ++i) {
+      char identifier[] = new char[4];
+      for (int j = 0; j < identifier.length; ++j) {
+        identifier[j] = IDENTIFIER_CHARACTERS.charAt(random.nextInt(IDENTIFIER_CHARACTERS.length()));
+      }
+      identifiers[i] = new String(identifier);
+      encodedIdentifiers[i] = SixBitAsciiEncoding.COMPLEX_ENCODING.encode(identifiers[i]);
+    }
+    encodedBuffer = ByteBuffer.allocate(numIdentifiers * SixBitAsciiEncoding.getEncodedSize(4));
+    text = new char[4];
+    encodeToBuffer();
+  }
+
+  @Benchmark
+  public void encode(Blackhole blackhole) {
+    for (String identifier : identifiers) {
+      blackhole.consume(SixBitAsciiEncoding.COMPLEX_ENCODING.encode(identifier));
+    }
+  }
+
+  @Benchmark
+  public void decode(Blackhole blackhole) {
+    for (byte encodedIdentifier[] : encodedIdentifiers) {
+      blackhole.consume(SixBitAsciiEncoding.COMPLEX_ENCODING.decode(encodedIdentifier));
+    }
+  }
+
+  @Benchmark
+  public int encodeToBuffer() {
+    encodedBuffer.clear();
+    for (String identifier : identifiers) {
+      SixBitAsciiEncoding.COMPLEX_ENCODING.encode(identifier, encodedBuffer);
+    }
+    return encodedBuffer.position();
+  }
+
+  @Benchmark
+  public int decodeFromBuffer() {
+    int result = 0;
+    int encodedSize = SixBitAsciiEncoding.getEncodedSize(4);
+    for (int i = 0; i < numIdentifiers; ++i) {
+      SixBitAsciiEncoding.COMPLEX_ENCODING.decode(encodedBuffer, i * encodedSize, encodedSize, text);
+      result += text[3];
+    }
+    return result;
+  }
+}
@@ -0,0 +1,152 @@
+/**
+ *    Copyright 2016 Iron City Software LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package garmintools.encoding;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Encodes and decodes a string section (section 2) of airport names and locations, comparing the
+ * table driven decoder with the previous decoder that fetches bits for one encoded length at a time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VariableLengthAsciiEncodingBenchmark {
+  private static final String WORDS[] = {
+    "MUNICIPAL", "COUNTY", "REGIONAL", "INTL", "MEMORIAL", "FIELD", "AIRPORT", "AIRPARK",
+    "LAKE", "RANCH", "VALLEY", "FORT", "SAINT", "NEW", "PORT", "CITY", "EXECUTIVE", "STRIP",
+  };
+  private static final String EXTENDED_CHARACTERS = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789-/,.&()+;':";
+
+  @Param({"50000"})
+  public int numStrings;
+
+  private String strings[];
+  private ByteBuffer sectionBuffer;
+
+  @Setup
+  public void setUp() {
+    Random random = new Random(42);
+    strings = new String[numStrings];
+    for (int i = 0; i < numStrings; ++i) {
+      strings[i] = createString(random);
+    }
+    sectionBuffer = ByteBuffer.wrap(encodeSection());
+  }
+
+  private String createString(Random random) {
+    StringBuilder builder = new StringBuilder();
+    int numWords = 1 + random.nextInt(3);
+    for (int i = 0; i < numWords; ++i) {
+      if (i > 0) {
+        builder.append(' ');
+      }
+      if (random.nextInt(4) == 0) {
+        for (int j = 0; j < 3 + random.nextInt(6); ++j) {
+          builder.append(EXTENDED_CHARACTERS.charAt(random.nextInt(EXTENDED_CHARACTERS.length())));
+        }
+      } else {
+        builder.append(WORDS[random.nextInt(WORDS.length)]);
+      }
+    }
+    return builder.toString();
+  }
+
+  @Benchmark
+  public byte[] encodeSection() {
+    BitListOutputStream outputStream = new BitListOutputStream();
+    VariableLengthAsciiEncoding encoding = new VariableLengthAsciiEncoding(outputStream);
+    for (String string : strings) {
+      encoding.encodeExtended(string);
+    }
+    return outputStream.toByteArray();
+  }
+
+  @Benchmark
+  public void decodeSection(Blackhole blackhole) {
+    VariableLengthAsciiEncoding encoding = new VariableLengthAsciiEncoding(sectionBuffer.duplicate());
+    blackhole.consume(encoding.decode(0, 0));
+    for (int i = 1; i < numStrings; ++i) {
+      blackhole.consume(encoding.decode());
+    }
+  }
+
+  @Benchmark
+  public void decodeSectionOneLengthAtATime(Blackhole blackhole) {
+    ReferenceDecoder decoder = new ReferenceDecoder(sectionBuffer.duplicate());
+    for (int i = 0; i < numStrings; ++i) {
+      blackhole.consume(decoder.decode());
+    }
+  }
+
+  /** The decoder preceding the lookup table, retained for comparison. */
+  private static class ReferenceDecoder {
+    private static final int ENCODED_BIT_LENGTHS[] = { 3, 4, 5, 9 };
+    private static final int MIN_VALUES[] = { 0x0, 0x2, 0x10, 0x1e0 };
+    private static final int MAX_VALUES[] = { 0x0, 0x7, 0x1d, 0x1fb };
+    private static final String ENCODED_CHARACTERS[] = {
+      "A", "\0ENORI", "L STUMCDHBGKPY", "VWFJZXQ1204367985-/,.&()+;':" };
+
+    private final BitBuffer bitBuffer;
+
+    ReferenceDecoder(ByteBuffer byteBuffer) {
+      this.bitBuffer = new BitBuffer(byteBuffer);
+    }
+
+    String decode() {
+      String result = "";
+      char c;
+      while ((c = getNextCharacter()) != 0) {
+        result += c;
+      }
+      return result;
+    }
+
+    private char getNextCharacter() {
+      int currentBits = 0;
+      int numCurrentBits = 0;
+      for (int i = 0; i < ENCODED_BIT_LENGTHS.length; ++i) {
+        int numBitsToFetch = ENCODED_BIT_LENGTHS[i] - numCurrentBits;
+        currentBits <<= numBitsToFetch;
+        currentBits |= bitBuffer.readNumBits(numBitsToFetch);
+        numCurrentBits += numBitsToFetch;
+        if (currentBits >= MIN_VALUES[i] && currentBits <= MAX_VALUES[i]) {
+          return ENCODED_CHARACTERS[i].charAt(currentBits - MIN_VALUES[i]);
+        }
+      }
+      throw new IllegalStateException(String.format("Failed to decode %x", currentBits));
+    }
+  }
+}
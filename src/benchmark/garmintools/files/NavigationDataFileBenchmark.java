@@ -0,0 +1,82 @@
+/**
+ *    Copyright 2016 Iron City Software LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package garmintools.files;
+
+import garmintools.Proto;
+import garmintools.synthetic.SyntheticDatabase;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** A full decode and encode of a synthetic database, as NavDataTool does them, on one thread. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NavigationDataFileBenchmark {
+  @Param({"20000"})
+  public int numLandingFacilities;
+
+  private SyntheticDatabase database;
+  private File garminFile;
+
+  @Setup
+  public void setUp() throws IOException {
+    database = SyntheticDatabase.create(numLandingFacilities);
+    garminFile = File.createTempFile("benchmark", ".bin");
+  }
+
+  @TearDown
+  public void tearDown() {
+    garminFile.delete();
+  }
+
+  @Benchmark
+  public Proto.NavigationData decode() {
+    GarminNavigationDataFile dataFile =
+        new NavigationDataFileFactory().createFromGarmin(database.garminFile.duplicate());
+    Proto.NavigationData.Builder protoBuilder = Proto.NavigationData.newBuilder();
+    dataFile.writeToProto(protoBuilder);
+    return protoBuilder.build();
+  }
+
+  @Benchmark
+  public long encode() throws IOException {
+    ProtoNavigationDataFile dataFile = new NavigationDataFileFactory().createFromProto(database.proto);
+    try (FileOutputStream outputStream = new FileOutputStream(garminFile)) {
+      dataFile.writeToGarmin(outputStream);
+      return outputStream.getChannel().position();
+    }
+  }
+}
@@ -0,0 +1,115 @@
+/**
+ *    Copyright 2016 Iron City Software LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package garmintools.query;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Queries a spatial index over facilities clustered like airports in the continental US.
+ * {@code findNearestExhaustive} is the linear scan the index replaces.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LandingFacilitySpatialIndexBenchmark {
+  private static final int NUM_QUERIES = 1024;
+
+  @Param({"20000"})
+  public int numLandingFacilities;
+
+  @Param({"1", "4"})
+  public int cellsPerDegree;
+
+  private double latitudes[];
+  private double longitudes[];
+  private double queryLatitudes[];
+  private double queryLongitudes[];
+  private LandingFacilitySpatialIndex index;
+  private LandingFacilitySpatialIndex.Result result;
+  private int nextQuery;
+
+  @Setup
+  public void setUp() {
+    Random random = new Random(42);
+    latitudes = new double[numLandingFacilities];
+    longitudes = new double[numLandingFacilities];
+    for (int i = 0; i < numLandingFacilities; ++i) {
+      latitudes[i] = 25 + random.nextDouble() * 24;
+      longitudes[i] = -125 + random.nextDouble() * 58;
+    }
+    queryLatitudes = new double[NUM_QUERIES];
+    queryLongitudes = new double[NUM_QUERIES];
+    for (int i = 0; i < NUM_QUERIES; ++i) {
+      queryLatitudes[i] = 25 + random.nextDouble() * 24;
+      queryLongitudes[i] = -125 + random.nextDouble() * 58;
+    }
+    index = new LandingFacilitySpatialIndex(latitudes, longitudes, cellsPerDegree);
+    result = new LandingFacilitySpatialIndex.Result();
+  }
+
+  @Benchmark
+  public int findNearest10() {
+    int query = nextQuery++ & (NUM_QUERIES - 1);
+    index.findNearest(queryLatitudes[query], queryLongitudes[query], 10, result);
+    return result.getIndex(0);
+  }
+
+  @Benchmark
+  public int findWithinOneDegree() {
+    int query = nextQuery++ & (NUM_QUERIES - 1);
+    double latitude = queryLatitudes[query];
+    double longitude = queryLongitudes[query];
+    index.findWithin(latitude - 0.5, longitude - 0.5, latitude + 0.5, longitude + 0.5, result);
+    return result.size();
+  }
+
+  @Benchmark
+  public int findNearestExhaustive() {
+    int query = nextQuery++ & (NUM_QUERIES - 1);
+    double latitude = Math.toRadians(queryLatitudes[query]);
+    double longitude = Math.toRadians(queryLongitudes[query]);
+    int nearest = -1;
+    double nearestHaversine = Double.MAX_VALUE;
+    for (int i = 0; i < numLandingFacilities; ++i) {
+      double sinLatitude = Math.sin((Math.toRadians(latitudes[i]) - latitude) / 2);
+      double sinLongitude = Math.sin((Math.toRadians(longitudes[i]) - longitude) / 2);
+      double haversine = sinLatitude * sinLatitude
+          + Math.cos(latitude) * Math.cos(Math.toRadians(latitudes[i])) * sinLongitude * sinLongitude;
+      if (haversine < nearestHaversine) {
+        nearestHaversine = haversine;
+        nearest = i;
+      }
+    }
+    return nearest;
+  }
+}
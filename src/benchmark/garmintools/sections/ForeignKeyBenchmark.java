@@ -0,0 +1,99 @@
+/**
+ *    Copyright 2016 Iron City Software LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package garmintools.sections;
+
+import garmintools.adapters.garmin.LandingFacilityGarminAdapter;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Exercises the paths that create foreign keys: decoding landing facilities and looking up
+ * table entries while normalizing.  Run with {@code -prof gc} to see the allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ForeignKeyBenchmark {
+  private static final int NUM_TABLE_ENTRIES = 16;
+  private static final int NUM_LOOKUPS = 100000;
+
+  @Param({"20000"})
+  public int numLandingFacilities;
+
+  private ByteBuffer landingFacilityBuffer;
+  private LookupTableSection lookupTableSection;
+  private String lookups[];
+
+  @Setup
+  public void setUp() {
+    Random random = new Random(42);
+    landingFacilityBuffer = ByteBuffer
+        .allocate(numLandingFacilities * LandingFacilityGarminAdapter.LANDING_FACILITY_ENCODED_SIZE)
+        .order(ByteOrder.LITTLE_ENDIAN);
+    for (int i = 0; i < numLandingFacilities; ++i) {
+      for (int j = 0; j < 6; ++j) {
+        landingFacilityBuffer.putInt(random.nextInt());
+      }
+      landingFacilityBuffer.putInt((0x3ffff << 8) | random.nextInt(0x100));
+    }
+    landingFacilityBuffer.flip();
+
+    List<String> tableEntries = new ArrayList<>();
+    for (int i = 0; i < NUM_TABLE_ENTRIES; ++i) {
+      tableEntries.add("SURFACE" + i);
+    }
+    lookupTableSection = new LookupTableSection(Ids.RUNWAY_SURFACE_SECTION, tableEntries, null, null);
+    lookups = new String[NUM_LOOKUPS];
+    for (int i = 0; i < lookups.length; ++i) {
+      lookups[i] = tableEntries.get(random.nextInt(NUM_TABLE_ENTRIES));
+    }
+  }
+
+  @Benchmark
+  public Section<?> decodeLandingFacilities() {
+    return new LandingFacilitySection.Factory().createFromGarmin(null, null,
+        landingFacilityBuffer.duplicate().order(ByteOrder.LITTLE_ENDIAN));
+  }
+
+  @Benchmark
+  public void lookupOrInsert(Blackhole blackhole) {
+    for (String lookup : lookups) {
+      blackhole.consume(lookupTableSection.lookupOrInsert(lookup));
+    }
+  }
+}
@@ -0,0 +1,117 @@
+/**
+ *    Copyright 2016 Iron City Software LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package garmintools.sections;
+
+import garmintools.encoding.BitListOutputStream;
+import garmintools.encoding.VariableLengthAsciiEncoding;
+import garmintools.keys.VariableLengthEncodingForeignKey;
+import garmintools.wrappers.TableOfContentsEntry;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Reads a string section from garmin and resolves a name and a location per landing facility,
+ * as denormalizing landing facilities does. The time per facility should not grow with the
+ * number of facilities.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StringSectionBenchmark {
+  private static final String ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZ ";
+
+  @Param({"1000", "10000", "100000"})
+  public int numLandingFacilities;
+
+  private ByteBuffer sectionBuffer;
+  private TableOfContentsEntry entry;
+  private VariableLengthEncodingForeignKey facilityKeys[];
+
+  @Setup
+  public void setUp() {
+    Random random = new Random(42);
+    List<String> strings = new ArrayList<>();
+    for (int i = 0; i < 2 * numLandingFacilities; ++i) {
+      strings.add(createString(random, i));
+    }
+    Collections.sort(strings);
+    BitListOutputStream outputStream = new BitListOutputStream();
+    VariableLengthAsciiEncoding encoding = new VariableLengthAsciiEncoding(outputStream);
+    List<VariableLengthEncodingForeignKey> keys = new ArrayList<>();
+    for (String string : strings) {
+      keys.add(outputStream.getKey());
+      encoding.encodeExtended(string);
+    }
+    // Reading a section requires fewer than 4 bits of trailing padding.
+    while (outputStream.getBitPosition() > 0 && outputStream.getBitPosition() <= 4) {
+      encoding.encodeExtended("A");
+    }
+    byte data[] = outputStream.toByteArray();
+    sectionBuffer = ByteBuffer.wrap(data);
+    entry = TableOfContentsEntry.newBuilder()
+        .setSectionNumber(Ids.STRING_SECTION)
+        .setFileOffset(0)
+        .setItemLength(1)
+        .setItemQuantity(data.length)
+        .setActualLength(data.length)
+        .build();
+    facilityKeys = new VariableLengthEncodingForeignKey[2 * numLandingFacilities];
+    for (int i = 0; i < facilityKeys.length; ++i) {
+      facilityKeys[i] = keys.get(random.nextInt(keys.size()));
+    }
+  }
+
+  private String createString(Random random, int index) {
+    StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < 4 + random.nextInt(16); ++i) {
+      builder.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+    }
+    return builder.append(index).toString();
+  }
+
+  @Benchmark
+  public void readAndResolve(Blackhole blackhole) {
+    ByteBuffer byteBuffer = sectionBuffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+    StringSection section = (StringSection) new StringSection.Factory()
+        .createFromGarmin(null, entry, byteBuffer);
+    for (VariableLengthEncodingForeignKey key : facilityKeys) {
+      blackhole.consume(section.lookup(key));
+    }
+  }
+}
@@ -0,0 +1,70 @@
+/**
+ *    Copyright 2016 Iron City Software LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package garmintools.synthetic;
+
+import garmintools.Proto;
+import garmintools.files.NavigationDataFileFactory;
+import garmintools.sections.SectionManager;
+import garmintools.wrappers.TableOfContentsEntry;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+
+/** Synthetic navigation data and its garmin encoding, for benchmarks. */
+public class SyntheticDatabase {
+  private static final long SEED = 42;
+
+  public final Proto.NavigationData proto;
+  public final ByteBuffer garminFile;
+  public final SectionManager sectionManager;
+
+  private SyntheticDatabase(Proto.NavigationData proto, ByteBuffer garminFile) {
+    this.proto = proto;
+    this.garminFile = garminFile;
+    this.sectionManager = new NavigationDataFileFactory().createLazilyFromGarmin(garminFile).getSectionManager();
+  }
+
+  public static SyntheticDatabase create(int numLandingFacilities) throws IOException {
+    Proto.NavigationData proto = new NavigationDataGenerator(SEED).generate(numLandingFacilities);
+    File file = File.createTempFile("synthetic", ".bin");
+    try {
+      try (FileOutputStream outputStream = new FileOutputStream(file)) {
+        new NavigationDataFileFactory().createFromProto(proto).writeToGarmin(outputStream);
+      }
+      return new SyntheticDatabase(proto, ByteBuffer.wrap(Files.readAllBytes(file.toPath())));
+    } finally {
+      file.delete();
+    }
+  }
+
+  public TableOfContentsEntry getEntry(int sectionNumber) {
+    return sectionManager.getTableOfContentsSection().getEntryMap().get(sectionNumber);
+  }
+
+  /** Returns a new little-endian buffer over the section, as the section factories read it. */
+  public ByteBuffer getSection(int sectionNumber) {
+    TableOfContentsEntry entry = getEntry(sectionNumber);
+    ByteBuffer byteBuffer = garminFile.duplicate();
+    byteBuffer.limit(entry.fileOffset + entry.actualLength);
+    byteBuffer.position(entry.fileOffset);
+    return byteBuffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+  }
+}
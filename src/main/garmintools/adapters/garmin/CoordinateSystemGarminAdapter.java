@@ -20,7 +20,6 @@ import static garmintools.encoding.SixBitAsciiEncoding.SIMPLE_ENCODING;
 import garmintools.Proto;
 import garmintools.encoding.SixBitAsciiEncoding;
 import garmintools.sections.DataLengthSection;
-import garmintools.util.StringUtil;
 import garmintools.wrappers.TableOfContentsEntry;
 
 import java.nio.ByteBuffer;
@@ -28,7 +27,6 @@ import java.util.List;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
-import com.google.common.primitives.Bytes;
 import com.google.common.primitives.Ints;
 
 public class CoordinateSystemGarminAdapter implements GarminAdapter<List<Proto.CoordinateSystem>> {
@@ -40,18 +38,17 @@ public class CoordinateSystemGarminAdapter implements GarminAdapter<List<Proto.C
   public List<Proto.CoordinateSystem> read(DataLengthSection dataLengthSection, TableOfContentsEntry entry, ByteBuffer byteBuffer) {
     Preconditions.checkArgument(entry.itemLength >= ENCODED_COORDINATE_SYSTEM_NAME_WIDTH);
     ImmutableList.Builder<Proto.CoordinateSystem> listBuilder = ImmutableList.builder();
+    char name[] = new char[SixBitAsciiEncoding.getDecodedSize(ENCODED_COORDINATE_SYSTEM_NAME_WIDTH)];
     for (int index = 0; index < entry.itemQuantity; ++index) {
-      byte item[] = new byte[entry.itemLength];
-      byteBuffer.get(item);
-
       Proto.CoordinateSystem.Builder builder = Proto.CoordinateSystem.newBuilder();
-      byte nameData[] = slice(item, 0, ENCODED_COORDINATE_SYSTEM_NAME_WIDTH);
-      byte parameterData[] = slice(item, ENCODED_COORDINATE_SYSTEM_NAME_WIDTH, item.length);
-      builder.setName(SIMPLE_ENCODING.decode(nameData).trim());
+      int numCharacters = SIMPLE_ENCODING.decode(
+          byteBuffer, byteBuffer.position(), ENCODED_COORDINATE_SYSTEM_NAME_WIDTH, name);
+      byteBuffer.position(byteBuffer.position() + ENCODED_COORDINATE_SYSTEM_NAME_WIDTH);
+      builder.setName(new String(name, 0, numCharacters).trim());
 
-      int parameters[] = new int[parameterData.length];
-      for (int i = 0; i < parameterData.length; ++i) {
-        parameters[i] = parameterData[i] & 0xff;
+      int parameters[] = new int[entry.itemLength - ENCODED_COORDINATE_SYSTEM_NAME_WIDTH];
+      for (int i = 0; i < parameters.length; ++i) {
+        parameters[i] = byteBuffer.get() & 0xff;
       }
       builder.addAllParameters(Ints.asList(parameters));
       listBuilder.add(builder.build());
@@ -59,18 +56,13 @@ public class CoordinateSystemGarminAdapter implements GarminAdapter<List<Proto.C
     return listBuilder.build();
   }
 
-  private byte[] slice(byte data[], int start, int end) {
-    return Bytes.toArray(Bytes.asList(data).subList(start, end));
-  }
-
   @Override
   public GarminOutput write(List<Proto.CoordinateSystem> coordinateSystems) {
     GarminOutput output = new GarminOutput(
         coordinateSystems.size(), ENCODED_COORDINATE_SYSTEM_NAME_WIDTH + NUM_PARAMETERS);
     for (Proto.CoordinateSystem coordinateSystem : coordinateSystems) {
-      output.put(SIMPLE_ENCODING.encode(
-          StringUtil.pad(coordinateSystem.getName(),
-              SixBitAsciiEncoding.getDecodedSize(ENCODED_COORDINATE_SYSTEM_NAME_WIDTH))));
+      output.put(SIMPLE_ENCODING, coordinateSystem.getName(),
+          SixBitAsciiEncoding.getDecodedSize(ENCODED_COORDINATE_SYSTEM_NAME_WIDTH));
       for (int parameter : coordinateSystem.getParametersList()) {
         output.put((byte) parameter);
       }
@@ -16,6 +16,8 @@
 
 package garmintools.adapters.garmin;
 
+import garmintools.encoding.SixBitAsciiEncoding;
+
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
@@ -39,9 +41,19 @@ public class GarminOutput {
   }
 
   public GarminOutput(byte data[]) {
-    this.itemQuantity = data.length;
-    this.itemLength = 1;
-    this.byteBuffer = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+    this(ByteBuffer.wrap(data));
+  }
+
+  /** Takes ownership of the bytes between the position and limit of {@code data}. */
+  public GarminOutput(ByteBuffer data) {
+    this(data.remaining(), 1, data);
+  }
+
+  /** Takes ownership of the bytes between the position and limit of {@code data}. */
+  public GarminOutput(int itemQuantity, int itemLength, ByteBuffer data) {
+    this.itemQuantity = itemQuantity;
+    this.itemLength = itemLength;
+    this.byteBuffer = data.slice().order(ByteOrder.LITTLE_ENDIAN);
     byteBuffer.position(byteBuffer.limit());
   }
 
@@ -57,6 +69,11 @@ public class GarminOutput {
     byteBuffer.put(data);
   }
 
+  /** Puts {@code text} padded with spaces to {@code paddedLength} characters. */
+  public void put(SixBitAsciiEncoding encoding, CharSequence text, int paddedLength) {
+    encoding.encode(text, paddedLength, byteBuffer);
+  }
+
   public void putShort(short data) {
     byteBuffer.putShort(data);
   }
@@ -77,8 +94,17 @@ public class GarminOutput {
     return itemQuantity;
   }
 
+  /** Returns a read-only view of the bytes that {@link #write} writes. */
+  public ByteBuffer asReadOnlyBuffer() {
+    ByteBuffer view = byteBuffer.asReadOnlyBuffer();
+    view.flip();
+    return view.order(ByteOrder.LITTLE_ENDIAN);
+  }
+
   public void write(WritableByteChannel channel) throws IOException {
     byteBuffer.flip();
-    channel.write(byteBuffer);
+    while (byteBuffer.hasRemaining()) {
+      channel.write(byteBuffer);
+    }
   }
 }
\ No newline at end of file
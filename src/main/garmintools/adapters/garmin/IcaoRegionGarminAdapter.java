@@ -21,7 +21,6 @@ import garmintools.Proto;
 import garmintools.encoding.SixBitAsciiEncoding;
 import garmintools.sections.DataLengthSection;
 import garmintools.util.SizeUtil;
-import garmintools.util.StringUtil;
 import garmintools.wrappers.TableOfContentsEntry;
 
 import java.nio.ByteBuffer;
@@ -34,10 +33,11 @@ public class IcaoRegionGarminAdapter implements GarminAdapter<List<Proto.IcaoReg
   @Override
   public List<Proto.IcaoRegion> read(DataLengthSection dataLengthSection, TableOfContentsEntry entry, ByteBuffer byteBuffer) {
     ImmutableList.Builder<Proto.IcaoRegion> listBuilder = ImmutableList.builder();
+    char text[] = new char[SixBitAsciiEncoding.getDecodedSize(entry.itemLength)];
     for (int index = 0; index < entry.itemQuantity; ++index) {
-      byte item[] = new byte[entry.itemLength];
-      byteBuffer.get(item);
-      String concatenatedString = SIMPLE_ENCODING.decode(item);
+      int numCharacters = SIMPLE_ENCODING.decode(byteBuffer, byteBuffer.position(), entry.itemLength, text);
+      byteBuffer.position(byteBuffer.position() + entry.itemLength);
+      String concatenatedString = new String(text, 0, numCharacters);
       listBuilder.add(Proto.IcaoRegion.newBuilder()
           .setLandingFacilityIdentifierPrefix(concatenatedString.substring(0, 2))
           .setRegion(concatenatedString.substring(2).trim())
@@ -53,7 +53,7 @@ public class IcaoRegionGarminAdapter implements GarminAdapter<List<Proto.IcaoReg
         SixBitAsciiEncoding.getEncodedSize(longestString));
     for (Proto.IcaoRegion icaoRegion : icaoRegions) {
       String text = icaoRegion.getLandingFacilityIdentifierPrefix() + icaoRegion.getRegion();
-      output.put(SIMPLE_ENCODING.encode(StringUtil.pad(text, longestString)));
+      output.put(SIMPLE_ENCODING, text, longestString);
     }
     return output;
   }
@@ -19,7 +19,7 @@ package garmintools.adapters.garmin;
 import garmintools.Proto;
 import garmintools.Proto.UnknownLandingFacilityDetailSection;
 import garmintools.encoding.BitListOutputStream;
-import garmintools.encoding.LittleEndianByteArrayDataOutput;
+import garmintools.encoding.LittleEndianByteArrayOutputStream;
 import garmintools.encoding.VariableLengthAsciiEncoding;
 import garmintools.keys.IndexForeignKey;
 import garmintools.sections.DataLengthSection;
@@ -31,7 +31,6 @@ import garmintools.wrappers.TableOfContentsEntry;
 
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
-import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.LinkedList;
 import java.util.List;
@@ -40,8 +39,6 @@ import java.util.Queue;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
-import com.google.common.io.ByteArrayDataOutput;
-import com.google.common.io.ByteStreams;
 import com.google.common.primitives.Ints;
 import com.google.protobuf.ByteString;
 
@@ -50,7 +47,7 @@ public class LandingFacilityDetailGarminAdapter implements GarminAdapter<List<La
 
   public static class GarminOutputAndIndexToOffset extends GarminOutput {
     public final Map<Integer, Integer> indexToOffset;
-    public GarminOutputAndIndexToOffset(byte data[], Map<Integer, Integer> indexToOffset) {
+    public GarminOutputAndIndexToOffset(ByteBuffer data, Map<Integer, Integer> indexToOffset) {
       super(data);
       this.indexToOffset = indexToOffset;
     }
@@ -65,7 +62,8 @@ public class LandingFacilityDetailGarminAdapter implements GarminAdapter<List<La
     return builder.build();
   }
 
-  private LandingFacilityDetail readLandingFacilityDetail(DataLengthSection dataLengthSection, ByteBuffer byteBuffer) {
+  /** Reads the detail at the position of {@code byteBuffer}, which is its section offset. */
+  public LandingFacilityDetail readLandingFacilityDetail(DataLengthSection dataLengthSection, ByteBuffer byteBuffer) {
     LandingFacilityDetail.Builder builder = LandingFacilityDetail.newBuilder();
     Proto.LandingFacilityDetail.Builder protoBuilder = Proto.LandingFacilityDetail.newBuilder();
 
@@ -127,11 +125,11 @@ public class LandingFacilityDetailGarminAdapter implements GarminAdapter<List<La
       // 00700000 -> section 47 lighting index
       // 000f0000 -> section 48 runway surface index
       // 0000ffff -> runway length (ft)
-      runwayBuilder.withRunwayNumberSuffix(new IndexForeignKey((data >> 29) & 7));
+      runwayBuilder.withRunwayNumberSuffix(IndexForeignKey.of((data >> 29) & 7));
       protoRunwayBuilder.setRunwayNumber((data >> 24) & 0x1f);
       unknown[0] = (data >> 23) & 1;
-      runwayBuilder.withSurface(new IndexForeignKey((data >> 16) & 0xf));
-      runwayBuilder.withLighting(new IndexForeignKey((data >> 20) & 7));
+      runwayBuilder.withSurface(IndexForeignKey.of((data >> 16) & 0xf));
+      runwayBuilder.withLighting(IndexForeignKey.of((data >> 20) & 7));
       protoRunwayBuilder.setRunwayLengthFeet(data & 0xffff);
 
       data = byteBuffer.getShort() & 0xffff;
@@ -190,7 +188,7 @@ public class LandingFacilityDetailGarminAdapter implements GarminAdapter<List<La
       // 40000000 -> unknown[6]
       // 80000000 -> unknown[7]
       protoBuilder.setFrequencyGhz(decodeFrequency(data & 0xfff));
-      freqBuilder.withFrequencyType(new IndexForeignKey((data >> 16) & 0x3f));
+      freqBuilder.withFrequencyType(IndexForeignKey.of((data >> 16) & 0x3f));
       unknown[0] = (data >> 12) & 3;
       unknown[1] = (data >> 14) & 1;
       unknown[2] = (data >> 15) & 1;
@@ -265,55 +263,69 @@ public class LandingFacilityDetailGarminAdapter implements GarminAdapter<List<La
   @Override
   public GarminOutput write(List<LandingFacilityDetail> landingFacilityDetails) {
     ImmutableMap.Builder<Integer, Integer> indexToOffset = ImmutableMap.builder();
-    ByteArrayDataOutput output = new LittleEndianByteArrayDataOutput(ByteStreams.newDataOutput());
+    LittleEndianByteArrayOutputStream output = new LittleEndianByteArrayOutputStream();
+    BitListOutputStream narrativeOutput = new BitListOutputStream();
     for (int index = 0; index < landingFacilityDetails.size(); ++index) {
-      int offset = output.toByteArray().length;
+      int offset = output.position();
       indexToOffset.put(index, offset);
       // System.err.printf("Encoding detail offset %06d %06x (%06x)\n", offset, offset, 0x14ea0f + offset);
-      encode(landingFacilityDetails.get(index), output);
+      encode(landingFacilityDetails.get(index), output, narrativeOutput);
     }
-    return new GarminOutputAndIndexToOffset(output.toByteArray(), indexToOffset.build());
+    return new GarminOutputAndIndexToOffset(output.toByteBuffer(), indexToOffset.build());
   }
 
-  private void encode(LandingFacilityDetail detail, ByteArrayDataOutput output) {
-    BitSet sectionsPresent = new BitSet(16);
-    List<ByteArrayDataOutput> sections = new ArrayList<>();
+  /**
+   * Writes the bitmap of sub-sections present, a length slot per sub-section, then the
+   * sub-sections themselves, filling in each length once its sub-section is written.
+   */
+  private void encode(LandingFacilityDetail detail, LittleEndianByteArrayOutputStream output,
+      BitListOutputStream narrativeOutput) {
+    List<UnknownLandingFacilityDetailSection> unknownSections =
+        detail.protoLandingFacilityDetail.getUnknownSectionList();
+    int sectionsPresent = 0;
+    int numSections = unknownSections.size();
     if (!detail.runways.isEmpty()) {
-      sectionsPresent.set(0);
-      ByteArrayDataOutput sectionOutput = new LittleEndianByteArrayDataOutput(ByteStreams.newDataOutput());
-      sections.add(sectionOutput);
-      encodeRunwayInfo(detail.runways, sectionOutput);
+      sectionsPresent |= 1 << 0;
+      ++numSections;
     }
     if (!detail.communicationFrequencies.isEmpty()) {
-      sectionsPresent.set(1);
-      ByteArrayDataOutput sectionOutput = new LittleEndianByteArrayDataOutput(ByteStreams.newDataOutput());
-      sections.add(sectionOutput);
-      encodeCommunicationInfo(detail.communicationFrequencies, sectionOutput);
+      sectionsPresent |= 1 << 1;
+      ++numSections;
     }
-
-    // Temporary; pass through unknown sections.
-    for (UnknownLandingFacilityDetailSection unknownSection : detail.protoLandingFacilityDetail.getUnknownSectionList()) {
-      sectionsPresent.set(unknownSection.getSectionNumber());
-      ByteArrayDataOutput sectionOutput = ByteStreams.newDataOutput();
-      sectionOutput.write(unknownSection.getData().toByteArray());
-      sections.add(sectionOutput);
+    for (UnknownLandingFacilityDetailSection unknownSection : unknownSections) {
+      sectionsPresent |= 1 << unknownSection.getSectionNumber();
     }
+    output.writeShort(sectionsPresent);
 
-    output.writeShort(sectionsPresent.length() == 0
-        ? 0
-        : (short) sectionsPresent.toLongArray()[0]);
-    // write lengths.
-    for (ByteArrayDataOutput section : sections) {
-      int sectionLength = section.toByteArray().length;
-      output.writeShort(sectionLength);
+    int lengthPosition = output.position();
+    for (int i = 0; i < numSections; ++i) {
+      output.writeShort(0);
+    }
+    if (!detail.runways.isEmpty()) {
+      int sectionStart = output.position();
+      encodeRunwayInfo(detail.runways, output);
+      lengthPosition = putLength(output, lengthPosition, sectionStart);
+    }
+    if (!detail.communicationFrequencies.isEmpty()) {
+      int sectionStart = output.position();
+      encodeCommunicationInfo(detail.communicationFrequencies, output, narrativeOutput);
+      lengthPosition = putLength(output, lengthPosition, sectionStart);
     }
-    // write contents.
-    for (ByteArrayDataOutput section : sections) {
-      output.write(section.toByteArray());
+    // Temporary; pass through unknown sections.
+    for (UnknownLandingFacilityDetailSection unknownSection : unknownSections) {
+      int sectionStart = output.position();
+      output.write(unknownSection.getData().toByteArray());
+      lengthPosition = putLength(output, lengthPosition, sectionStart);
     }
   }
 
-  private void encodeRunwayInfo(List<Runway> runways, ByteArrayDataOutput output) {
+  /** Fills in the length slot of the sub-section just written, returning the next slot. */
+  private int putLength(LittleEndianByteArrayOutputStream output, int lengthPosition, int sectionStart) {
+    output.putShort(lengthPosition, output.position() - sectionStart);
+    return lengthPosition + Short.SIZE / Byte.SIZE;
+  }
+
+  private void encodeRunwayInfo(List<Runway> runways, LittleEndianByteArrayOutputStream output) {
     for (Runway runway : runways) {
       Proto.Runway proto = runway.protoRunway;
 
@@ -347,7 +359,8 @@ public class LandingFacilityDetailGarminAdapter implements GarminAdapter<List<La
     }
   }
 
-  private void encodeCommunicationInfo(List<CommunicationFrequency> freqs, ByteArrayDataOutput output) {
+  private void encodeCommunicationInfo(List<CommunicationFrequency> freqs, LittleEndianByteArrayOutputStream output,
+      BitListOutputStream narrativeOutput) {
     for (CommunicationFrequency freq : freqs) {
       Proto.CommunicationFrequency proto = freq.protoCommunicationFrequency;
 
@@ -388,15 +401,11 @@ public class LandingFacilityDetailGarminAdapter implements GarminAdapter<List<La
           output.write(proto.getUnknownAdditionalInfo4().toByteArray());
         }
         if (proto.hasNarrative()) {
-          BitListOutputStream bitListOutputStream = new BitListOutputStream();
-          for (int i = 0; i < NUM_NARRATIVE_LEADING_BITS; ++i) {
-            bitListOutputStream.writeBits(ImmutableList.of(false));
-          }
-          VariableLengthAsciiEncoding encoding = new VariableLengthAsciiEncoding(bitListOutputStream);
-          encoding.encodeExtended(proto.getNarrative());
-          byte b[] = bitListOutputStream.toByteArray();
-          output.write(b.length & 0xff);
-          output.write(b);
+          narrativeOutput.reset();
+          narrativeOutput.writeBits(0, NUM_NARRATIVE_LEADING_BITS);
+          new VariableLengthAsciiEncoding(narrativeOutput).encodeExtended(proto.getNarrative());
+          output.write(narrativeOutput.size() & 0xff);
+          narrativeOutput.writeTo(output);
         }
       }
     }
@@ -22,6 +22,7 @@ import garmintools.keys.SectionOffsetForeignKey;
 import garmintools.keys.VariableLengthEncodingForeignKey;
 import garmintools.sections.DataLengthSection;
 import garmintools.wrappers.LandingFacility;
+import garmintools.wrappers.LandingFacilityColumns;
 import garmintools.wrappers.TableOfContentsEntry;
 
 import java.nio.ByteBuffer;
@@ -33,28 +34,83 @@ import com.google.common.primitives.Ints;
 
 public class LandingFacilityGarminAdapter implements GarminAdapter<List<LandingFacility>> {
   public static final int LANDING_FACILITY_ENCODED_SIZE = 28;
+  private static final int IDENTIFIER_OFFSET = 8;
   private static final int ELEVATION_ADJUSTMENT = 0x1388;
   private static final int TWO_TO_TWENTY_FOUR = 1 << 24;
+  private static final int UNKNOWN_9 = 0x3ffff;
 
   @Override
   public List<LandingFacility> read(DataLengthSection dataLengthSection, TableOfContentsEntry entry, ByteBuffer byteBuffer) {
-    Preconditions.checkState(byteBuffer.remaining() % LANDING_FACILITY_ENCODED_SIZE == 0);
+    LandingFacilityColumns columns = readColumns(byteBuffer);
     ImmutableList.Builder<LandingFacility> listBuilder = ImmutableList.builder();
-    int index = 0;
-    while (byteBuffer.hasRemaining()) {
+    for (int index = 0; index < columns.size(); ++index) {
+      listBuilder.add(getLandingFacility(columns, index));
+    }
+    return listBuilder.build();
+  }
+
+  /** Decodes every landing facility without creating objects per facility. */
+  public LandingFacilityColumns readColumns(ByteBuffer byteBuffer) {
+    Preconditions.checkState(byteBuffer.remaining() % LANDING_FACILITY_ENCODED_SIZE == 0);
+    LandingFacilityColumns columns =
+        new LandingFacilityColumns(byteBuffer.remaining() / LANDING_FACILITY_ENCODED_SIZE);
+    for (int index = 0; index < columns.size(); ++index) {
       // System.err.printf("Decoding landing facility at offset %08x\n",
       //    byteBuffer.position() + 0x00acf486); // 0x003d0b23);
-      listBuilder.add(decodeLandingFacility(byteBuffer, index++));
+      decodeLandingFacility(byteBuffer, columns, index);
     }
-    return listBuilder.build();
+    return columns;
   }
 
-  private LandingFacility decodeLandingFacility(ByteBuffer byteBuffer, int index) {
-    LandingFacility.Builder builder = LandingFacility.newBuilder();
-    Proto.LandingFacility.Builder protoBuilder = Proto.LandingFacility.newBuilder();
-    int unknown[] = new int[11];
+  /** Decodes the landing facility at {@code index} of the section in {@code byteBuffer}. */
+  public LandingFacility readLandingFacility(ByteBuffer byteBuffer, int index) {
+    ByteBuffer recordBuffer = byteBuffer.duplicate().order(byteBuffer.order());
+    recordBuffer.position(index * LANDING_FACILITY_ENCODED_SIZE);
+    LandingFacilityColumns columns = new LandingFacilityColumns(1);
+    decodeLandingFacility(recordBuffer, columns, 0);
+    return toLandingFacility(columns, 0, index);
+  }
 
-    builder.withIdentifierPrefix(new IndexForeignKey(index));
+  /** Materializes the landing facility at {@code index} of {@code columns}. */
+  public LandingFacility getLandingFacility(LandingFacilityColumns columns, int index) {
+    return toLandingFacility(columns, index, index);
+  }
+
+  /**
+   * Returns the encoded identifier of the landing facility at {@code index}, less the prefix byte,
+   * as an unsigned value which orders like the identifier.
+   */
+  public static int getIdentifierSortKey(ByteBuffer byteBuffer, int index) {
+    int offset = index * LANDING_FACILITY_ENCODED_SIZE + IDENTIFIER_OFFSET;
+    return ((byteBuffer.get(offset + 1) & 0xff) << 8) | (byteBuffer.get(offset) & 0xff);
+  }
+
+  /** Decodes only the latitude of the landing facility at {@code index}. */
+  public static double getLatitudeDegrees(ByteBuffer byteBuffer, int index) {
+    int offset = index * LANDING_FACILITY_ENCODED_SIZE;
+    int latitudeBits = (byteBuffer.getShort(offset + 2) << 8) | (byteBuffer.get(offset + 4) & 0xff);
+    return ((double) latitudeBits) / TWO_TO_TWENTY_FOUR * 180;
+  }
+
+  /** Decodes only the longitude of the landing facility at {@code index}. */
+  public static double getLongitudeDegrees(ByteBuffer byteBuffer, int index) {
+    int offset = index * LANDING_FACILITY_ENCODED_SIZE;
+    int longitudeBits = (byteBuffer.getShort(offset) << 9) | ((byteBuffer.getInt(offset + 4) >> 8) & 0x1ff);
+    return ((double) longitudeBits) / TWO_TO_TWENTY_FOUR * 180;
+  }
+
+  private void decodeLandingFacility(ByteBuffer byteBuffer, LandingFacilityColumns columns, int row) {
+    // Unknown fields are packed into columns.unknownBits as
+    // 03000000 -> unknown[0]
+    // 00800000 -> unknown[1]
+    // 00600000 -> unknown[2]
+    // 00100000 -> unknown[3]
+    // 000f8000 -> unknown[4]
+    // 00004000 -> unknown[5]
+    // 00002000 -> unknown[6]
+    // 00001fff -> unknown[8]
+    // and unknown[10] into columns.unknownBytes.
+    int unknownBits = 0;
 
     // bytes 0-3
     // ffff0000 -> longitude high
@@ -75,25 +131,23 @@ public class LandingFacilityGarminAdapter implements GarminAdapter<List<LandingF
 
     latitudeBits |= (mask & 0xff);
     longitudeBits |= ((mask >> 8) & 0x1ff);
-    protoBuilder.setLongitudeDegrees(((double) longitudeBits) / TWO_TO_TWENTY_FOUR * 180);
-    protoBuilder.setLatitudeDegrees(((double) latitudeBits) / TWO_TO_TWENTY_FOUR * 180);
-    builder.withIcaoRegion(new IndexForeignKey((mask >> 17) & 0x1ff));
-    builder.withLandingFacilityType(new IndexForeignKey((mask >> 26) & 7));
-    unknown[1] = (mask >> 29) & 1;
+    columns.latitudeBits[row] = latitudeBits;
+    columns.longitudeBits[row] = longitudeBits;
+    int lookupIndexes = (((mask >> 17) & 0x1ff) << 6) | (((mask >> 26) & 7) << 3);
+    unknownBits |= ((mask >> 29) & 1) << 23;
     //Preconditions.checkState(unknown[0] == 1); TODO USA ONLY
-    unknown[0] = (mask >> 30) & 3;
+    unknownBits |= ((mask >> 30) & 3) << 24;
 
     // bytes 8-9
-    byte[] identifier = new byte[2];
-    byteBuffer.get(identifier);
-    builder.withIdentifier(identifier);
+    columns.identifiers[row] = (char) byteBuffer.getShort();
 
     // bytes 10-11
     // 8000 -> hasLandingFacilityDetail
     // 7fff -> elevation + 0x1388
     mask = byteBuffer.getShort();
     boolean hasLandingFacilityDetail = ((mask >> 15) & 1) > 0;
-    protoBuilder.setElevationFeet((mask & 0x7fff) - ELEVATION_ADJUSTMENT);
+    columns.hasDetail.set(row, hasLandingFacilityDetail);
+    columns.elevationFeet[row] = (short) ((mask & 0x7fff) - ELEVATION_ADJUSTMENT);
 
     // bytes 12-15
     // c0000000 -> unknown
@@ -104,14 +158,14 @@ public class LandingFacilityGarminAdapter implements GarminAdapter<List<LandingF
     // 00380000 -> section 2 landing facility name bit offset
     // 0007ffff -> section 2 landing facility name byte offset
     mask = byteBuffer.getInt();
-    unknown[2] = (mask >> 30) & 3;
-    unknown[3] = (mask >> 29) & 1;
-    unknown[4] = (mask >> 24) & 0x1f;
-    if (((mask >> 22) & 1) > 0) { protoBuilder.setJetAFuelAvailable(true); }
-    if (((mask >> 23) & 1) > 0) { protoBuilder.setAvgasFuelAvailable(true); }
+    unknownBits |= ((mask >> 30) & 3) << 21;
+    unknownBits |= ((mask >> 29) & 1) << 20;
+    unknownBits |= ((mask >> 24) & 0x1f) << 15;
+    columns.jetAFuelAvailable.set(row, ((mask >> 22) & 1) > 0);
+    columns.avgasFuelAvailable.set(row, ((mask >> 23) & 1) > 0);
     int nameBitIndex = 7 - ((mask >> 19) & 7);
     int nameByteIndex = mask & 0x7ffff;
-    builder.withName(new VariableLengthEncodingForeignKey(nameByteIndex, nameBitIndex));
+    columns.nameBitOffsets[row] = nameByteIndex * Byte.SIZE + nameBitIndex;
 
     // byte 16-19
     // fe000000 -> section 9 details index high
@@ -122,12 +176,12 @@ public class LandingFacilityGarminAdapter implements GarminAdapter<List<LandingF
     // 0007ffff -> location byte offset
     mask = byteBuffer.getInt();
     int landingFacilityDetailsOffsetHigh = (mask >> 9) & 0x7f0000;
-    unknown[5] = (mask >> 24) & 1;
-    if (((mask >> 23) & 1) > 0) { protoBuilder.setRadarAvailable(true); }
-    unknown[6] = (mask >> 22) & 1;
+    unknownBits |= ((mask >> 24) & 1) << 14;
+    columns.radarAvailable.set(row, ((mask >> 23) & 1) > 0);
+    unknownBits |= ((mask >> 22) & 1) << 13;
     int locationBitIndex = 7 - ((mask >> 19) & 7);
     int locationByteIndex = mask & 0x7ffff;
-    builder.withLocation(new VariableLengthEncodingForeignKey(locationByteIndex, locationBitIndex));
+    columns.locationBitOffsets[row] = locationByteIndex * Byte.SIZE + locationBitIndex;
 
     // byte 20-23
     // ffff0000 -> section 9 details index low (if details) or unknown (if no details)
@@ -135,21 +189,59 @@ public class LandingFacilityGarminAdapter implements GarminAdapter<List<LandingF
     // 00001fff -> unknown
     mask = byteBuffer.getInt();
     if (hasLandingFacilityDetail) {
-      int landingFacilityDetailsOffset = landingFacilityDetailsOffsetHigh | ((mask >> 16) & 0xffff);
-      builder.withDetail(new SectionOffsetForeignKey(landingFacilityDetailsOffset));
+      columns.detailOffsets[row] = landingFacilityDetailsOffsetHigh | ((mask >> 16) & 0xffff);
     } else {
-      unknown[7] = (mask >> 16) & 0xffff;  // Have seen 0x614, usually is 0x600.
+      columns.detailOffsets[row] = (mask >> 16) & 0xffff;  // Have seen 0x614, usually is 0x600.
     }
-    builder.withAirspace(new IndexForeignKey((mask >> 13) & 7));
-    unknown[8] = (mask & 0x1fff);
+    lookupIndexes |= (mask >> 13) & 7;
+    columns.lookupIndexes[row] = lookupIndexes;
+    unknownBits |= (mask & 0x1fff);
 
     // byte 24-27
     mask = byteBuffer.getInt();
     // ffffff00 -> unknown
     // 000000ff -> unknown
-    unknown[9] = (mask >> 8) & 0xffffff;
-    Preconditions.checkState(unknown[9] == 0x3ffff);
-    unknown[10] = mask & 0xff;
+    Preconditions.checkState(((mask >> 8) & 0xffffff) == UNKNOWN_9);
+    columns.unknownBytes[row] = (byte) mask;
+    columns.unknownBits[row] = unknownBits;
+  }
+
+  private LandingFacility toLandingFacility(LandingFacilityColumns columns, int row, int index) {
+    LandingFacility.Builder builder = LandingFacility.newBuilder();
+    Proto.LandingFacility.Builder protoBuilder = Proto.LandingFacility.newBuilder();
+    int unknownBits = columns.unknownBits[row];
+    boolean hasLandingFacilityDetail = columns.hasDetail.get(row);
+    int unknown[] = {
+        (unknownBits >> 24) & 3,
+        (unknownBits >> 23) & 1,
+        (unknownBits >> 21) & 3,
+        (unknownBits >> 20) & 1,
+        (unknownBits >> 15) & 0x1f,
+        (unknownBits >> 14) & 1,
+        (unknownBits >> 13) & 1,
+        hasLandingFacilityDetail ? 0 : columns.detailOffsets[row],
+        unknownBits & 0x1fff,
+        UNKNOWN_9,
+        columns.unknownBytes[row] & 0xff
+    };
+
+    builder.withIdentifierPrefix(IndexForeignKey.of(index));
+    protoBuilder.setLongitudeDegrees(columns.getLongitudeDegrees(row));
+    protoBuilder.setLatitudeDegrees(columns.getLatitudeDegrees(row));
+    builder.withIcaoRegion(IndexForeignKey.of(columns.getIcaoRegionIndex(row)));
+    builder.withLandingFacilityType(IndexForeignKey.of(columns.getLandingFacilityTypeIndex(row)));
+    char identifier = columns.identifiers[row];
+    builder.withIdentifier(new byte[] { (byte) identifier, (byte) (identifier >> 8) });
+    protoBuilder.setElevationFeet(columns.elevationFeet[row]);
+    if (columns.jetAFuelAvailable.get(row)) { protoBuilder.setJetAFuelAvailable(true); }
+    if (columns.avgasFuelAvailable.get(row)) { protoBuilder.setAvgasFuelAvailable(true); }
+    builder.withName(VariableLengthEncodingForeignKey.ofBitOffset(columns.nameBitOffsets[row]));
+    if (columns.radarAvailable.get(row)) { protoBuilder.setRadarAvailable(true); }
+    builder.withLocation(VariableLengthEncodingForeignKey.ofBitOffset(columns.locationBitOffsets[row]));
+    if (hasLandingFacilityDetail) {
+      builder.withDetail(SectionOffsetForeignKey.of(columns.detailOffsets[row]));
+    }
+    builder.withAirspace(IndexForeignKey.of(columns.getAirspaceIndex(row)));
 
     protoBuilder.addAllUnknown(Ints.asList(unknown));
     builder.withLandingFacility(protoBuilder.build());
@@ -18,7 +18,7 @@ package garmintools.adapters.garmin;
 
 import static garmintools.encoding.SixBitAsciiEncoding.SIMPLE_ENCODING;
 import garmintools.Proto;
-import garmintools.encoding.LittleEndianByteArrayDataOutput;
+import garmintools.encoding.LittleEndianByteArrayOutputStream;
 import garmintools.encoding.SixBitAsciiEncoding;
 import garmintools.sections.DataLengthSection;
 import garmintools.sections.Ids;
@@ -29,8 +29,6 @@ import java.nio.ByteBuffer;
 
 import com.google.common.base.Charsets;
 import com.google.common.base.Preconditions;
-import com.google.common.io.ByteArrayDataOutput;
-import com.google.common.io.ByteStreams;
 
 public class MetadataGarminAdapter implements GarminAdapter<Proto.Metadata> {
   /** Metadata does not have a TOC entry, so use a pseudo one for consistency. */
@@ -95,20 +93,20 @@ public class MetadataGarminAdapter implements GarminAdapter<Proto.Metadata> {
 
   @Override
   public GarminOutput write(Proto.Metadata data) {
-    ByteArrayDataOutput output = new LittleEndianByteArrayDataOutput(ByteStreams.newDataOutput());
+    LittleEndianByteArrayOutputStream output = new LittleEndianByteArrayOutputStream();
     writePreamble(output);
     writeMetadata(data, output);
-    return new GarminOutput(output.toByteArray());
+    return new GarminOutput(output.toByteBuffer());
   }
 
-  private void writePreamble(ByteArrayDataOutput output) {
+  private void writePreamble(LittleEndianByteArrayOutputStream output) {
     output.write(DEFAULT_PREAMBLE_LENGTH);
     for (int i = 0; i < DEFAULT_PREAMBLE_LENGTH; ++i) {
       output.write(i);
     }
   }
 
-  private void writeMetadata(Proto.Metadata data, ByteArrayDataOutput output) {
+  private void writeMetadata(Proto.Metadata data, LittleEndianByteArrayOutputStream output) {
     output.writeShort(data.getCycleNumber());
     writeDate(output, data.getEffectiveDate());
     writeDate(output, data.getExpiresDate());
@@ -131,7 +129,7 @@ public class MetadataGarminAdapter implements GarminAdapter<Proto.Metadata> {
     }
   }
 
-  private void writeStringAndPadWithSpace(ByteArrayDataOutput output, String string, int paddedLength) {
+  private void writeStringAndPadWithSpace(LittleEndianByteArrayOutputStream output, String string, int paddedLength) {
     byte b[] = string.getBytes(Charsets.US_ASCII);
     output.write(b);
     output.write(0);
@@ -141,7 +139,7 @@ public class MetadataGarminAdapter implements GarminAdapter<Proto.Metadata> {
     }
   }
 
-  private void writeDate(ByteArrayDataOutput output, Proto.Date date) {
+  private void writeDate(LittleEndianByteArrayOutputStream output, Proto.Date date) {
     output.write(date.getMonth());
     output.write(date.getDay());
     output.writeShort(date.getYear());
@@ -20,7 +20,6 @@ import static garmintools.encoding.SixBitAsciiEncoding.COMPLEX_ENCODING;
 import garmintools.encoding.SixBitAsciiEncoding;
 import garmintools.sections.DataLengthSection;
 import garmintools.util.SizeUtil;
-import garmintools.util.StringUtil;
 import garmintools.wrappers.TableOfContentsEntry;
 
 import java.nio.ByteBuffer;
@@ -32,10 +31,11 @@ public class NavigationFixGarminAdapter implements GarminAdapter<List<String>> {
   @Override
   public List<String> read(DataLengthSection dataLengthSection, TableOfContentsEntry entry, ByteBuffer byteBuffer) {
     ImmutableList.Builder<String> listBuilder = ImmutableList.builder();
+    char text[] = new char[SixBitAsciiEncoding.getDecodedSize(entry.itemLength)];
     for (int index = 0; index < entry.itemQuantity; ++index) {
-      byte item[] = new byte[entry.itemLength];
-      byteBuffer.get(item);
-      listBuilder.add(COMPLEX_ENCODING.decode(item).trim());
+      int numCharacters = COMPLEX_ENCODING.decode(byteBuffer, byteBuffer.position(), entry.itemLength, text);
+      byteBuffer.position(byteBuffer.position() + entry.itemLength);
+      listBuilder.add(new String(text, 0, numCharacters).trim());
     }
     return listBuilder.build();
   }
@@ -46,7 +46,7 @@ public class NavigationFixGarminAdapter implements GarminAdapter<List<String>> {
     GarminOutput output = new GarminOutput(navigationFixes.size(),
         SixBitAsciiEncoding.getEncodedSize(longestString));
     for (String navigationFix : navigationFixes) {
-      output.put(COMPLEX_ENCODING.encode(StringUtil.pad(navigationFix, longestString)));
+      output.put(COMPLEX_ENCODING, navigationFix, longestString);
     }
     return output;
   }
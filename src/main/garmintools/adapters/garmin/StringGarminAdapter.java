@@ -27,12 +27,13 @@ import garmintools.wrappers.TableOfContentsEntry;
 import java.nio.ByteBuffer;
 import java.util.List;
 
+import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 
 public class StringGarminAdapter implements GarminAdapter<List<String>> {
   public static class GarminOutputAndKeys extends GarminOutput {
     public final List<VariableLengthEncodingForeignKey> keys;
-    public GarminOutputAndKeys(byte data[], List<VariableLengthEncodingForeignKey> keys) {
+    public GarminOutputAndKeys(ByteBuffer data, List<VariableLengthEncodingForeignKey> keys) {
       super(data);
       this.keys = keys;
     }
@@ -56,13 +57,27 @@ public class StringGarminAdapter implements GarminAdapter<List<String>> {
 
   @Override
   public GarminOutput write(List<String> strings) {
+    int order[] = new int[strings.size()];
+    for (int index = 0; index < order.length; ++index) {
+      order[index] = index;
+    }
+    return writeInOrder(strings, order);
+  }
+
+  /**
+   * Writes strings.get(order[0]), strings.get(order[1]), and so on.
+   * The returned keys are indexed like {@code strings}, not in written order.
+   */
+  public GarminOutputAndKeys writeInOrder(List<String> strings, int order[]) {
+    Preconditions.checkArgument(order.length == strings.size());
     BitListOutputStream bitListOutputStream = new BitListOutputStream();
     VariableLengthAsciiEncoding encoding = new VariableLengthAsciiEncoding(bitListOutputStream);
-    ImmutableList.Builder<VariableLengthEncodingForeignKey> listBuilder = ImmutableList.builder();
-    for (String string : strings) {
-      listBuilder.add(bitListOutputStream.getKey());
-      encoding.encodeExtended(string);
+    VariableLengthEncodingForeignKey keys[] = new VariableLengthEncodingForeignKey[strings.size()];
+    for (int index : order) {
+      Preconditions.checkArgument(keys[index] == null, "Index %s is written twice", index);
+      keys[index] = bitListOutputStream.getKey();
+      encoding.encodeExtended(strings.get(index));
     }
-    return new GarminOutputAndKeys(bitListOutputStream.toByteArray(), listBuilder.build());
+    return new GarminOutputAndKeys(bitListOutputStream.toByteBuffer(), ImmutableList.copyOf(keys));
   }
 }
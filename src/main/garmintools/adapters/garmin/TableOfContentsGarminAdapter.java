@@ -20,8 +20,6 @@ import garmintools.sections.DataLengthSection;
 import garmintools.wrappers.TableOfContents;
 import garmintools.wrappers.TableOfContentsEntry;
 
-import java.io.IOException;
-import java.io.InputStream;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -31,7 +29,6 @@ import java.util.TreeSet;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableMap;
-import com.google.common.io.LittleEndianDataInputStream;
 import com.google.common.primitives.Ints;
 
 public class TableOfContentsGarminAdapter implements GarminAdapter<TableOfContents> {
@@ -48,7 +45,7 @@ public class TableOfContentsGarminAdapter implements GarminAdapter<TableOfConten
   @Override
   public TableOfContents read(DataLengthSection unused,
       TableOfContentsEntry unusedToc, ByteBuffer unusedBuffer) {
-    throw new UnsupportedOperationException("Use read(originalInputStream, inputFileLength)");
+    throw new UnsupportedOperationException("Use read(byteBuffer, inputFileLength)");
   }
 
   public int getSize(int numEntries) {
@@ -61,18 +58,18 @@ public class TableOfContentsGarminAdapter implements GarminAdapter<TableOfConten
    * 1) the first entry in the TOC is for the TOC itself, so the length is not known a priori.
    * 2) it is useful to know the input file length to construct the TOC, and this is not available
    *    in the traditional GarminAdapter.read interface.
+   * The little-endian {@code byteBuffer} must be positioned at the start of the TOC; it is
+   * left positioned just past the last entry.
    */
-  public TableOfContents read(InputStream originalInputStream, int inputFileLength)
-      throws IOException {
-    LittleEndianDataInputStream inputStream = new LittleEndianDataInputStream(originalInputStream);
-    TableOfContentsEntry toc = readTableOfContentsEntry(inputStream);
+  public TableOfContents read(ByteBuffer byteBuffer, int inputFileLength) {
+    TableOfContentsEntry toc = readTableOfContentsEntry(byteBuffer);
     Preconditions.checkState(toc.itemQuantity <= MAX_ITEM_QUANTITY);
     Preconditions.checkState(toc.itemLength == ITEM_LENGTH);
     Map<Integer, TableOfContentsEntry> offsetToEntries = new HashMap<>();
     ImmutableMap.Builder<Integer, Integer> emptySectionItemLengths = ImmutableMap.builder();
     for (int sectionNumber = 0; sectionNumber < toc.itemQuantity - 1; ++sectionNumber) {
       TableOfContentsEntry entry = TableOfContentsEntry
-          .newBuilder(readTableOfContentsEntry(inputStream))
+          .newBuilder(readTableOfContentsEntry(byteBuffer))
           .setSectionNumber(sectionNumber)
           .build();
       if (entry.fileOffset == 0) {
@@ -98,16 +95,15 @@ public class TableOfContentsGarminAdapter implements GarminAdapter<TableOfConten
     return new TableOfContents(toc.itemQuantity, mapBuilder.build(), emptySectionItemLengths.build());
   }
 
-  private TableOfContentsEntry readTableOfContentsEntry(LittleEndianDataInputStream inputStream)
-      throws IOException {
+  private TableOfContentsEntry readTableOfContentsEntry(ByteBuffer byteBuffer) {
     TableOfContentsEntry.Builder builder = TableOfContentsEntry.newBuilder();
-    int data = inputStream.readInt();
+    int data = byteBuffer.getInt();
     // 00ffffff -> file offset
     // ff000000 -> high item length
     builder.setFileOffset(data & 0xffffff);
     int itemLength = (data >> 16) & 0xff00;
 
-    data = inputStream.readInt();
+    data = byteBuffer.getInt();
     // 000000ff -> low item length
     // ffffff00 -> item quantity
     builder
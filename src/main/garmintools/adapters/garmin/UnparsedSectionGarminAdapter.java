@@ -23,7 +23,7 @@ import garmintools.wrappers.TableOfContentsEntry;
 
 import java.nio.ByteBuffer;
 
-import com.google.protobuf.ByteString;
+import com.google.protobuf.UnsafeByteOperations;
 
 public class UnparsedSectionGarminAdapter implements GarminAdapter<Proto.UnparsedSection> {
   private final int sectionNumber;
@@ -36,7 +36,9 @@ public class UnparsedSectionGarminAdapter implements GarminAdapter<Proto.Unparse
   public UnparsedSection read(DataLengthSection dataLengthSection, TableOfContentsEntry entry, ByteBuffer byteBuffer) {
     Proto.UnparsedSection.Builder builder = Proto.UnparsedSection.newBuilder();
     builder.setSectionNumber(sectionNumber);
-    builder.setData(ByteString.copyFrom(byteBuffer));
+    // Wrapping shares the (possibly memory-mapped) input rather than copying it.
+    builder.setData(UnsafeByteOperations.unsafeWrap(byteBuffer));
+    byteBuffer.position(byteBuffer.limit());
     builder.setItemLength(entry.itemLength);
     builder.setItemQuantity(entry.itemQuantity);
     return builder.build();
@@ -0,0 +1,114 @@
+/**
+ *    Copyright 2016 Iron City Software LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package garmintools.delta;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Finds the blocks of a buffer that have the same contents as a block of another.
+ * Blocks are indexed at multiples of the block size and located by a hash that
+ * {@link #roll} updates one byte at a time.
+ */
+class BlockIndex {
+  private static final int MULTIPLIER = 0x01000193;
+  // Bounds the work per lookup when many blocks share a hash, such as runs of padding.
+  private static final int MAX_CANDIDATES = 16;
+
+  private final ByteBuffer buffer;
+  private final int blockSize;
+  private final int removeMultiplier;
+  private final int heads[];
+  private final int next[];
+  private final int hashes[];
+  private final int shift;
+
+  BlockIndex(ByteBuffer buffer, int blockSize) {
+    this.buffer = buffer;
+    this.blockSize = blockSize;
+    int multiplier = 1;
+    for (int i = 1; i < blockSize; ++i) {
+      multiplier *= MULTIPLIER;
+    }
+    this.removeMultiplier = multiplier;
+    int numBlocks = buffer.limit() / blockSize;
+    int tableBits = 32 - Integer.numberOfLeadingZeros(Math.max(1, numBlocks * 2 - 1));
+    this.shift = 32 - tableBits;
+    this.heads = new int[1 << tableBits];
+    this.next = new int[numBlocks];
+    this.hashes = new int[numBlocks];
+    Arrays.fill(heads, -1);
+    // Inserted in reverse so that chains list earlier blocks first.
+    for (int block = numBlocks - 1; block >= 0; --block) {
+      int hash = hash(buffer, block * blockSize);
+      int slot = slot(hash);
+      hashes[block] = hash;
+      next[block] = heads[slot];
+      heads[slot] = block;
+    }
+  }
+
+  int getBlockSize() {
+    return blockSize;
+  }
+
+  /** Returns the hash of the block of {@code data} at {@code offset}. */
+  int hash(ByteBuffer data, int offset) {
+    int hash = 0;
+    for (int i = offset; i < offset + blockSize; ++i) {
+      hash = hash * MULTIPLIER + (data.get(i) & 0xff);
+    }
+    return hash;
+  }
+
+  /** Returns the hash of the block one byte after the block with {@code hash}. */
+  int roll(int hash, byte removed, byte added) {
+    return (hash - (removed & 0xff) * removeMultiplier) * MULTIPLIER + (added & 0xff);
+  }
+
+  /**
+   * Returns the offset in the indexed buffer of a block with the same contents as the block of
+   * {@code data} at {@code offset}, whose hash is {@code hash}, or -1 if none is found.
+   */
+  int find(int hash, ByteBuffer data, int offset) {
+    int numCandidates = 0;
+    for (int block = heads[slot(hash)]; block != -1 && numCandidates < MAX_CANDIDATES;
+        block = next[block]) {
+      if (hashes[block] == hash) {
+        ++numCandidates;
+        if (regionEquals(buffer, block * blockSize, data, offset, blockSize)) {
+          return block * blockSize;
+        }
+      }
+    }
+    return -1;
+  }
+
+  private int slot(int hash) {
+    return (hash * 0x9e3779b9) >>> shift;
+  }
+
+  static boolean regionEquals(ByteBuffer left, int leftOffset, ByteBuffer right, int rightOffset,
+      int length) {
+    for (int i = 0; i < length; ++i) {
+      if (left.get(leftOffset + i) != right.get(rightOffset + i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -0,0 +1,56 @@
+/**
+ *    Copyright 2016 Iron City Software LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package garmintools.delta;
+
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+
+/**
+ * The delta file format.  All values are little-endian.
+ * <pre>
+ * int magic, int version
+ * int old file length, int old file CRC-32
+ * int new file length, int new file CRC-32
+ * deflated instructions, each a one byte opcode followed by its operands:
+ *   COPY old offset (int), length (int)         copies bytes of the old file
+ *   DIFF old offset (int), length (int), bytes  adds the bytes to those of the old file
+ *   INSERT length (int), bytes                  copies the bytes that follow
+ *   END
+ * </pre>
+ * The new file is the concatenation of the bytes produced by the instructions.
+ * DIFF suits records that moved along with the offsets they hold, whose differences
+ * repeat from record to record and so deflate well.
+ */
+final class DeltaFormat {
+  static final int MAGIC = 0x544c4447;  // "GDLT"
+  static final int VERSION = 1;
+  static final int HEADER_SIZE = 24;
+
+  static final byte END = 0;
+  static final byte COPY = 1;
+  static final byte DIFF = 2;
+  static final byte INSERT = 3;
+
+  private DeltaFormat() { }
+
+  /** Returns the CRC-32 of the bytes between the position and limit of {@code buffer}. */
+  static int crc(ByteBuffer buffer) {
+    CRC32 crc = new CRC32();
+    crc.update(buffer.duplicate());
+    return (int) crc.getValue();
+  }
+}
@@ -0,0 +1,224 @@
+/**
+ *    Copyright 2016 Iron City Software LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package garmintools.delta;
+
+import garmintools.files.NavigationDataFileFactory;
+import garmintools.wrappers.TableOfContentsEntry;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Writes a delta from which {@link DeltaPatcher} rebuilds a new Garmin file from an old one.
+ * Sections are aligned by section number using the two tables of contents.  Sections of fixed
+ * length records are matched a record at a time; other sections, and the bytes outside of any
+ * section, are matched in blocks at any byte offset.  Unmatched bytes are inserted.
+ * A record that matches no old record is stored as its differences to the old record it most
+ * likely replaces, which is typically the same record with some of its offsets moved.
+ */
+public class DeltaGenerator {
+  private static final int BLOCK_SIZE = 32;
+  // The number of old records following the last matched record that a changed record is
+  // compared to, which allows for that many removed records.
+  private static final int RECORD_WINDOW = 8;
+
+  /** Maps both files read-only and returns the size of the delta. */
+  public long generate(File oldFile, File newFile, File deltaFile) throws IOException {
+    Preconditions.checkArgument(!deltaFile.getCanonicalFile().equals(oldFile.getCanonicalFile())
+        && !deltaFile.getCanonicalFile().equals(newFile.getCanonicalFile()),
+        "The delta would overwrite its input");
+    try (FileChannel oldChannel = FileChannel.open(oldFile.toPath(), StandardOpenOption.READ);
+        FileChannel newChannel = FileChannel.open(newFile.toPath(), StandardOpenOption.READ);
+        OutputStream deltaStream = new BufferedOutputStream(new FileOutputStream(deltaFile))) {
+      return generate(oldChannel.map(FileChannel.MapMode.READ_ONLY, 0, oldChannel.size()),
+          newChannel.map(FileChannel.MapMode.READ_ONLY, 0, newChannel.size()),
+          deltaStream);
+    }
+  }
+
+  /** Returns the size of the delta written to {@code delta}, which is left open. */
+  public long generate(ByteBuffer oldFile, ByteBuffer newFile, OutputStream delta)
+      throws IOException {
+    Map<Integer, TableOfContentsEntry> oldEntries =
+        GarminFileLayout.readTableOfContents(oldFile).getEntryMap();
+    List<TableOfContentsEntry> newEntries = GarminFileLayout.getEntriesInFileOrder(
+        GarminFileLayout.readTableOfContents(newFile));
+    DeltaWriter writer = new DeltaWriter(delta, oldFile, newFile);
+    for (TableOfContentsEntry newEntry : newEntries) {
+      int sectionEnd = newEntry.fileOffset + newEntry.actualLength;
+      if (sectionEnd <= writer.getNewFilePosition()) {
+        continue;
+      }
+      matchUnaligned(writer, oldFile, newFile, newEntry.fileOffset);
+      TableOfContentsEntry oldEntry = oldEntries.get(newEntry.sectionNumber);
+      if (oldEntry == null) {
+        writer.insert(sectionEnd - writer.getNewFilePosition());
+      } else if (isRecordAligned(oldEntry) && isRecordAligned(newEntry)
+          && oldEntry.itemLength == newEntry.itemLength
+          && writer.getNewFilePosition() == newEntry.fileOffset) {
+        matchRecords(writer, oldFile, oldEntry.fileOffset, oldEntry.actualLength,
+            newFile, newEntry.fileOffset, newEntry.actualLength, newEntry.itemLength);
+      } else {
+        int newOffset = writer.getNewFilePosition();
+        matchBlocks(writer, oldFile, oldEntry.fileOffset, oldEntry.actualLength,
+            newFile, newOffset, sectionEnd - newOffset);
+      }
+    }
+    matchUnaligned(writer, oldFile, newFile, newFile.limit());
+    return writer.finish();
+  }
+
+  private static boolean isRecordAligned(TableOfContentsEntry entry) {
+    return entry.itemLength > 1 && entry.itemLength * entry.itemQuantity == entry.actualLength;
+  }
+
+  /**
+   * Matches the bytes up to {@code newEnd} that are outside of any section, such as the metadata
+   * and table of contents, against the bytes at the same offsets in the old file.
+   */
+  private static void matchUnaligned(DeltaWriter writer, ByteBuffer oldFile, ByteBuffer newFile,
+      int newEnd) throws IOException {
+    int newOffset = writer.getNewFilePosition();
+    if (newOffset < newEnd) {
+      int oldLength = Math.max(0, Math.min(newEnd, oldFile.limit()) - newOffset);
+      matchBlocks(writer, oldFile, newOffset, oldLength, newFile, newOffset, newEnd - newOffset);
+    }
+  }
+
+  private static void matchRecords(DeltaWriter writer, ByteBuffer oldFile, int oldOffset,
+      int oldLength, ByteBuffer newFile, int newOffset, int newLength, int recordLength)
+      throws IOException {
+    ByteBuffer oldSection = NavigationDataFileFactory.slice(oldFile, oldOffset, oldLength);
+    ByteBuffer newSection = NavigationDataFileFactory.slice(newFile, newOffset, newLength);
+    if (oldSection.equals(newSection)) {
+      writer.copy(oldOffset, oldLength);
+      return;
+    }
+    BlockIndex index = new BlockIndex(oldSection, recordLength);
+    // Records usually follow the record they followed in the old file.
+    int expectedOldRecord = 0;
+    for (int newRecord = 0; newRecord < newLength; newRecord += recordLength) {
+      int oldRecord = expectedOldRecord + recordLength <= oldLength
+          && BlockIndex.regionEquals(oldSection, expectedOldRecord, newSection, newRecord, recordLength)
+          ? expectedOldRecord
+          : index.find(index.hash(newSection, newRecord), newSection, newRecord);
+      if (oldRecord != -1) {
+        writer.copy(oldOffset + oldRecord, recordLength);
+        expectedOldRecord = oldRecord + recordLength;
+        continue;
+      }
+      // Only a record that differs in fewer than half of its bytes is considered a replacement.
+      int maxDifferences = (recordLength - 1) / 2;
+      for (int candidate = expectedOldRecord;
+          candidate < expectedOldRecord + RECORD_WINDOW * recordLength
+              && candidate + recordLength <= oldLength;
+          candidate += recordLength) {
+        int differences = countDifferences(oldSection, candidate, newSection, newRecord,
+            recordLength, maxDifferences);
+        if (differences <= maxDifferences) {
+          oldRecord = candidate;
+          maxDifferences = differences - 1;
+        }
+      }
+      if (oldRecord == -1) {
+        writer.insert(recordLength);
+      } else {
+        writer.diff(oldOffset + oldRecord, recordLength);
+        expectedOldRecord = oldRecord + recordLength;
+      }
+    }
+  }
+
+  /** Returns the number of differing bytes, or any larger number once it exceeds {@code max}. */
+  private static int countDifferences(ByteBuffer left, int leftOffset, ByteBuffer right,
+      int rightOffset, int length, int max) {
+    int differences = 0;
+    for (int i = 0; i < length && differences <= max; ++i) {
+      if (left.get(leftOffset + i) != right.get(rightOffset + i)) {
+        ++differences;
+      }
+    }
+    return differences;
+  }
+
+  /**
+   * Matches blocks of the new bytes at any offset against blocks of the old bytes, extending
+   * each match as far as the bytes agree.
+   */
+  private static void matchBlocks(DeltaWriter writer, ByteBuffer oldFile, int oldOffset,
+      int oldLength, ByteBuffer newFile, int newOffset, int newLength) throws IOException {
+    ByteBuffer oldBytes = NavigationDataFileFactory.slice(oldFile, oldOffset, oldLength);
+    ByteBuffer newBytes = NavigationDataFileFactory.slice(newFile, newOffset, newLength);
+    if (oldBytes.equals(newBytes)) {
+      writer.copy(oldOffset, oldLength);
+      return;
+    }
+    if (oldLength < BLOCK_SIZE || newLength < BLOCK_SIZE) {
+      writer.insert(newLength);
+      return;
+    }
+    BlockIndex index = new BlockIndex(oldBytes, BLOCK_SIZE);
+    int literalStart = 0;
+    int expectedOld = 0;
+    int position = 0;
+    int hash = index.hash(newBytes, 0);
+    while (position + BLOCK_SIZE <= newLength) {
+      int matchOld = expectedOld + BLOCK_SIZE <= oldLength
+          && BlockIndex.regionEquals(oldBytes, expectedOld, newBytes, position, BLOCK_SIZE)
+          ? expectedOld
+          : index.find(hash, newBytes, position);
+      if (matchOld == -1) {
+        if (position + BLOCK_SIZE < newLength) {
+          hash = index.roll(hash, newBytes.get(position), newBytes.get(position + BLOCK_SIZE));
+        }
+        ++position;
+        continue;
+      }
+      int start = position;
+      int oldStart = matchOld;
+      while (start > literalStart && oldStart > 0
+          && oldBytes.get(oldStart - 1) == newBytes.get(start - 1)) {
+        --start;
+        --oldStart;
+      }
+      int end = position + BLOCK_SIZE;
+      int oldEnd = matchOld + BLOCK_SIZE;
+      while (end < newLength && oldEnd < oldLength && oldBytes.get(oldEnd) == newBytes.get(end)) {
+        ++end;
+        ++oldEnd;
+      }
+      writer.insert(start - literalStart);
+      writer.copy(oldOffset + oldStart, end - start);
+      literalStart = position = end;
+      expectedOld = oldEnd;
+      if (position + BLOCK_SIZE <= newLength) {
+        hash = index.hash(newBytes, position);
+      }
+    }
+    writer.insert(newLength - literalStart);
+  }
+}
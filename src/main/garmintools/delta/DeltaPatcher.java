@@ -0,0 +1,125 @@
+/**
+ *    Copyright 2016 Iron City Software LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package garmintools.delta;
+
+import garmintools.files.NavigationDataFileFactory;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+import java.util.zip.InflaterInputStream;
+
+import com.google.common.base.Preconditions;
+
+/** Rebuilds a new Garmin file from an old one and a delta written by {@link DeltaGenerator}. */
+public class DeltaPatcher {
+  private static final int CHUNK_SIZE = 1 << 16;
+
+  /** Returns whether {@code file} starts as a delta does. */
+  public static boolean isDelta(File file) throws IOException {
+    try (DataInputStream input = new DataInputStream(new FileInputStream(file))) {
+      return file.length() >= DeltaFormat.HEADER_SIZE && readInt(input) == DeltaFormat.MAGIC;
+    }
+  }
+
+  /** Maps the old file read-only and writes the new file. */
+  public void patch(File oldFile, File deltaFile, File newFile) throws IOException {
+    Preconditions.checkArgument(!newFile.getCanonicalFile().equals(oldFile.getCanonicalFile())
+        && !newFile.getCanonicalFile().equals(deltaFile.getCanonicalFile()),
+        "The new file would overwrite its input");
+    try (FileChannel oldChannel = FileChannel.open(oldFile.toPath(), StandardOpenOption.READ);
+        InputStream deltaStream = new BufferedInputStream(new FileInputStream(deltaFile));
+        FileChannel newChannel = FileChannel.open(newFile.toPath(), StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      patch(oldChannel.map(FileChannel.MapMode.READ_ONLY, 0, oldChannel.size()), deltaStream,
+          newChannel);
+    }
+  }
+
+  /**
+   * Writes the new file to {@code newFile}.  The old file and the new file are checked against
+   * the lengths and CRC-32s recorded in the delta.
+   */
+  public void patch(ByteBuffer oldFile, InputStream delta, WritableByteChannel newFile)
+      throws IOException {
+    DataInputStream headerStream = new DataInputStream(delta);
+    Preconditions.checkState(readInt(headerStream) == DeltaFormat.MAGIC, "Not a delta");
+    int version = readInt(headerStream);
+    Preconditions.checkState(version == DeltaFormat.VERSION, "Unsupported delta version %s", version);
+    int oldFileLength = readInt(headerStream);
+    int oldFileCrc = readInt(headerStream);
+    int newFileLength = readInt(headerStream);
+    int newFileCrc = readInt(headerStream);
+    Preconditions.checkState(oldFile.limit() == oldFileLength
+        && DeltaFormat.crc(oldFile) == oldFileCrc, "The delta is not for this file");
+
+    DataInputStream input = new DataInputStream(new InflaterInputStream(delta));
+    ByteBuffer chunk = ByteBuffer.allocate(CHUNK_SIZE);
+    CRC32 crc = new CRC32();
+    long newFilePosition = 0;
+    for (byte opcode = input.readByte(); opcode != DeltaFormat.END; opcode = input.readByte()) {
+      int oldOffset = opcode == DeltaFormat.INSERT ? 0 : readInt(input);
+      int length = readInt(input);
+      Preconditions.checkState(length >= 0 && newFilePosition + length <= newFileLength,
+          "The delta produces more than %s bytes", newFileLength);
+      if (opcode == DeltaFormat.COPY) {
+        ByteBuffer bytes = NavigationDataFileFactory.slice(oldFile, oldOffset, length);
+        crc.update(bytes.duplicate());
+        write(bytes, newFile);
+      } else if (opcode == DeltaFormat.DIFF || opcode == DeltaFormat.INSERT) {
+        if (opcode == DeltaFormat.DIFF) {
+          NavigationDataFileFactory.slice(oldFile, oldOffset, length);  // checks the range
+        }
+        for (int start = 0; start < length; start += CHUNK_SIZE) {
+          int chunkLength = Math.min(CHUNK_SIZE, length - start);
+          input.readFully(chunk.array(), 0, chunkLength);
+          if (opcode == DeltaFormat.DIFF) {
+            for (int i = 0; i < chunkLength; ++i) {
+              chunk.array()[i] += oldFile.get(oldOffset + start + i);
+            }
+          }
+          crc.update(chunk.array(), 0, chunkLength);
+          chunk.clear().limit(chunkLength);
+          write(chunk, newFile);
+        }
+      } else {
+        throw new IllegalStateException("Unknown delta opcode " + opcode);
+      }
+      newFilePosition += length;
+    }
+    Preconditions.checkState(newFilePosition == newFileLength && (int) crc.getValue() == newFileCrc,
+        "The patched file does not match the delta");
+  }
+
+  private static int readInt(DataInputStream input) throws IOException {
+    return Integer.reverseBytes(input.readInt());
+  }
+
+  private static void write(ByteBuffer bytes, WritableByteChannel channel) throws IOException {
+    while (bytes.hasRemaining()) {
+      channel.write(bytes);
+    }
+  }
+}
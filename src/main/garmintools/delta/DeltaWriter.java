@@ -0,0 +1,154 @@
+/**
+ *    Copyright 2016 Iron City Software LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package garmintools.delta;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.zip.DeflaterOutputStream;
+
+import com.google.common.base.Preconditions;
+import com.google.common.io.CountingOutputStream;
+
+/**
+ * Writes the instructions that produce the new file from front to back.  Adjacent instructions
+ * of the same kind are merged, so callers may copy, diff or insert one record at a time.
+ */
+class DeltaWriter {
+  private static final int CHUNK_SIZE = 1 << 16;
+
+  private final CountingOutputStream countingStream;
+  private final DeflaterOutputStream outputStream;
+  private final ByteBuffer oldFile;
+  private final ByteBuffer newFile;
+  private final ByteBuffer operands = ByteBuffer.allocate(9).order(ByteOrder.LITTLE_ENDIAN);
+  private final byte chunk[] = new byte[CHUNK_SIZE];
+
+  // The instruction not yet written, which later instructions may extend.
+  private byte pendingOpcode = DeltaFormat.END;
+  private int pendingOldOffset;
+  private int pendingNewOffset;
+  private int pendingLength;
+  private int newFilePosition;
+
+  DeltaWriter(OutputStream outputStream, ByteBuffer oldFile, ByteBuffer newFile)
+      throws IOException {
+    this.countingStream = new CountingOutputStream(outputStream);
+    this.oldFile = oldFile;
+    this.newFile = newFile;
+    ByteBuffer header = ByteBuffer.allocate(DeltaFormat.HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    header.putInt(DeltaFormat.MAGIC)
+        .putInt(DeltaFormat.VERSION)
+        .putInt(oldFile.limit())
+        .putInt(DeltaFormat.crc(oldFile))
+        .putInt(newFile.limit())
+        .putInt(DeltaFormat.crc(newFile));
+    countingStream.write(header.array());
+    this.outputStream = new DeflaterOutputStream(countingStream);
+  }
+
+  /** Produces {@code length} bytes of the old file at {@code oldOffset}. */
+  void copy(int oldOffset, int length) throws IOException {
+    append(DeltaFormat.COPY, oldOffset, length);
+  }
+
+  /**
+   * Produces the next {@code length} bytes of the new file from their differences to
+   * {@code length} bytes of the old file at {@code oldOffset}.
+   */
+  void diff(int oldOffset, int length) throws IOException {
+    append(DeltaFormat.DIFF, oldOffset, length);
+  }
+
+  /** Produces the next {@code length} bytes of the new file from the delta itself. */
+  void insert(int length) throws IOException {
+    append(DeltaFormat.INSERT, -1, length);
+  }
+
+  private void append(byte opcode, int oldOffset, int length) throws IOException {
+    if (length == 0) {
+      return;
+    }
+    if (pendingOpcode != opcode
+        || (opcode != DeltaFormat.INSERT && pendingOldOffset + pendingLength != oldOffset)) {
+      flush();
+      pendingOpcode = opcode;
+      pendingOldOffset = oldOffset;
+      pendingNewOffset = newFilePosition;
+    }
+    pendingLength += length;
+    newFilePosition += length;
+  }
+
+  /** Returns the position in the new file of the next byte to be produced. */
+  int getNewFilePosition() {
+    return newFilePosition;
+  }
+
+  /** Ends the delta and returns its size in bytes. */
+  long finish() throws IOException {
+    Preconditions.checkState(newFilePosition == newFile.limit(),
+        "Produced %s of %s bytes", newFilePosition, newFile.limit());
+    flush();
+    outputStream.write(DeltaFormat.END);
+    outputStream.finish();
+    outputStream.flush();
+    return countingStream.getCount();
+  }
+
+  private void flush() throws IOException {
+    if (pendingOpcode == DeltaFormat.END) {
+      return;
+    }
+    operands.clear();
+    operands.put(pendingOpcode);
+    if (pendingOpcode != DeltaFormat.INSERT) {
+      operands.putInt(pendingOldOffset);
+    }
+    operands.putInt(pendingLength);
+    outputStream.write(operands.array(), 0, operands.position());
+    if (pendingOpcode == DeltaFormat.DIFF) {
+      writeDifferences();
+    } else if (pendingOpcode == DeltaFormat.INSERT) {
+      writeInsertion();
+    }
+    pendingOpcode = DeltaFormat.END;
+    pendingLength = 0;
+  }
+
+  private void writeDifferences() throws IOException {
+    for (int start = 0; start < pendingLength; start += CHUNK_SIZE) {
+      int length = Math.min(CHUNK_SIZE, pendingLength - start);
+      for (int i = 0; i < length; ++i) {
+        chunk[i] = (byte) (newFile.get(pendingNewOffset + start + i)
+            - oldFile.get(pendingOldOffset + start + i));
+      }
+      outputStream.write(chunk, 0, length);
+    }
+  }
+
+  private void writeInsertion() throws IOException {
+    ByteBuffer bytes = newFile.duplicate();
+    bytes.limit(pendingNewOffset + pendingLength).position(pendingNewOffset);
+    while (bytes.hasRemaining()) {
+      int length = Math.min(CHUNK_SIZE, bytes.remaining());
+      bytes.get(chunk, 0, length);
+      outputStream.write(chunk, 0, length);
+    }
+  }
+}
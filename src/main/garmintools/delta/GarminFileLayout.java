@@ -0,0 +1,49 @@
+/**
+ *    Copyright 2016 Iron City Software LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package garmintools.delta;
+
+import garmintools.files.NavigationDataFileFactory;
+import garmintools.sections.TableOfContentsSection;
+import garmintools.wrappers.TableOfContentsEntry;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/** Locates the sections of a Garmin file without decoding them. */
+final class GarminFileLayout {
+  private GarminFileLayout() { }
+
+  static TableOfContentsSection readTableOfContents(ByteBuffer file) {
+    return new NavigationDataFileFactory().createLazilyFromGarmin(file).getSectionManager()
+        .getTableOfContentsSection();
+  }
+
+  /** Returns the entries of {@code tableOfContents} in the order of their sections in the file. */
+  static List<TableOfContentsEntry> getEntriesInFileOrder(TableOfContentsSection tableOfContents) {
+    List<TableOfContentsEntry> entries = new ArrayList<>(tableOfContents.getEntryMap().values());
+    Collections.sort(entries, new Comparator<TableOfContentsEntry>() {
+      @Override
+      public int compare(TableOfContentsEntry left, TableOfContentsEntry right) {
+        return Integer.compare(left.fileOffset, right.fileOffset);
+      }
+    });
+    return entries;
+  }
+}
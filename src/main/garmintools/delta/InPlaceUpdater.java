@@ -0,0 +1,226 @@
+/**
+ *    Copyright 2016 Iron City Software LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package garmintools.delta;
+
+import garmintools.adapters.garmin.TableOfContentsGarminAdapter;
+import garmintools.files.NavigationDataFileFactory;
+import garmintools.sections.TableOfContentsSection;
+import garmintools.wrappers.TableOfContentsEntry;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.common.base.Preconditions;
+import com.google.common.primitives.Ints;
+
+/**
+ * Rewrites a Garmin file in place as another, writing only the blocks that differ.  This suits
+ * removable media, where writing is much slower than reading.  Sections are compared at the
+ * offsets given by the table of contents of the target file.  The table of contents is written
+ * last, after everything else has been written and flushed.
+ */
+public class InPlaceUpdater {
+  /** The size of a flash page on typical SD and CF cards. */
+  public static final int DEFAULT_BLOCK_SIZE = 4096;
+
+  private final int blockSize;
+
+  public InPlaceUpdater() {
+    this(DEFAULT_BLOCK_SIZE);
+  }
+
+  /** Differing bytes are written in whole blocks of {@code blockSize} bytes. */
+  public InPlaceUpdater(int blockSize) {
+    Preconditions.checkArgument(blockSize > 0);
+    this.blockSize = blockSize;
+  }
+
+  public static class Result {
+    public final long bytesWritten;
+    public final int numWrites;
+    public final long fileLength;
+
+    Result(long bytesWritten, int numWrites, long fileLength) {
+      this.bytesWritten = bytesWritten;
+      this.numWrites = numWrites;
+      this.fileLength = fileLength;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("wrote %d of %d bytes (%.1f%%) in %d writes", bytesWritten, fileLength,
+          fileLength == 0 ? 0 : 100.0 * bytesWritten / fileLength, numWrites);
+    }
+  }
+
+  /**
+   * Rewrites {@code garminFile} as {@code targetFile}.  Neither file is mapped: Windows can neither
+   * truncate a file that is mapped nor delete one, such as a temporary target, until the mapping
+   * is collected.
+   */
+  public Result update(File garminFile, File targetFile) throws IOException {
+    Preconditions.checkArgument(!garminFile.getCanonicalFile().equals(targetFile.getCanonicalFile()));
+    ByteBuffer target;
+    try (FileChannel targetChannel = FileChannel.open(targetFile.toPath(), StandardOpenOption.READ)) {
+      target = read(targetChannel);
+    }
+    try (FileChannel channel = FileChannel.open(garminFile.toPath(), StandardOpenOption.READ,
+        StandardOpenOption.WRITE)) {
+      return update(channel, target);
+    }
+  }
+
+  /**
+   * Rewrites {@code garminFile} as the result of applying {@code deltaFile} to it.  The existing
+   * file is read into memory and patched there, since it is truncated if the result is shorter.
+   */
+  public Result applyDelta(File garminFile, File deltaFile) throws IOException {
+    try (FileChannel channel = FileChannel.open(garminFile.toPath(), StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+        InputStream deltaStream = new BufferedInputStream(new FileInputStream(deltaFile))) {
+      ByteArrayOutputStream target = new ByteArrayOutputStream();
+      new DeltaPatcher().patch(read(channel), deltaStream, Channels.newChannel(target));
+      return update(channel, ByteBuffer.wrap(target.toByteArray()));
+    }
+  }
+
+  private static ByteBuffer read(FileChannel channel) throws IOException {
+    ByteBuffer byteBuffer = ByteBuffer.allocate(Ints.checkedCast(channel.size()));
+    while (byteBuffer.hasRemaining()) {
+      if (channel.read(byteBuffer, byteBuffer.position()) < 0) {
+        throw new EOFException("The file was truncated while it was read");
+      }
+    }
+    byteBuffer.flip();
+    return byteBuffer;
+  }
+
+  /** Rewrites the file open on {@code channel} as {@code target}. */
+  public Result update(FileChannel channel, ByteBuffer target) throws IOException {
+    // The file is read rather than mapped, since a mapped file cannot be truncated on Windows.
+    BlockReader existing = new BlockReader(channel, blockSize);
+    TableOfContentsSection tableOfContents = GarminFileLayout.readTableOfContents(target);
+    int tableOfContentsStart = TableOfContentsGarminAdapter.TABLE_OF_CONTENTS_OFFSET;
+    int tableOfContentsEnd = tableOfContentsStart + tableOfContents.getSize();
+
+    // Ranges are pairs of start and end offsets.
+    List<Integer> ranges = new ArrayList<>();
+    int position = 0;
+    for (TableOfContentsEntry entry : GarminFileLayout.getEntriesInFileOrder(tableOfContents)) {
+      // Bytes outside of any section, such as the metadata.
+      findDifferences(existing, target, position, entry.fileOffset, tableOfContentsStart,
+          tableOfContentsEnd, ranges);
+      position = Math.max(position, entry.fileOffset);
+      findDifferences(existing, target, position, entry.fileOffset + entry.actualLength,
+          tableOfContentsStart, tableOfContentsEnd, ranges);
+      position = Math.max(position, entry.fileOffset + entry.actualLength);
+    }
+    findDifferences(existing, target, position, target.limit(), tableOfContentsStart,
+        tableOfContentsEnd, ranges);
+    List<Integer> tableOfContentsRanges = new ArrayList<>();
+    findDifferences(existing, target, tableOfContentsStart, tableOfContentsEnd, 0, 0,
+        tableOfContentsRanges);
+
+    long bytesWritten = write(channel, target, ranges);
+    if (channel.size() > target.limit()) {
+      channel.truncate(target.limit());
+    }
+    channel.force(false);
+    bytesWritten += write(channel, target, tableOfContentsRanges);
+    channel.force(false);
+    return new Result(bytesWritten, (ranges.size() + tableOfContentsRanges.size()) / 2,
+        target.limit());
+  }
+
+  /**
+   * Adds the blocks in [{@code start}, {@code end}) that differ to {@code ranges}, except for
+   * those in [{@code excludedStart}, {@code excludedEnd}).  Blocks are aligned to the file, and
+   * ranges of adjacent blocks are merged.
+   */
+  private void findDifferences(BlockReader existing, ByteBuffer target, int start, int end,
+      int excludedStart, int excludedEnd, List<Integer> ranges) throws IOException {
+    if (excludedStart < excludedEnd && start < excludedEnd && excludedStart < end) {
+      findDifferences(existing, target, start, excludedStart, 0, 0, ranges);
+      findDifferences(existing, target, excludedEnd, end, 0, 0, ranges);
+      return;
+    }
+    for (int blockStart = start; blockStart < end; ) {
+      int blockEnd = (int) Math.min(end, (blockStart / blockSize + 1L) * blockSize);
+      if (!existing.regionEquals(target, blockStart, blockEnd)) {
+        int lastIndex = ranges.size() - 1;
+        if (lastIndex > 0 && ranges.get(lastIndex) == blockStart) {
+          ranges.set(lastIndex, blockEnd);
+        } else {
+          ranges.add(blockStart);
+          ranges.add(blockEnd);
+        }
+      }
+      blockStart = blockEnd;
+    }
+  }
+
+  /** Reads the existing file a block at a time into a reused buffer. */
+  private static class BlockReader {
+    private final FileChannel channel;
+    private final ByteBuffer block;
+
+    BlockReader(FileChannel channel, int blockSize) {
+      this.channel = channel;
+      this.block = ByteBuffer.allocate(blockSize);
+    }
+
+    /** Returns whether the file holds the bytes of {@code target} in [{@code start}, {@code end}). */
+    boolean regionEquals(ByteBuffer target, int start, int end) throws IOException {
+      block.clear();
+      block.limit(end - start);
+      for (long position = start; block.hasRemaining(); ) {
+        int numBytesRead = channel.read(block, position);
+        if (numBytesRead < 0) {
+          return false;  // The file ends within the region.
+        }
+        position += numBytesRead;
+      }
+      block.flip();
+      return block.equals(NavigationDataFileFactory.slice(target, start, end - start));
+    }
+  }
+
+  private static long write(FileChannel channel, ByteBuffer target, List<Integer> ranges)
+      throws IOException {
+    long bytesWritten = 0;
+    for (int index = 0; index < ranges.size(); index += 2) {
+      int start = ranges.get(index);
+      ByteBuffer bytes = NavigationDataFileFactory.slice(target, start, ranges.get(index + 1) - start);
+      bytesWritten += bytes.remaining();
+      for (long position = start; bytes.hasRemaining(); ) {
+        position += channel.write(bytes, position);
+      }
+    }
+    return bytesWritten;
+  }
+}
@@ -19,49 +19,75 @@ package garmintools.encoding;
 import garmintools.keys.VariableLengthEncodingForeignKey;
 
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 
 import com.google.common.base.Preconditions;
 
-/** Decorates {@link ByteBuffer} to provide for reading individual bits. */
+/**
+ * Decorates {@link ByteBuffer} to provide for reading individual bits.
+ * Bits are read most significant first through a cached 64-bit window, so that
+ * a read of up to 32 bits is a shift and a mask in the common case.
+ */
 public class BitBuffer {
   private static final int NUM_BITS_PER_BYTE = 8;
+  private static final int NUM_BITS_PER_WINDOW = Long.SIZE;
+  private static final int MAX_BITS_PER_READ = Integer.SIZE;
 
   private final ByteBuffer byteBuffer;
+  private final ByteBuffer bigEndianBuffer;  // shares content with byteBuffer; used for absolute reads.
+  private final int numBits;
 
-  // The index of the next bit to be written or read.
-  private int byteIndex;
-  private int bitIndex;  // 0 .. NUM_BITS_PER_BYTE - 1
+  // The index of the next bit to be read, counted from the start of the buffer.
+  private int bitPosition;
+
+  // Up to 64 bits starting at bit windowBitPosition, left aligned and zero filled past the limit.
+  private long window;
+  private int windowBitPosition = -NUM_BITS_PER_WINDOW;
 
   public BitBuffer(ByteBuffer byteBuffer) {
     this.byteBuffer = byteBuffer;
+    this.bigEndianBuffer = byteBuffer.duplicate().order(ByteOrder.BIG_ENDIAN);
+    this.numBits = byteBuffer.limit() * NUM_BITS_PER_BYTE;
   }
 
   public void setOffset(int byteIndex, int bitIndex) {
     Preconditions.checkArgument(byteBuffer.limit() > byteIndex);
-    this.byteIndex = byteIndex;
-    this.bitIndex = bitIndex;
+    Preconditions.checkArgument(bitIndex >= 0 && bitIndex < NUM_BITS_PER_BYTE);
+    this.bitPosition = byteIndex * NUM_BITS_PER_BYTE + bitIndex;
   }
 
+  /**
+   * Returns the next {@code numRequestedBits} bits, the first bit read being the most significant.
+   * As with reading bit by bit, the underlying buffer is left positioned just past the last byte read.
+   */
   public int readNumBits(int numRequestedBits) {
-    Preconditions.checkArgument(numRequestedBits > 0);
-    Preconditions.checkArgument(numRequestedBits < 32);  // <= but no eof ?
     Preconditions.checkArgument(numRequestedBits <= getNumRemainingBits());
-    int result = 0;
-    int numReturnedBits = 0;
-    while (numReturnedBits < numRequestedBits) {
-      result <<= 1;
-      if (readNextBit()) {
-        result |= 1;
-      }
-      numReturnedBits++;
-    }
+    int result = peekNumBits(numRequestedBits);
+    skipBits(numRequestedBits);
     return result;
   }
 
+  /** Returns the next {@code numRequestedBits} bits without consuming them; bits past the end read as 0. */
+  public int peekNumBits(int numRequestedBits) {
+    Preconditions.checkArgument(numRequestedBits > 0);
+    Preconditions.checkArgument(numRequestedBits <= MAX_BITS_PER_READ);
+    int windowOffset = bitPosition - windowBitPosition;
+    if (windowOffset < 0 || windowOffset + numRequestedBits > NUM_BITS_PER_WINDOW) {
+      fillWindow(bitPosition / NUM_BITS_PER_BYTE);
+      windowOffset = bitPosition - windowBitPosition;
+    }
+    return (int) ((window << windowOffset) >>> (NUM_BITS_PER_WINDOW - numRequestedBits));
+  }
+
+  public void skipBits(int numBits) {
+    Preconditions.checkArgument(numBits >= 0);
+    Preconditions.checkArgument(numBits <= getNumRemainingBits());
+    bitPosition += numBits;
+    byteBuffer.position((bitPosition + NUM_BITS_PER_BYTE - 1) / NUM_BITS_PER_BYTE);
+  }
+
   public int getNumRemainingBits() {
-    int totalBits = byteBuffer.limit() * NUM_BITS_PER_BYTE;
-    int currentPosition = byteIndex * NUM_BITS_PER_BYTE + bitIndex;
-    return totalBits - currentPosition;
+    return numBits - bitPosition;
   }
 
   public boolean hasRemaining() {
@@ -69,20 +95,22 @@ public class BitBuffer {
   }
 
   public VariableLengthEncodingForeignKey getKey() {
-    return new VariableLengthEncodingForeignKey(byteIndex, bitIndex);
+    return VariableLengthEncodingForeignKey.ofBitOffset(bitPosition);
   }
 
-  private boolean readNextBit() {
-    Preconditions.checkState(getNumRemainingBits() > 0);
-    int mask = 1 << (NUM_BITS_PER_BYTE - bitIndex - 1);
-    byteBuffer.position(byteIndex);
-    int result = byteBuffer.get() & mask;
-    if (bitIndex == NUM_BITS_PER_BYTE - 1) {
-      bitIndex = 0;
-      byteIndex++;
+  private void fillWindow(int byteIndex) {
+    int limit = bigEndianBuffer.limit();
+    if (byteIndex + Long.BYTES <= limit) {
+      window = bigEndianBuffer.getLong(byteIndex);
     } else {
-      bitIndex++;
+      window = 0;
+      for (int i = 0; i < Long.BYTES; ++i) {
+        window <<= NUM_BITS_PER_BYTE;
+        if (byteIndex + i < limit) {
+          window |= bigEndianBuffer.get(byteIndex + i) & 0xff;
+        }
+      }
     }
-    return result != 0;
+    windowBitPosition = byteIndex * NUM_BITS_PER_BYTE;
   }
 }
@@ -18,16 +18,20 @@ package garmintools.encoding;
 
 import garmintools.keys.VariableLengthEncodingForeignKey;
 
-import java.io.ByteArrayOutputStream;
-import java.util.Arrays;
 import java.util.List;
 
-/** Decorates {@link ByteArrayOutputStream} to write bits. */
-public class BitListOutputStream extends ByteArrayOutputStream {
+import com.google.common.base.Preconditions;
+
+/**
+ * Extends {@link LittleEndianByteArrayOutputStream} to write bits, most significant first.
+ * Unlike the byte oriented methods, writing bits is not synchronized.
+ */
+public class BitListOutputStream extends LittleEndianByteArrayOutputStream {
   private static final int NUM_BITS_PER_BYTE = 8;
+  private static final int MAX_BITS_PER_WRITE = Integer.SIZE;
 
   // The bit about to be written.  0 .. NUM_BITS_PER_BYTE (if about to write bit 0 of next byte).
-  private int bitIndex = 0;
+  private int bitIndex = NUM_BITS_PER_BYTE;
 
   public BitListOutputStream() {
     super();
@@ -37,39 +41,58 @@ public class BitListOutputStream extends ByteArrayOutputStream {
     super(initialCapacity);
   }
 
-  public synchronized void writeBits(List<Boolean> bitList) {
+  /** Writes the bits of {@code bitList} from the last (most significant) to the first. */
+  public void writeBits(List<Boolean> bitList) {
     for (int i = bitList.size() - 1; i >= 0; i--) {
-      writeBit(bitList.get(i));
+      writeBits(bitList.get(i) ? 1 : 0, 1);
     }
   }
 
+  /** Writes the low {@code numBits} bits of {@code code}, most significant first. */
+  public void writeBits(int code, int numBits) {
+    Preconditions.checkArgument(numBits >= 0 && numBits <= MAX_BITS_PER_WRITE);
+    if (numBits == 0) {
+      return;
+    }
+    // Take back the partially written last byte and append the code to its bits.
+    long accumulator = 0;
+    int numAccumulatedBits = 0;
+    if (!isByteAligned()) {
+      numAccumulatedBits = bitIndex;
+      accumulator = (buf[--count] & 0xff) >>> (NUM_BITS_PER_BYTE - bitIndex);
+    }
+    accumulator = (accumulator << numBits) | (code & (-1L >>> (Long.SIZE - numBits)));
+    numAccumulatedBits += numBits;
+    int numBytes = (numAccumulatedBits + NUM_BITS_PER_BYTE - 1) / NUM_BITS_PER_BYTE;
+    ensureCapacity(numBytes);
+    // Left align the accumulated bits within whole bytes, zero filling the last byte.
+    accumulator <<= numBytes * NUM_BITS_PER_BYTE - numAccumulatedBits;
+    for (int i = numBytes - 1; i >= 0; i--) {
+      buf[count++] = (byte) (accumulator >>> (i * NUM_BITS_PER_BYTE));
+    }
+    bitIndex = numAccumulatedBits - (numBytes - 1) * NUM_BITS_PER_BYTE;
+  }
+
+  @Override
+  public void reset() {
+    super.reset();
+    bitIndex = NUM_BITS_PER_BYTE;
+  }
+
   public int getBitPosition() {
-    return bitIndex == NUM_BITS_PER_BYTE ? 0 : bitIndex;
+    return isByteAligned() ? 0 : bitIndex;
   }
 
   public int getBytePosition() {
-    return bitIndex == NUM_BITS_PER_BYTE ? count : count - 1;
+    return isByteAligned() ? count : count - 1;
   }
 
   public VariableLengthEncodingForeignKey getKey() {
-    return new VariableLengthEncodingForeignKey(getBytePosition(), getBitPosition());
+    return VariableLengthEncodingForeignKey.of(getBytePosition(), getBitPosition());
   }
 
-  private void writeBit(boolean bitValue) {
+  private boolean isByteAligned() {
     // super.count is the number of valid bytes in the buffer.
-    if (buf.length - count == 0) {
-      buf = Arrays.copyOf(buf, Math.max(buf.length << 1, count + 1));
-    }
-    if (count == 0 || bitIndex == NUM_BITS_PER_BYTE) {
-      buf[count++] = (byte) 0;
-      bitIndex = 0;
-    }
-    int mask = 1 << (NUM_BITS_PER_BYTE - bitIndex - 1);
-    if (bitValue) {
-      buf[count - 1] |= mask;
-    } else {
-      buf[count - 1] &= ~mask;
-    }
-    bitIndex++;
+    return count == 0 || bitIndex == NUM_BITS_PER_BYTE;
   }
 }
@@ -0,0 +1,94 @@
+/**
+ *    Copyright 2016 Iron City Software LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package garmintools.encoding;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Decorates {@link ByteArrayOutputStream} to write little-endian primitives in place.
+ * Unlike the byte oriented methods, writing primitives is not synchronized.
+ */
+public class LittleEndianByteArrayOutputStream extends ByteArrayOutputStream {
+  public LittleEndianByteArrayOutputStream() {
+    super();
+  }
+
+  public LittleEndianByteArrayOutputStream(int initialCapacity) {
+    super(initialCapacity);
+  }
+
+  @Override
+  public void write(byte data[]) {
+    write(data, 0, data.length);
+  }
+
+  /** Writes the low 16 bits of {@code data}. */
+  public void writeShort(int data) {
+    writeLittleEndian(data, Short.SIZE / Byte.SIZE);
+  }
+
+  public void writeInt(int data) {
+    writeLittleEndian(data, Integer.SIZE / Byte.SIZE);
+  }
+
+  public void writeLong(long data) {
+    writeLittleEndian(data, Long.SIZE / Byte.SIZE);
+  }
+
+  /** Overwrites the two bytes at {@code position} with the low 16 bits of {@code data}. */
+  public void putShort(int position, int data) {
+    if (position < 0 || position + Short.SIZE / Byte.SIZE > count) {
+      throw new IndexOutOfBoundsException("Position " + position + " of " + count);
+    }
+    buf[position] = (byte) data;
+    buf[position + 1] = (byte) (data >>> Byte.SIZE);
+  }
+
+  /** Appends the bytes written to this stream to {@code output}. */
+  public void writeTo(LittleEndianByteArrayOutputStream output) {
+    output.write(buf, 0, count);
+  }
+
+  private void writeLittleEndian(long data, int numBytes) {
+    ensureCapacity(numBytes);
+    for (int i = 0; i < numBytes; ++i) {
+      buf[count++] = (byte) (data >>> (i * Byte.SIZE));
+    }
+  }
+
+  protected void ensureCapacity(int numBytes) {
+    if (buf.length - count < numBytes) {
+      buf = Arrays.copyOf(buf, Math.max(buf.length << 1, count + numBytes));
+    }
+  }
+
+  /** Returns the number of bytes written, which is the offset of the next byte. */
+  public int position() {
+    return count;
+  }
+
+  /**
+   * Returns a little-endian buffer over the bytes written so far, without copying them.
+   * Later writes may or may not be visible through the buffer.
+   */
+  public ByteBuffer toByteBuffer() {
+    return ByteBuffer.wrap(buf, 0, count).order(ByteOrder.LITTLE_ENDIAN);
+  }
+}
@@ -16,78 +16,48 @@
 
 package garmintools.encoding;
 
-import com.google.common.base.Function;
-import com.google.common.base.Preconditions;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 
 public class SixBitAsciiEncoding {
-  private interface TransformFunctions {
-    public Function<Integer, Character> getDecodingTransformFunction();
-    public Function<Character, Integer> getEncodingTransformFunction();
-  }
-
-  private static final TransformFunctions SIMPLE_TRANSFORMS = new TransformFunctions() {
-    @Override
-    public Function<Integer, Character> getDecodingTransformFunction() {
-      return new Function<Integer, Character>() {
-        @Override
-        public Character apply(Integer value) {
-          return (char) (value + 0x20);
-        }
-      };
+  private static final int NUM_VALUES = 1 << 6;
+  private static final int NUM_ENCODABLE_CHARACTERS = 1 << 7;
+  private static final char INVALID_CHARACTER = 0;
+  private static final byte INVALID_VALUE = -1;
+
+  public static final SixBitAsciiEncoding SIMPLE_ENCODING = createSimpleEncoding();
+  public static final SixBitAsciiEncoding COMPLEX_ENCODING = createComplexEncoding();
+
+  private static SixBitAsciiEncoding createSimpleEncoding() {
+    char decodingTable[] = new char[NUM_VALUES];
+    for (int value = 0; value < NUM_VALUES; ++value) {
+      decodingTable[value] = (char) (value + 0x20);
+    }
+    byte encodingTable[] = new byte[NUM_ENCODABLE_CHARACTERS];
+    for (int c = 0; c < NUM_ENCODABLE_CHARACTERS; ++c) {
+      encodingTable[c] = (byte) ((c - 0x20) & 0x3f);
     }
+    return new SixBitAsciiEncoding(decodingTable, encodingTable);
+  }
 
-    @Override
-    public Function<Character, Integer> getEncodingTransformFunction() {
-      return new Function<Character, Integer>() {
-        @Override
-        public Integer apply(Character value) {
-          return value - 0x20;
-        }
-      };
+  private static SixBitAsciiEncoding createComplexEncoding() {
+    char decodingTable[] = new char[NUM_VALUES];
+    decodingTable[0] = ' ';
+    for (int value = 1; value <= 0x1a; ++value) {
+      decodingTable[value] = (char) (value + 0x40);  /* A .. Z */
     }
-  };
-
-  private static final TransformFunctions COMPLEX_TRANSFORMS = new TransformFunctions() {
-    @Override
-    public Function<Integer, Character> getDecodingTransformFunction() {
-      return new Function<Integer, Character>() {
-        @Override
-        public Character apply(Integer value) {
-          if (value == 0) {
-            value = 0x20;   /* space */
-          } else if (value >= 1 && value <= 0x1a) {
-            value += 0x40;  /* A .. Z */
-          } else if (value >= 0x20 && value <= 0x29) {
-            value += 0x10;  /* 0 .. 9 */
-          } else {
-            throw new IllegalStateException("Unexpected value " + value);
-          }
-          return (char) value.intValue();
-        }
-      };
+    for (int value = 0x20; value <= 0x29; ++value) {
+      decodingTable[value] = (char) (value + 0x10);  /* 0 .. 9 */
     }
-
-    @Override
-    public Function<Character, Integer> getEncodingTransformFunction() {
-      return new Function<Character, Integer>() {
-        @Override
-        public Integer apply(Character value) {
-          if (value == 0x20) {
-            return 0;
-          } else if (value >= 'A' && value <= 'Z') {
-            return value - 0x40;
-          } else if (value >= '0' && value <= '9') {
-            return value - 0x10;
-          } else {
-            throw new IllegalStateException("Unexpected character " + value);
-          }
-        }
-      };
+    byte encodingTable[] = new byte[NUM_ENCODABLE_CHARACTERS];
+    Arrays.fill(encodingTable, INVALID_VALUE);
+    for (int value = 0; value < NUM_VALUES; ++value) {
+      if (decodingTable[value] != INVALID_CHARACTER) {
+        encodingTable[decodingTable[value]] = (byte) value;
+      }
     }
-  };
-
-  public static final SixBitAsciiEncoding SIMPLE_ENCODING = new SixBitAsciiEncoding(SIMPLE_TRANSFORMS);
-  public static final SixBitAsciiEncoding COMPLEX_ENCODING = new SixBitAsciiEncoding(COMPLEX_TRANSFORMS);
+    return new SixBitAsciiEncoding(decodingTable, encodingTable);
+  }
 
   // 4 ASCII characters per 3 bytes.
   public static int getEncodedSize(int plainTextLength) {
@@ -100,92 +70,130 @@ public class SixBitAsciiEncoding {
     return encodedLength * 4 / 3;
   }
 
-  private final TransformFunctions transformFunctions;
+  /** Indexed by six bit value, INVALID_CHARACTER marks a value which cannot be decoded. */
+  private final char decodingTable[];
+  /** Indexed by character, INVALID_VALUE marks a character which cannot be encoded. */
+  private final byte encodingTable[];
 
-  private SixBitAsciiEncoding(TransformFunctions transformFunctions) {
-    this.transformFunctions = transformFunctions;
+  private SixBitAsciiEncoding(char decodingTable[], byte encodingTable[]) {
+    this.decodingTable = decodingTable;
+    this.encodingTable = encodingTable;
   }
 
-  private static class EncodedInput {
-    private byte[] data;
-    private int maskIndex;
-    private int dataIndex;
+  // b0       b1       b2
+  // -------- -------- 654321-- first character
+  // -------- 4321---- ------65 second character
+  // 21------ ----6543 -------- third character
+  // --654321 -------- -------- fourth character
+  //
+  // e.g.
+  // 0x64    |0xc1    |0x12    |0x04    | encoded bytes
+  // (b2)    |(b0)    |(b1)    |(b2)    |
+  // --------+--------+--------+--------+
+  // 011001  |        |        |        | Y (0x25)
+  //       00|        |        |        | unused (would be part of next letter)
+  //         |11      |    0010|        | K (0x11) (11 from 0xc1 is low portion)
+  //         |  000001|        |        | A (0x01)
+  //         |        |0001    |      00| A (0x01) (0001 from 0x12 is low portion)
+  //         |        |        |000001  | A (0x01)
+  //
+  // Groups are read from the last byte towards the first.
 
-    EncodedInput(byte[] data) {
-      this.data = data;
-      this.dataIndex = data.length - 1;
-      this.maskIndex = 0;
-    }
+  public String decode(byte data[]) {
+    char text[] = new char[getDecodedSize(data.length)];
+    return new String(text, 0, decode(ByteBuffer.wrap(data), 0, data.length, text));
+  }
 
-    boolean hasNext() {
-      return dataIndex >= 0;
+  /**
+   * Decodes {@code length} bytes of {@code byteBuffer} starting at absolute index {@code offset}
+   * into {@code text}, which must hold getDecodedSize(length) characters. The buffer's position
+   * is unchanged. Returns the number of characters decoded.
+   */
+  public int decode(ByteBuffer byteBuffer, int offset, int length, char text[]) {
+    int numCharacters = 0;
+    for (int index = offset + length - 1; index >= offset; --index) {
+      int b0 = byteBuffer.get(index) & 0xff;
+      text[numCharacters++] = decodeValue(b0 >> 2);
+      if (--index < offset) {
+        break;
+      }
+      int b1 = byteBuffer.get(index) & 0xff;
+      text[numCharacters++] = decodeValue(((b0 << 4) & 0x30) | (b1 >> 4));
+      if (--index < offset) {
+        break;
+      }
+      int b2 = byteBuffer.get(index) & 0xff;
+      text[numCharacters++] = decodeValue(((b1 << 2) & 0x3c) | (b2 >> 6));
+      text[numCharacters++] = decodeValue(b2 & 0x3f);
     }
+    return numCharacters;
+  }
 
-    // b0       b1       b2
-    // -------- -------- 654321-- first character
-    // -------- 4321---- ------65 second character
-    // 21------ ----6543 -------- third character
-    // --654321 -------- -------- fourth character
-    //
-    // e.g.
-    // 0x64    |0xc1    |0x12    |0x04    | encoded bytes
-    // (b2)    |(b0)    |(b1)    |(b2)    |
-    // --------+--------+--------+--------+
-    // 011001  |        |        |        | Y (0x25)
-    //       00|        |        |        | unused (would be part of next letter)
-    //         |11      |    0010|        | K (0x11) (11 from 0xc1 is low portion)
-    //         |  000001|        |        | A (0x01)
-    //         |        |0001    |      00| A (0x01) (0001 from 0x12 is low portion)
-    //         |        |        |000001  | A (0x01)
-
-    int next() {
-      Preconditions.checkState(hasNext());
-      switch(maskIndex++ % 4) {
-      case 0:
-        return (data[dataIndex--] >> 2) & 0x3f;
-      case 1:
-        int result = ((data[dataIndex + 1] << 4) & 0x30) | ((data[dataIndex] >> 4) & 0xf);
-        dataIndex--;
-        return result;
-      case 2:
-        return ((data[dataIndex + 1] << 2) & 0x3c) | ((data[dataIndex] >> 6) & 0x3);
-      case 3:
-        return data[dataIndex--] & 0x3f;
-      default: throw new IllegalStateException();
-      }
+  private char decodeValue(int value) {
+    char c = decodingTable[value];
+    if (c == INVALID_CHARACTER) {
+      throw new IllegalStateException("Unexpected value " + value);
     }
+    return c;
   }
 
-  public String decode(byte data[]) {
-    String result = "";
-    Function<Integer, Character> adjuster = transformFunctions.getDecodingTransformFunction();
-    EncodedInput input = new EncodedInput(data);
-    while (input.hasNext()) {
-      result += adjuster.apply(input.next());
+  /** Returns whether every character of {@code text} has a six bit value. */
+  public boolean canEncode(CharSequence text) {
+    for (int i = 0; i < text.length(); ++i) {
+      char c = text.charAt(i);
+      if (c >= NUM_ENCODABLE_CHARACTERS || encodingTable[c] == INVALID_VALUE) {
+        return false;
+      }
     }
-    return result;
+    return true;
   }
 
   public byte[] encode(String text) {
     byte result[] = new byte[getEncodedSize(text.length())];
-    int byteIndex = result.length - 1;
-
-    Function<Character, Integer> adjuster = transformFunctions.getEncodingTransformFunction();
-    for (int i = 0; i < text.length(); i += 4) {
-      int adjusted[] = {
-          adjuster.apply(text.charAt(i)),
-          i + 1 >= text.length() ? 0 : adjuster.apply(text.charAt(i + 1)),
-          i + 2 >= text.length() ? 0 : adjuster.apply(text.charAt(i + 2)),
-          i + 3 >= text.length() ? 0 : adjuster.apply(text.charAt(i + 3))
-      };
-      result[byteIndex--] = (byte) (((adjusted[1] & 0x3F) >> 4) | ((adjusted[0] & 0x3F) << 2));
-      if (byteIndex >= 0) {
-        result[byteIndex--] = (byte) (((adjusted[2] & 0x3C) >> 2) | ((adjusted[1] & 0x0F) << 4));
-        if (byteIndex >= 0) {
-          result[byteIndex--] = (byte) (((adjusted[3] & 0x3F)) | ((adjusted[2] & 0x03) << 6));
+    encode(text, ByteBuffer.wrap(result));
+    return result;
+  }
+
+  /** Encodes {@code text} at the buffer's position, advancing it by getEncodedSize(text.length()). */
+  public void encode(CharSequence text, ByteBuffer byteBuffer) {
+    encode(text, text.length(), byteBuffer);
+  }
+
+  /**
+   * Encodes {@code text} padded with spaces to {@code paddedLength} characters at the buffer's
+   * position, advancing it by getEncodedSize(paddedLength).
+   */
+  public void encode(CharSequence text, int paddedLength, ByteBuffer byteBuffer) {
+    if (text.length() > paddedLength) {
+      throw new IllegalArgumentException(
+          String.format("Text [%s] exceeds max length %d", text, paddedLength));
+    }
+    int start = byteBuffer.position();
+    int encodedSize = getEncodedSize(paddedLength);
+    int index = start + encodedSize - 1;
+    for (int i = 0; i < paddedLength; i += 4) {
+      int v0 = encodeCharacter(text, i);
+      int v1 = i + 1 >= paddedLength ? 0 : encodeCharacter(text, i + 1);
+      int v2 = i + 2 >= paddedLength ? 0 : encodeCharacter(text, i + 2);
+      int v3 = i + 3 >= paddedLength ? 0 : encodeCharacter(text, i + 3);
+      byteBuffer.put(index--, (byte) ((v1 >> 4) | (v0 << 2)));
+      if (index >= start) {
+        byteBuffer.put(index--, (byte) ((v2 >> 2) | ((v1 & 0x0f) << 4)));
+        if (index >= start) {
+          byteBuffer.put(index--, (byte) (v3 | ((v2 & 0x03) << 6)));
         }
       }
     }
-    return result;
+    byteBuffer.position(start + encodedSize);
+  }
+
+  /** Returns the six bit value of the character at {@code index}, or of a space past the end. */
+  private int encodeCharacter(CharSequence text, int index) {
+    char c = index < text.length() ? text.charAt(index) : ' ';
+    int value = c < NUM_ENCODABLE_CHARACTERS ? encodingTable[c] : INVALID_VALUE;
+    if (value == INVALID_VALUE) {
+      throw new IllegalStateException("Unexpected character " + c);
+    }
+    return value;
   }
-}
\ No newline at end of file
+}
@@ -18,15 +18,14 @@ package garmintools.encoding;
 
 import java.nio.ByteBuffer;
 import java.util.List;
-import java.util.Map;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.ImmutableMap;
 
 public class VariableLengthAsciiEncoding {
   private final BitListOutputStream outputStream;  // for writing.
   private final BitBuffer bitBuffer;  // for reading.
+  private final StringBuilder decodedText;  // for reading.
   private boolean isReadMode;
 
   private static final class EncodedLength {
@@ -64,32 +63,55 @@ public class VariableLengthAsciiEncoding {
                                                            '&', '(', ')', '+', ';', '\'', ':' }))
       .build();
 
-  // BitSet would be nice but it is unable to store a specific length of only false bits. */
-  private static final Map<Byte, List<Boolean>> ENCODED_BITS = invertEncodedLengths(ENCODED_LENGTHS);
-  private static final Map<Byte, List<Boolean>> EXTENDED_ENCODED_BITS = invertEncodedLengths(EXTENDED_ENCODED_LENGTHS);
+  private static final int MAX_ENCODED_BIT_LENGTH = 9;
 
-  private static Map<Byte, List<Boolean>> invertEncodedLengths(List<EncodedLength> encodedLengths) {
-    ImmutableMap.Builder<Byte, List<Boolean>> mapBuilder = ImmutableMap.builder();
+  /**
+   * Indexed by the next MAX_ENCODED_BIT_LENGTH bits of input, each entry holds the encoded bit
+   * length in the high byte and the decoded character in the low byte. 0 marks an invalid code.
+   * Shorter codes take precedence, as when reading one encoded length at a time.
+   */
+  private static final short DECODE_TABLE[] = createDecodeTable(EXTENDED_ENCODED_LENGTHS);
+
+  private static short[] createDecodeTable(List<EncodedLength> encodedLengths) {
+    short table[] = new short[1 << MAX_ENCODED_BIT_LENGTH];
     for (EncodedLength encodedLength : encodedLengths) {
-      for (int i = 0; i < encodedLength.encodedCharacters.length; ++i) {
-        mapBuilder.put(encodedLength.encodedCharacters[i],
-            bitListOf(encodedLength.encodedBitLength, encodedLength.minValue + i));
+      int numSuffixBits = MAX_ENCODED_BIT_LENGTH - encodedLength.encodedBitLength;
+      for (int value = encodedLength.minValue; value <= encodedLength.maxValue; ++value) {
+        short entry = (short) ((encodedLength.encodedBitLength << 8)
+            | (encodedLength.encodedCharacters[value - encodedLength.minValue] & 0xff));
+        for (int suffix = 0; suffix < (1 << numSuffixBits); ++suffix) {
+          int index = (value << numSuffixBits) | suffix;
+          if (table[index] == 0) {
+            table[index] = entry;
+          }
+        }
       }
     }
-    return mapBuilder.build();
+    return table;
   }
 
-  private static List<Boolean> bitListOf(int length, int value) {
-    ImmutableList.Builder<Boolean> listBuilder = ImmutableList.builder();
-    for (int i = 0; i < length; i++) {
-      listBuilder.add((value & (1 << i)) > 0);
+  /**
+   * Indexed by character, each entry holds the encoded bit length in the high 16 bits and the
+   * code in the low 16 bits. 0 marks a character which cannot be encoded.
+   */
+  private static final int ENCODE_TABLE[] = createEncodeTable(ENCODED_LENGTHS);
+  private static final int EXTENDED_ENCODE_TABLE[] = createEncodeTable(EXTENDED_ENCODED_LENGTHS);
+
+  private static int[] createEncodeTable(List<EncodedLength> encodedLengths) {
+    int table[] = new int[1 << Byte.SIZE];
+    for (EncodedLength encodedLength : encodedLengths) {
+      for (int i = 0; i < encodedLength.encodedCharacters.length; ++i) {
+        table[encodedLength.encodedCharacters[i] & 0xff] =
+            (encodedLength.encodedBitLength << 16) | (encodedLength.minValue + i);
+      }
     }
-    return listBuilder.build();
+    return table;
   }
 
   /** Construct an encoding for reading. */
   public VariableLengthAsciiEncoding(ByteBuffer byteBuffer) {
     this.bitBuffer = new BitBuffer(byteBuffer);
+    this.decodedText = new StringBuilder();
     this.outputStream = null;
     this.isReadMode = true;
   }
@@ -97,6 +119,7 @@ public class VariableLengthAsciiEncoding {
   /** Construct an encoding for writing. */
   public VariableLengthAsciiEncoding(BitListOutputStream outputStream) {
     this.bitBuffer = null;
+    this.decodedText = null;
     this.outputStream = outputStream;
     this.isReadMode = false;
   }
@@ -106,8 +129,13 @@ public class VariableLengthAsciiEncoding {
   }
 
   public boolean hasRemaining() {
-    /** At a minimum a 0x0 must be encoded, which takes 4 bits. */
-    return bitBuffer.getNumRemainingBits() > 3;
+    /**
+     * At a minimum a 0x0 must be encoded, which takes 4 bits. The last byte is padded with up to
+     * 7 zero bits, which could otherwise be read as 'A's, and every string ends with a non-zero code.
+     */
+    int numRemainingBits = bitBuffer.getNumRemainingBits();
+    return numRemainingBits >= Byte.SIZE
+        || (numRemainingBits > 3 && bitBuffer.peekNumBits(numRemainingBits) != 0);
   }
 
   public boolean isReadMode() {
@@ -115,17 +143,26 @@ public class VariableLengthAsciiEncoding {
   }
 
   public void encode(String text) {
-    for (byte b : text.getBytes()) {
-      outputStream.writeBits(Preconditions.checkNotNull(ENCODED_BITS.get(b), "Not encodeable: " + b));
-    }
-    outputStream.writeBits(ENCODED_BITS.get((byte) 0));
+    encode(text, ENCODE_TABLE);
   }
 
   public void encodeExtended(String text) {
-    for (byte b : text.getBytes()) {
-      outputStream.writeBits(Preconditions.checkNotNull(EXTENDED_ENCODED_BITS.get(b), "Not encodeable: " + b));
+    encode(text, EXTENDED_ENCODE_TABLE);
+  }
+
+  private void encode(String text, int encodeTable[]) {
+    for (int i = 0; i < text.length(); ++i) {
+      writeCharacter(text.charAt(i), encodeTable);
+    }
+    writeCharacter((char) 0, encodeTable);
+  }
+
+  private void writeCharacter(char c, int encodeTable[]) {
+    int entry = c < encodeTable.length ? encodeTable[c] : 0;
+    if (entry == 0) {
+      throw new NullPointerException("Not encodeable: " + (int) c);
     }
-    outputStream.writeBits(EXTENDED_ENCODED_BITS.get((byte) 0));
+    outputStream.writeBits(entry & 0xffff, entry >>> 16);
   }
 
   public String decode(int byteIndex, int bitIndex) {
@@ -134,30 +171,21 @@ public class VariableLengthAsciiEncoding {
   }
 
   public String decode() {
-    String result = "";
+    decodedText.setLength(0);
     char c;
     while ((c = getNextCharacter()) != 0) {
-      result += c;
+      decodedText.append(c);
     }
-    return result;
+    return decodedText.toString();
   }
 
   private char getNextCharacter() {
-    int currentBits = 0;
-    int numCurrentBits = 0;
-    int encodedLengthIndex = 0;
-    while (encodedLengthIndex < EXTENDED_ENCODED_LENGTHS.size()) {
-      EncodedLength encodedLength = EXTENDED_ENCODED_LENGTHS.get(encodedLengthIndex);
-      int numBitsToFetch = encodedLength.encodedBitLength - numCurrentBits;
-      currentBits <<= numBitsToFetch;
-      currentBits |= bitBuffer.readNumBits(numBitsToFetch);
-      numCurrentBits += numBitsToFetch;
-      if (currentBits >= encodedLength.minValue
-          && currentBits <= encodedLength.maxValue) {
-        return (char) (encodedLength.encodedCharacters[currentBits - encodedLength.minValue] & 0xff);
-      }
-      encodedLengthIndex++;
+    int bits = bitBuffer.peekNumBits(MAX_ENCODED_BIT_LENGTH);
+    int entry = DECODE_TABLE[bits];
+    if (entry == 0) {
+      throw new IllegalStateException(String.format("Failed to decode %x", bits));
     }
-    throw new IllegalStateException(String.format("Failed to decode %x", currentBits));
+    bitBuffer.skipBits(entry >>> 8);
+    return (char) (entry & 0xff);
   }
 }
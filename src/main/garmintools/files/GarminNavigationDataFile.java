@@ -19,6 +19,9 @@ package garmintools.files;
 import garmintools.Proto;
 import garmintools.sections.SectionManager;
 
+import java.io.IOException;
+import java.io.OutputStream;
+
 public class GarminNavigationDataFile {
   private final SectionManager sectionManager;
 
@@ -26,10 +29,25 @@ public class GarminNavigationDataFile {
     this.sectionManager = sectionManager;
   }
 
+  /** Sections of a lazily created file are decoded as they are requested. */
+  public SectionManager getSectionManager() {
+    return sectionManager;
+  }
+
+  /** The metadata, such as the cycle and expiry date, is decoded even for a lazily created file. */
+  public Proto.Metadata getMetadata() {
+    return sectionManager.getMetadataSection().getMetadata();
+  }
+
   public void writeToProto(Proto.NavigationData.Builder protoBuilder) {
     sectionManager.mergeToProto(protoBuilder);
   }
 
+  /** Writes a serialized proto without building every landing facility first. */
+  public void writeToProto(OutputStream outputStream) throws IOException {
+    sectionManager.writeToProto(outputStream);
+  }
+
   public void printSections() {
     System.out.println(sectionManager);
   }
@@ -18,55 +18,162 @@ package garmintools.files;
 
 import garmintools.Proto.NavigationData;
 import garmintools.adapters.garmin.MetadataGarminAdapter;
+import garmintools.adapters.garmin.TableOfContentsGarminAdapter;
+import garmintools.query.LandingFacilityLookup;
 import garmintools.sections.Ids;
 import garmintools.sections.SectionManager;
 import garmintools.sections.TableOfContentsSection;
 import garmintools.wrappers.TableOfContentsEntry;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
 import java.util.logging.Logger;
 
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.io.ByteStreams;
-import com.google.common.io.CountingInputStream;
+import com.google.common.io.Files;
 import com.google.common.primitives.Ints;
+import com.google.common.util.concurrent.MoreExecutors;
 
 public class NavigationDataFileFactory {
   private final Logger logger = Logger.getLogger(getClass().getName());
+  private final ExecutorService executorService;
+
+  /** Sections read from garmin are decoded on the calling thread. */
+  public NavigationDataFileFactory() {
+    this(MoreExecutors.newDirectExecutorService());
+  }
+
+  /**
+   * Sections read from garmin are decoded on {@code executorService}, for example
+   * {@link java.util.concurrent.ForkJoinPool#commonPool()}. The result is the same as decoding serially.
+   */
+  public NavigationDataFileFactory(ExecutorService executorService) {
+    this.executorService = executorService;
+  }
+
+  /**
+   * Maps the file read-only and decodes every section from a slice of the mapping.
+   * Unparsed sections keep referencing the mapping, so the file must not be modified
+   * while the returned data is in use.
+   */
+  public GarminNavigationDataFile createFromGarmin(File inputFile) throws IOException {
+    return createFromGarmin(map(inputFile));
+  }
+
+  /**
+   * Like {@link #createFromGarmin(File)}, but only the metadata and table of contents are
+   * decoded up front.  Every other section is decoded the first time it is requested from the
+   * {@link SectionManager}.
+   */
+  public GarminNavigationDataFile createLazilyFromGarmin(File inputFile) throws IOException {
+    return createLazilyFromGarmin(map(inputFile));
+  }
+
+  private static ByteBuffer map(File inputFile) throws IOException {
+    try (FileChannel channel = FileChannel.open(inputFile.toPath(), StandardOpenOption.READ)) {
+      return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+  }
 
   public GarminNavigationDataFile createFromGarmin(InputStream inputStream, long inputFileLength)
       throws IOException {
-    CountingInputStream countingInputStream = new CountingInputStream(inputStream);
+    byte data[] = new byte[Ints.checkedCast(inputFileLength)];
+    ByteStreams.readFully(inputStream, data);
+    return createFromGarmin(ByteBuffer.wrap(data));
+  }
+
+  /** Sections are located by their TOC offsets; {@code fileBuffer} is never read sequentially. */
+  public GarminNavigationDataFile createFromGarmin(ByteBuffer fileBuffer) {
+    return createFromGarmin(fileBuffer, false);
+  }
+
+  /** Sections other than the metadata and table of contents are decoded on first access. */
+  public GarminNavigationDataFile createLazilyFromGarmin(ByteBuffer fileBuffer) {
+    return createFromGarmin(fileBuffer, true);
+  }
+
+  private GarminNavigationDataFile createFromGarmin(ByteBuffer fileBuffer, boolean lazy) {
     SectionManager.GarminBuilder sectionManagerBuilder = new SectionManager.GarminBuilder();
-    readSection(MetadataGarminAdapter.METADATA_TOC_ENTRY, countingInputStream, sectionManagerBuilder);
-    sectionManagerBuilder.readTableOfContents(countingInputStream, Ints.checkedCast(inputFileLength));
+    readSection(MetadataGarminAdapter.METADATA_TOC_ENTRY, fileBuffer, sectionManagerBuilder, lazy);
+    int tableOfContentsOffset = TableOfContentsGarminAdapter.TABLE_OF_CONTENTS_OFFSET;
+    sectionManagerBuilder.readTableOfContents(
+        slice(fileBuffer, tableOfContentsOffset, fileBuffer.limit() - tableOfContentsOffset),
+        fileBuffer.limit());
     Collection<TableOfContentsEntry> tocEntries =
         ((TableOfContentsSection) sectionManagerBuilder.getSection(Ids.TABLE_OF_CONTENTS_SECTION))
             .getEntryMap().values();
+    ImmutableMap.Builder<TableOfContentsEntry, ByteBuffer> entryToBuffer = ImmutableMap.builder();
     for (TableOfContentsEntry entry : tocEntries) {
-      readSection(entry, countingInputStream, sectionManagerBuilder);
+      entryToBuffer.put(entry, slice(fileBuffer, entry.fileOffset, entry.actualLength));
+    }
+    if (lazy) {
+      sectionManagerBuilder.addLazySections(entryToBuffer.build());
+    } else {
+      sectionManagerBuilder.addSections(entryToBuffer.build(), executorService);
     }
     return new GarminNavigationDataFile(sectionManagerBuilder.build());
   }
 
-  private void readSection(TableOfContentsEntry entry, CountingInputStream countingInputStream,
-      SectionManager.GarminBuilder sectionManagerBuilder) throws IOException {
-    Preconditions.checkState(countingInputStream.getCount() == entry.fileOffset);
-    InputStream sectionInputStream = ByteStreams.limit(countingInputStream, entry.actualLength);
-    ByteBuffer byteBuffer = ByteBuffer.wrap(ByteStreams.toByteArray(sectionInputStream))
-        .order(ByteOrder.LITTLE_ENDIAN);
-    logger.info(String.format("Reading section %d", entry.sectionNumber));
-    sectionManagerBuilder.addSection(entry, byteBuffer);
-    Preconditions.checkState(!byteBuffer.hasRemaining(),
-        String.format("Trailing input (%d of %d bytes)", byteBuffer.remaining(), entry.actualLength));
+  /** Maps the file read-only for looking up individual landing facilities. */
+  public LandingFacilityLookup createLandingFacilityLookup(File inputFile) throws IOException {
+    return createLandingFacilityLookup(map(inputFile));
+  }
+
+  public LandingFacilityLookup createLandingFacilityLookup(ByteBuffer fileBuffer) {
+    SectionManager sectionManager = createLazilyFromGarmin(fileBuffer).getSectionManager();
+    Map<Integer, TableOfContentsEntry> entryMap = sectionManager.getTableOfContentsSection().getEntryMap();
+    return new LandingFacilityLookup(sectionManager,
+        slice(fileBuffer, entryMap.get(Ids.LANDING_FACILITY_SECTION)),
+        slice(fileBuffer, entryMap.get(Ids.STRING_SECTION)),
+        slice(fileBuffer, entryMap.get(Ids.LANDING_FACILITY_DETAIL_SECTION)));
+  }
+
+  private static ByteBuffer slice(ByteBuffer fileBuffer, TableOfContentsEntry entry) {
+    Preconditions.checkNotNull(entry, "Section is not in the table of contents");
+    return slice(fileBuffer, entry.fileOffset, entry.actualLength);
+  }
+
+  private void readSection(TableOfContentsEntry entry, ByteBuffer fileBuffer,
+      SectionManager.GarminBuilder sectionManagerBuilder, boolean lazy) {
+    if (!lazy) {
+      logger.info(String.format("Reading section %d", entry.sectionNumber));
+    }
+    sectionManagerBuilder.addSection(entry, slice(fileBuffer, entry.fileOffset, entry.actualLength));
+  }
+
+  /** Returns a little-endian view of {@code length} bytes at {@code offset}, sharing content. */
+  public static ByteBuffer slice(ByteBuffer fileBuffer, int offset, int length) {
+    Preconditions.checkState(offset >= 0 && length >= 0 && offset <= fileBuffer.limit() - length,
+        "Range [%s, %s) is outside of the %s byte file", offset, (long) offset + length,
+        fileBuffer.limit());
+    ByteBuffer byteBuffer = fileBuffer.duplicate();
+    byteBuffer.limit(offset + length);
+    byteBuffer.position(offset);
+    return byteBuffer.slice().order(ByteOrder.LITTLE_ENDIAN);
   }
 
   public ProtoNavigationDataFile createFromProto(NavigationData proto) {
     SectionManager.ProtoBuilder sectionManagerBuilder = new SectionManager.ProtoBuilder(proto);
     return new ProtoNavigationDataFile(sectionManagerBuilder.build());
   }
+
+  /**
+   * Reads a serialized {@link NavigationData} one landing facility at a time, so only the
+   * normalized sections and a single facility are in memory.  The file is read twice.
+   */
+  public ProtoNavigationDataFile createFromProto(File inputFile) throws IOException {
+    SectionManager.StreamingProtoBuilder sectionManagerBuilder =
+        new SectionManager.StreamingProtoBuilder(Files.asByteSource(inputFile));
+    return new ProtoNavigationDataFile(sectionManagerBuilder.build());
+  }
 }
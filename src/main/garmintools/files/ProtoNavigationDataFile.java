@@ -17,16 +17,17 @@
 package garmintools.files;
 
 import garmintools.adapters.garmin.GarminOutput;
+import garmintools.sections.SectionCache;
 import garmintools.sections.SectionManager;
 import garmintools.sections.TableOfContentsSection;
 
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.nio.channels.Channels;
-import java.nio.channels.WritableByteChannel;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.Executor;
+
+import com.google.common.primitives.Ints;
+import com.google.common.util.concurrent.MoreExecutors;
 
 public class ProtoNavigationDataFile {
   private final SectionManager sectionManager;
@@ -36,27 +37,47 @@ public class ProtoNavigationDataFile {
   }
 
   public void writeToGarmin(FileOutputStream outputStream) throws IOException {
-    WritableByteChannel channel = Channels.newChannel(outputStream);
-    Map<Integer, GarminOutput> sectionToOutput = sectionManager.getGarminOutputs();
-    List<GarminOutput> outputs = new ArrayList<>();
+    writeToGarmin(outputStream, MoreExecutors.directExecutor(), 0);
+  }
+
+  /**
+   * Sections are encoded on {@code executor} as their foreign key dependencies allow, at most
+   * {@code maxSectionsAhead} sections ahead of the section being written.
+   * Each section is written as soon as it is encoded and then released. The table of contents,
+   * whose offsets are only known once every section is written, is written last.
+   */
+  public void writeToGarmin(FileOutputStream outputStream, Executor executor, int maxSectionsAhead)
+      throws IOException {
+    writeToGarmin(outputStream, executor, maxSectionsAhead, null);
+  }
 
+  /**
+   * Writes sections as {@link #writeToGarmin(FileOutputStream, Executor, int)} does, reading
+   * unchanged sections from {@code cache} if it is not null.
+   */
+  public void writeToGarmin(FileOutputStream outputStream, Executor executor, int maxSectionsAhead,
+      SectionCache cache) throws IOException {
+    final FileChannel channel = outputStream.getChannel();
     GarminOutput metadata = sectionManager.getMetadataSection().getSectionBytes(sectionManager);
-    outputs.add(metadata);
-
-    TableOfContentsSection tocSection = sectionManager.getTableOfContentsSection();
-    // We need to know the size of the TOC section to insert the proper offsets into the TOC.
-    int fileOffset = metadata.size() + tocSection.getSize();
-    for (Map.Entry<Integer, GarminOutput> entry : sectionToOutput.entrySet()) {
-      GarminOutput output = entry.getValue();
-      tocSection.insert(
-          entry.getKey(), output.getItemLength(), output.getItemQuantity(), fileOffset);
-      fileOffset += output.size();
-    }
-    outputs.add(sectionManager.getTableOfContentsSection().getSectionBytes(sectionManager));
-    outputs.addAll(sectionToOutput.values());
-
-    for (GarminOutput output : outputs) {
-      output.write(channel);
-    }
+    metadata.write(channel);
+
+    final TableOfContentsSection tocSection = sectionManager.getTableOfContentsSection();
+    // Sections follow the space reserved for the TOC.
+    final int tocFileOffset = metadata.size();
+    channel.position(tocFileOffset + tocSection.getSize());
+    sectionManager.writeGarminOutputs(executor, maxSectionsAhead, cache,
+        new SectionManager.GarminOutputConsumer() {
+          @Override
+          public void accept(int sectionNumber, GarminOutput output) throws IOException {
+            tocSection.insert(sectionNumber, output.getItemLength(), output.getItemQuantity(),
+                Ints.checkedCast(channel.position()));
+            output.write(channel);
+          }
+        });
+
+    long fileLength = channel.position();
+    channel.position(tocFileOffset);
+    tocSection.getSectionBytes(sectionManager).write(channel);
+    channel.position(fileLength);
   }
 }
@@ -19,12 +19,26 @@ package garmintools.keys;
 import com.google.common.primitives.Ints;
 
 public class IndexForeignKey {
+  // Lookup table indexes are small, so keys for them are shared rather than allocated per use.
+  private static final int NUM_CACHED_KEYS = 1024;
+  private static final IndexForeignKey CACHED_KEYS[] = new IndexForeignKey[NUM_CACHED_KEYS];
+
+  static {
+    for (int index = 0; index < NUM_CACHED_KEYS; ++index) {
+      CACHED_KEYS[index] = new IndexForeignKey(index);
+    }
+  }
+
   private final int index;
 
-  public IndexForeignKey(int index) {
+  private IndexForeignKey(int index) {
     this.index = index;
   }
 
+  public static IndexForeignKey of(int index) {
+    return index >= 0 && index < NUM_CACHED_KEYS ? CACHED_KEYS[index] : new IndexForeignKey(index);
+  }
+
   public int getIndex() {
     return index;
   }
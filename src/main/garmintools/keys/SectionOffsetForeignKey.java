@@ -21,10 +21,14 @@ import com.google.common.primitives.Ints;
 public class SectionOffsetForeignKey {
   private final int sectionOffset;
 
-  public SectionOffsetForeignKey(int sectionOffset) {
+  private SectionOffsetForeignKey(int sectionOffset) {
     this.sectionOffset = sectionOffset;
   }
 
+  public static SectionOffsetForeignKey of(int sectionOffset) {
+    return new SectionOffsetForeignKey(sectionOffset);
+  }
+
   public int getSectionOffset() {
     return sectionOffset;
   }
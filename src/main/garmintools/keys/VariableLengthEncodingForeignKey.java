@@ -16,21 +16,37 @@
 
 package garmintools.keys;
 
+import com.google.common.base.Preconditions;
+import com.google.common.primitives.Ints;
+
 public class VariableLengthEncodingForeignKey {
-  private final int byteIndex;
-  private final int bitIndex;
+  // byteIndex * 8 + bitIndex.
+  private final int bitOffset;
+
+  private VariableLengthEncodingForeignKey(int bitOffset) {
+    this.bitOffset = bitOffset;
+  }
 
-  public VariableLengthEncodingForeignKey(int byteIndex, int bitIndex) {
-    this.byteIndex = byteIndex;
-    this.bitIndex = bitIndex;
+  public static VariableLengthEncodingForeignKey of(int byteIndex, int bitIndex) {
+    Preconditions.checkArgument(bitIndex >= 0 && bitIndex < Byte.SIZE);
+    return new VariableLengthEncodingForeignKey(byteIndex * Byte.SIZE + bitIndex);
+  }
+
+  public static VariableLengthEncodingForeignKey ofBitOffset(int bitOffset) {
+    return new VariableLengthEncodingForeignKey(bitOffset);
   }
 
   public int getByteIndex() {
-    return byteIndex;
+    return bitOffset / Byte.SIZE;
   }
 
   public int getBitIndex() {
-    return bitIndex;
+    return bitOffset % Byte.SIZE;
+  }
+
+  /** Returns the number of bits preceding the key, which orders keys by position. */
+  public int getBitOffset() {
+    return bitOffset;
   }
 
   @Override
@@ -39,16 +55,16 @@ public class VariableLengthEncodingForeignKey {
       return false;
     }
     VariableLengthEncodingForeignKey thatKey = (VariableLengthEncodingForeignKey) that;
-    return byteIndex == thatKey.byteIndex && bitIndex == thatKey.bitIndex;
+    return bitOffset == thatKey.bitOffset;
   }
 
   @Override
   public int hashCode() {
-    return byteIndex * 31 + bitIndex;
+    return Ints.hashCode(bitOffset);
   }
 
   @Override
   public String toString() {
-    return String.format("%d.%d", byteIndex, bitIndex);
+    return String.format("%d.%d", getByteIndex(), getBitIndex());
   }
 }
@@ -18,24 +18,27 @@ package garmintools.main;
 
 import garmintools.Proto;
 import garmintools.Proto.NavigationData;
-import garmintools.adapters.garmin.TableOfContentsGarminAdapter;
+import garmintools.delta.DeltaGenerator;
+import garmintools.delta.DeltaPatcher;
+import garmintools.delta.InPlaceUpdater;
 import garmintools.files.GarminNavigationDataFile;
 import garmintools.files.NavigationDataFileFactory;
 import garmintools.files.ProtoNavigationDataFile;
+import garmintools.query.LandingFacilityLookup;
+import garmintools.query.LandingFacilitySpatialIndex;
+import garmintools.sections.SectionCache;
 import garmintools.sections.SectionManager;
 import garmintools.sections.TableOfContentsSection;
+import garmintools.synthetic.NavigationDataGenerator;
 import garmintools.wrappers.TableOfContentsEntry;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
 import java.util.logging.Logger;
 
-import com.google.common.io.ByteStreams;
-import com.google.common.primitives.Ints;
-
 public class NavDataTool {
   private final Logger logger = Logger.getLogger(getClass().getName());
 
@@ -53,8 +56,14 @@ public class NavDataTool {
     if (condition) {
       System.out.println("NavDataTool print garmin.bin");
       System.out.println("NavDataTool decode garmin.bin proto.bin");
-      System.out.println("NavDataTool encode proto.bin garmin.bin");
+      System.out.println("NavDataTool encode proto.bin garmin.bin [cachedir]");
       System.out.println("NavDataTool toc garmin.bin");
+      System.out.println("NavDataTool lookup garmin.bin identifier...");
+      System.out.println("NavDataTool nearest garmin.bin latitude longitude count");
+      System.out.println("NavDataTool generate count proto.bin [seed]");
+      System.out.println("NavDataTool diff old.bin new.bin delta.bin");
+      System.out.println("NavDataTool patch old.bin delta.bin new.bin");
+      System.out.println("NavDataTool apply garmin.bin (proto.bin|delta.bin)");
       System.exit(-1);
     }
   }
@@ -67,8 +76,9 @@ public class NavDataTool {
         printGarminFile(new File(args[1]));
         break;
       case "encode":
-        printHelpAndExitIf(args.length != 3);
-        encodeGarminFile(new File(args[1]), new File(args[2]));
+        printHelpAndExitIf(args.length != 3 && args.length != 4);
+        encodeGarminFile(new File(args[1]), new File(args[2]),
+            args.length == 4 ? new SectionCache(new File(args[3])) : null);
         break;
       case "decode":
         printHelpAndExitIf(args.length != 3);
@@ -78,51 +88,142 @@ public class NavDataTool {
         printHelpAndExitIf(args.length != 2);
         printTableOfContents(new File(args[1]));
         break;
+      case "lookup":
+        printHelpAndExitIf(args.length < 3);
+        printLandingFacilities(new File(args[1]), Arrays.copyOfRange(args, 2, args.length));
+        break;
+      case "nearest":
+        printHelpAndExitIf(args.length != 5);
+        printNearestLandingFacilities(new File(args[1]),
+            Double.parseDouble(args[2]), Double.parseDouble(args[3]), Integer.parseInt(args[4]));
+        break;
+      case "generate":
+        printHelpAndExitIf(args.length != 3 && args.length != 4);
+        generateProtoFile(Integer.parseInt(args[1]), new File(args[2]),
+            args.length == 4 ? Long.parseLong(args[3]) : 0);
+        break;
+      case "diff":
+        printHelpAndExitIf(args.length != 4);
+        diffGarminFiles(new File(args[1]), new File(args[2]), new File(args[3]));
+        break;
+      case "patch":
+        printHelpAndExitIf(args.length != 4);
+        patchGarminFile(new File(args[1]), new File(args[2]), new File(args[3]));
+        break;
+      case "apply":
+        printHelpAndExitIf(args.length != 3);
+        applyToGarminFile(new File(args[1]), new File(args[2]));
+        break;
       default:
         printHelpAndExitIf(true);
     }
   }
 
   private void printGarminFile(File garminDataFile) throws IOException {
-    InputStream inputStream = new FileInputStream(garminDataFile);
     GarminNavigationDataFile dataFile =
-        new NavigationDataFileFactory().createFromGarmin(inputStream, garminDataFile.length());
+        new NavigationDataFileFactory(ForkJoinPool.commonPool()).createFromGarmin(garminDataFile);
     dataFile.printSections();
   }
 
   private void printTableOfContents(File garminDataFile) throws IOException {
-    InputStream inputStream = new FileInputStream(garminDataFile);
-    ByteStreams.skipFully(inputStream, TableOfContentsGarminAdapter.TABLE_OF_CONTENTS_OFFSET);
-    SectionManager.GarminBuilder sectionManagerBuilder = new SectionManager.GarminBuilder();
-    sectionManagerBuilder.readTableOfContents(inputStream, Ints.checkedCast(garminDataFile.length()));
-    SectionManager sectionManager = sectionManagerBuilder.build();
+    SectionManager sectionManager = new NavigationDataFileFactory()
+        .createLazilyFromGarmin(garminDataFile).getSectionManager();
     TableOfContentsSection tocSection = sectionManager.getTableOfContentsSection();
     for (TableOfContentsEntry entry : tocSection.getEntryMap().values()) {
       System.out.println(entry.toString());
     }
-    inputStream.close();
   }
 
-  private void encodeGarminFile(File protoFile, File garminDataFile) throws IOException  {
-    FileInputStream inputStream = new FileInputStream(protoFile);
-    FileOutputStream outputStream = new FileOutputStream(garminDataFile);
+  private void printLandingFacilities(File garminDataFile, String identifiers[]) throws IOException {
+    LandingFacilityLookup lookup = new NavigationDataFileFactory().createLandingFacilityLookup(garminDataFile);
+    for (String identifier : identifiers) {
+      Proto.LandingFacility landingFacility = lookup.lookup(identifier);
+      System.out.println(landingFacility == null ? identifier + " not found" : landingFacility);
+    }
+  }
+
+  private void printNearestLandingFacilities(File garminDataFile, double latitude, double longitude,
+      int count) throws IOException {
+    LandingFacilityLookup lookup = new NavigationDataFileFactory().createLandingFacilityLookup(garminDataFile);
+    LandingFacilitySpatialIndex.Result result = new LandingFacilitySpatialIndex.Result();
+    lookup.createSpatialIndex(1).findNearest(latitude, longitude, count, result);
+    for (int i = 0; i < result.size(); ++i) {
+      Proto.LandingFacility landingFacility = lookup.lookup(result.getIndex(i));
+      System.out.printf("%-4s %7.1f nm %s\n", landingFacility.getIdentifier(),
+          result.getDistanceNauticalMiles(i), landingFacility.getName());
+    }
+  }
+
+  private void encodeGarminFile(File protoFile, File garminDataFile, SectionCache cache)
+      throws IOException  {
     logger.info(String.format("Reading from %s", protoFile.getAbsolutePath()));
-    NavigationData proto = NavigationData.parseFrom(inputStream);
     ProtoNavigationDataFile dataFile =
-        new NavigationDataFileFactory().createFromProto(proto);
+        new NavigationDataFileFactory().createFromProto(protoFile);
     logger.info(String.format("Writing to %s", garminDataFile.getAbsolutePath()));
-    dataFile.writeToGarmin(outputStream);
+    ForkJoinPool pool = ForkJoinPool.commonPool();
+    try (FileOutputStream outputStream = new FileOutputStream(garminDataFile)) {
+      dataFile.writeToGarmin(outputStream, pool, pool.getParallelism(), cache);
+    }
+    if (cache != null) {
+      logger.info(String.format("%d sections were read from the cache and %d were not cached",
+          cache.getHitCount(), cache.getMissCount()));
+    }
   }
 
   private void decodeGarminFile(File garminDataFile, File protoFile) throws IOException  {
-    FileInputStream inputStream = new FileInputStream(garminDataFile);
-    FileOutputStream outputStream = new FileOutputStream(protoFile);
     logger.info(String.format("Reading from %s", garminDataFile.getAbsolutePath()));
     GarminNavigationDataFile dataFile =
-        new NavigationDataFileFactory().createFromGarmin(inputStream, garminDataFile.length());
+        new NavigationDataFileFactory(ForkJoinPool.commonPool()).createFromGarmin(garminDataFile);
     logger.info(String.format("Write to %s", protoFile.getAbsolutePath()));
-    Proto.NavigationData.Builder protoBuilder = Proto.NavigationData.newBuilder();
-    dataFile.writeToProto(protoBuilder);
-    protoBuilder.build().writeTo(outputStream);
+    try (FileOutputStream outputStream = new FileOutputStream(protoFile)) {
+      dataFile.writeToProto(outputStream);
+    }
+  }
+
+  private void generateProtoFile(int numLandingFacilities, File protoFile, long seed) throws IOException {
+    NavigationData proto = new NavigationDataGenerator(seed).generate(numLandingFacilities);
+    logger.info(String.format("Writing %d landing facilities to %s",
+        proto.getLandingFacilityCount(), protoFile.getAbsolutePath()));
+    try (FileOutputStream outputStream = new FileOutputStream(protoFile)) {
+      proto.writeTo(outputStream);
+    }
+  }
+
+  private void diffGarminFiles(File oldFile, File newFile, File deltaFile) throws IOException {
+    logger.info(String.format("Writing the delta from %s to %s to %s", oldFile.getAbsolutePath(),
+        newFile.getAbsolutePath(), deltaFile.getAbsolutePath()));
+    long deltaSize = new DeltaGenerator().generate(oldFile, newFile, deltaFile);
+    logger.info(String.format("Delta is %d bytes for a %d byte file", deltaSize, newFile.length()));
+  }
+
+  private void patchGarminFile(File oldFile, File deltaFile, File newFile) throws IOException {
+    logger.info(String.format("Applying %s to %s", deltaFile.getAbsolutePath(), oldFile.getAbsolutePath()));
+    new DeltaPatcher().patch(oldFile, deltaFile, newFile);
+    logger.info(String.format("Wrote %s", newFile.getAbsolutePath()));
+  }
+
+  /**
+   * Builds the updated file in a temporary file, which is usually on faster storage than
+   * {@code garminDataFile}, and then writes only the blocks of {@code garminDataFile} that differ.
+   */
+  private void applyToGarminFile(File garminDataFile, File targetFile) throws IOException {
+    InPlaceUpdater.Result result;
+    if (DeltaPatcher.isDelta(targetFile)) {
+      logger.info(String.format("Applying %s to %s", targetFile.getAbsolutePath(),
+          garminDataFile.getAbsolutePath()));
+      result = new InPlaceUpdater().applyDelta(garminDataFile, targetFile);
+    } else {
+      File updatedFile = File.createTempFile("garmin", ".bin");
+      try {
+        encodeGarminFile(targetFile, updatedFile, null);
+        logger.info(String.format("Updating %s", garminDataFile.getAbsolutePath()));
+        result = new InPlaceUpdater().update(garminDataFile, updatedFile);
+      } finally {
+        if (!updatedFile.delete()) {
+          logger.warning(String.format("Could not delete %s", updatedFile.getAbsolutePath()));
+        }
+      }
+    }
+    logger.info(String.format("Updated %s: %s", garminDataFile.getAbsolutePath(), result));
   }
 }
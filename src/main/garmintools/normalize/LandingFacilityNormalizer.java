@@ -52,7 +52,7 @@ public class LandingFacilityNormalizer {
     Preconditions.checkState(identifier.length == 3);
     builder.withIdentifier(new byte[] { identifier[0], identifier[1] });
     manager.getLandingFacilityIdentifierIndexSection().insertIndexForByte(identifier[2], index);
-    builder.withIdentifierPrefix(new IndexForeignKey(index));
+    builder.withIdentifierPrefix(IndexForeignKey.of(index));
     normalizedProtoBuilder.clearIdentifier();
 
     builder.withIcaoRegion(manager.getIcaoRegionSection().lookupByRegion(proto.getIcaoRegion()));
@@ -81,6 +81,20 @@ public class LandingFacilityNormalizer {
   }
 
   public Proto.LandingFacility denormalize(LandingFacility facility) {
+    return denormalize(facility,
+        manager.getStringSection().lookup(facility.name),
+        manager.getStringSection().lookup(facility.location),
+        facility.detail == null
+            ? null
+            : manager.getLandingFacilityDetailSection().lookup(facility.detail));
+  }
+
+  /**
+   * Denormalizes {@code facility} given its name, location and detail (or null), which callers
+   * that do not decode the string and detail sections resolve themselves.
+   */
+  public Proto.LandingFacility denormalize(LandingFacility facility, String name,
+      String cityAndMaybeState, LandingFacilityDetail detail) {
     Proto.LandingFacility.Builder protoBuilder = Proto.LandingFacility.newBuilder(facility.protoLandingFacility);
     List<Byte> identifierBytes = ImmutableList.of(facility.identifier[0], facility.identifier[1],
         manager.getLandingFacilityIdentifierIndexSection().get(facility.identifierPrefix));
@@ -93,10 +107,9 @@ public class LandingFacilityNormalizer {
     protoBuilder.setIcaoRegion(icaoRegion);
     protoBuilder.setLandingFacilityType(Proto.LandingFacility.LandingFacilityType.valueOf(
         manager.getLandingFacilityTypeSection().lookup(facility.landingFacilityType)));
-    protoBuilder.setName(manager.getStringSection().lookup(facility.name));
+    protoBuilder.setName(name);
     // TODO if there is a state, it is appended to the city.  Determine when to separate.
     // TODO this may be unknown[0]
-    String cityAndMaybeState = manager.getStringSection().lookup(facility.location);
     String region = icaoRegion.getRegion();
     if (region.contains("USA") || region.contains("ALASKA") || region.contains("HAWAII")) {
       protoBuilder.setCity(cityAndMaybeState.substring(0, cityAndMaybeState.length() - 2));
@@ -104,8 +117,7 @@ public class LandingFacilityNormalizer {
     } else {
       protoBuilder.setCity(cityAndMaybeState);
     }
-    if (facility.detail != null) {
-      LandingFacilityDetail detail = manager.getLandingFacilityDetailSection().lookup(facility.detail);
+    if (detail != null) {
       protoBuilder.setDetail(landingFacilityDetailNormalizer.denormalize(detail));
     }
     return protoBuilder.build();
@@ -0,0 +1,168 @@
+/**
+ *    Copyright 2016 Iron City Software LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package garmintools.query;
+
+import static garmintools.encoding.SixBitAsciiEncoding.COMPLEX_ENCODING;
+import garmintools.Proto;
+import garmintools.adapters.garmin.LandingFacilityDetailGarminAdapter;
+import garmintools.adapters.garmin.LandingFacilityGarminAdapter;
+import garmintools.encoding.VariableLengthAsciiEncoding;
+import garmintools.keys.VariableLengthEncodingForeignKey;
+import garmintools.normalize.LandingFacilityNormalizer;
+import garmintools.sections.SectionManager;
+import garmintools.util.StringUtil;
+import garmintools.wrappers.LandingFacility;
+import garmintools.wrappers.LandingFacilityColumns;
+import garmintools.wrappers.LandingFacilityDetail;
+
+import java.nio.ByteBuffer;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Range;
+
+/**
+ * Finds landing facilities by identifier without decoding the landing facility, string or
+ * detail sections.  The identifier index narrows the search to the facilities sharing the first
+ * encoded byte, which are binary searched in place.  Only the matching record, its name and
+ * location and its detail are then decoded.
+ *
+ * <p>The small lookup sections are read from {@code sectionManager}, which should be lazy.
+ * Instances may be used from multiple threads.
+ */
+public class LandingFacilityLookup {
+  private final SectionManager sectionManager;
+  private final ByteBuffer landingFacilityBuffer;
+  private final ByteBuffer stringBuffer;
+  private final ByteBuffer landingFacilityDetailBuffer;
+  private final int numLandingFacilities;
+  private final LandingFacilityGarminAdapter landingFacilityGarminAdapter;
+  private final LandingFacilityDetailGarminAdapter landingFacilityDetailGarminAdapter;
+  private final LandingFacilityNormalizer normalizer;
+
+  /**
+   * The buffers hold the landing facility, string and landing facility detail sections.
+   * They are never modified.
+   */
+  public LandingFacilityLookup(SectionManager sectionManager, ByteBuffer landingFacilityBuffer,
+      ByteBuffer stringBuffer, ByteBuffer landingFacilityDetailBuffer) {
+    Preconditions.checkArgument(landingFacilityBuffer.remaining()
+        % LandingFacilityGarminAdapter.LANDING_FACILITY_ENCODED_SIZE == 0);
+    this.sectionManager = sectionManager;
+    this.landingFacilityBuffer = landingFacilityBuffer.slice().order(landingFacilityBuffer.order());
+    this.stringBuffer = stringBuffer.slice().order(stringBuffer.order());
+    this.landingFacilityDetailBuffer =
+        landingFacilityDetailBuffer.slice().order(landingFacilityDetailBuffer.order());
+    this.numLandingFacilities = landingFacilityBuffer.remaining()
+        / LandingFacilityGarminAdapter.LANDING_FACILITY_ENCODED_SIZE;
+    this.landingFacilityGarminAdapter = new LandingFacilityGarminAdapter();
+    this.landingFacilityDetailGarminAdapter = new LandingFacilityDetailGarminAdapter();
+    this.normalizer = new LandingFacilityNormalizer(sectionManager);
+  }
+
+  /** Returns the landing facility with {@code identifier}, or null if there is none. */
+  public Proto.LandingFacility lookup(String identifier) {
+    int index = indexOf(identifier);
+    return index == -1 ? null : lookup(index);
+  }
+
+  /** Returns the landing facility at {@code index}, such as one found by a spatial index. */
+  public Proto.LandingFacility lookup(int index) {
+    Preconditions.checkElementIndex(index, numLandingFacilities);
+    return denormalize(landingFacilityGarminAdapter.readLandingFacility(landingFacilityBuffer, index));
+  }
+
+  /**
+   * Decodes every landing facility record into columns.  Rows are materialized with
+   * {@link #lookup(LandingFacilityColumns, int)}.
+   */
+  public LandingFacilityColumns readColumns() {
+    return landingFacilityGarminAdapter.readColumns(
+        landingFacilityBuffer.duplicate().order(landingFacilityBuffer.order()));
+  }
+
+  /** Returns the landing facility at {@code index} of {@code columns}. */
+  public Proto.LandingFacility lookup(LandingFacilityColumns columns, int index) {
+    return denormalize(landingFacilityGarminAdapter.getLandingFacility(columns, index));
+  }
+
+  private Proto.LandingFacility denormalize(LandingFacility facility) {
+    return normalizer.denormalize(facility,
+        readString(facility.name),
+        readString(facility.location),
+        facility.detail == null ? null : readLandingFacilityDetail(facility.detail.getSectionOffset()));
+  }
+
+  /**
+   * Returns the index of the landing facility with {@code identifier}, or -1 if there is none.
+   * Identifiers longer than four characters or with characters that cannot be encoded, such as
+   * lowercase letters, match no facility.
+   */
+  public int indexOf(String identifier) {
+    if (identifier.length() > 4 || !COMPLEX_ENCODING.canEncode(identifier)) {
+      return -1;
+    }
+    byte encodedIdentifier[] = COMPLEX_ENCODING.encode(StringUtil.pad(identifier, 4));
+    Range<Integer> range = sectionManager.getLandingFacilityIdentifierIndexSection()
+        .getIndexRange(encodedIdentifier[2], numLandingFacilities);
+    int key = ((encodedIdentifier[1] & 0xff) << 8) | (encodedIdentifier[0] & 0xff);
+    int low = range.lowerEndpoint();
+    int high = range.upperEndpoint() - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      int midKey = LandingFacilityGarminAdapter.getIdentifierSortKey(landingFacilityBuffer, mid);
+      if (midKey < key) {
+        low = mid + 1;
+      } else if (midKey > key) {
+        high = mid - 1;
+      } else {
+        return mid;
+      }
+    }
+    return -1;
+  }
+
+  public int getNumLandingFacilities() {
+    return numLandingFacilities;
+  }
+
+  /**
+   * Returns a spatial index over every landing facility, built from the positions in the
+   * landing facility records.  Its indexes are those of {@link #lookup(int)}.
+   */
+  public LandingFacilitySpatialIndex createSpatialIndex(int cellsPerDegree) {
+    double latitudes[] = new double[numLandingFacilities];
+    double longitudes[] = new double[numLandingFacilities];
+    for (int index = 0; index < numLandingFacilities; ++index) {
+      latitudes[index] = LandingFacilityGarminAdapter.getLatitudeDegrees(landingFacilityBuffer, index);
+      longitudes[index] = LandingFacilityGarminAdapter.getLongitudeDegrees(landingFacilityBuffer, index);
+    }
+    return new LandingFacilitySpatialIndex(latitudes, longitudes, cellsPerDegree);
+  }
+
+  private String readString(VariableLengthEncodingForeignKey key) {
+    // The encoding moves the position of its buffer.
+    return new VariableLengthAsciiEncoding(stringBuffer.duplicate())
+        .decode(key.getByteIndex(), key.getBitIndex());
+  }
+
+  private LandingFacilityDetail readLandingFacilityDetail(int sectionOffset) {
+    ByteBuffer byteBuffer = landingFacilityDetailBuffer.duplicate().order(landingFacilityDetailBuffer.order());
+    byteBuffer.position(sectionOffset);
+    return landingFacilityDetailGarminAdapter.readLandingFacilityDetail(
+        sectionManager.getDataLengthSection(), byteBuffer);
+  }
+}
@@ -0,0 +1,363 @@
+/**
+ *    Copyright 2016 Iron City Software LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package garmintools.query;
+
+import garmintools.Proto;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Answers nearest-neighbor and bounding box queries over landing facility positions.
+ *
+ * <p>Facilities are bucketed into a latitude/longitude grid and stored in primitive arrays sorted
+ * by grid cell, so a query only visits the cells it overlaps.  Each position is also kept as a unit
+ * vector; the squared chord length between two vectors orders points like great circle distance.
+ * Queries write into a caller-owned {@link Result}, which only allocates when it must grow.
+ * Instances are immutable and may be queried from multiple threads.
+ */
+public class LandingFacilitySpatialIndex {
+  public static final double EARTH_RADIUS_NAUTICAL_MILES = 3440.065;
+  private static final int DEFAULT_CELLS_PER_DEGREE = 1;
+
+  private final int cellsPerDegree;
+  private final int numRows;
+  private final int numColumns;
+
+  // cellStart[cell] .. cellStart[cell + 1] are the positions of the facilities in cell.
+  private final int cellStart[];
+
+  // Indexed by position in cell order.
+  private final int facilityIndexes[];
+  private final double latitudes[];
+  private final double longitudes[];
+  private final double x[];
+  private final double y[];
+  private final double z[];
+
+  /** Holds the facility indexes found by a query and, for nearest queries, their distances. */
+  public static class Result {
+    private int size;
+    private int indexes[] = new int[16];
+    private double chordsSquared[] = new double[16];
+
+    public int size() {
+      return size;
+    }
+
+    /** Returns the index of the {@code i}th facility found, as given to the spatial index. */
+    public int getIndex(int i) {
+      Preconditions.checkElementIndex(i, size);
+      return indexes[i];
+    }
+
+    /** Returns the great circle distance of the {@code i}th facility from a nearest query. */
+    public double getDistanceNauticalMiles(int i) {
+      Preconditions.checkElementIndex(i, size);
+      return 2 * Math.asin(Math.min(1, Math.sqrt(chordsSquared[i]) / 2)) * EARTH_RADIUS_NAUTICAL_MILES;
+    }
+
+    private void clear() {
+      size = 0;
+    }
+
+    private void add(int index, double chordSquared) {
+      if (size == indexes.length) {
+        indexes = Arrays.copyOf(indexes, size * 2);
+        chordsSquared = Arrays.copyOf(chordsSquared, size * 2);
+      }
+      indexes[size] = index;
+      chordsSquared[size] = chordSquared;
+      size++;
+    }
+  }
+
+  public static LandingFacilitySpatialIndex create(List<Proto.LandingFacility> landingFacilities) {
+    double latitudes[] = new double[landingFacilities.size()];
+    double longitudes[] = new double[landingFacilities.size()];
+    for (int i = 0; i < latitudes.length; ++i) {
+      latitudes[i] = landingFacilities.get(i).getLatitudeDegrees();
+      longitudes[i] = landingFacilities.get(i).getLongitudeDegrees();
+    }
+    return new LandingFacilitySpatialIndex(latitudes, longitudes, DEFAULT_CELLS_PER_DEGREE);
+  }
+
+  /**
+   * Indexes facility {@code i} at {@code latitudes[i]}, {@code longitudes[i]}.  Smaller cells
+   * ({@code cellsPerDegree} above 1) suit dense data and small queries.
+   */
+  public LandingFacilitySpatialIndex(double latitudes[], double longitudes[], int cellsPerDegree) {
+    Preconditions.checkArgument(latitudes.length == longitudes.length);
+    Preconditions.checkArgument(cellsPerDegree > 0);
+    this.cellsPerDegree = cellsPerDegree;
+    this.numRows = 180 * cellsPerDegree;
+    this.numColumns = 360 * cellsPerDegree;
+    this.cellStart = new int[numRows * numColumns + 1];
+
+    int numFacilities = latitudes.length;
+    int cells[] = new int[numFacilities];
+    for (int i = 0; i < numFacilities; ++i) {
+      Preconditions.checkArgument(Math.abs(latitudes[i]) <= 90, "Invalid latitude %s", latitudes[i]);
+      cells[i] = getRow(latitudes[i]) * numColumns + getColumn(longitudes[i]);
+      cellStart[cells[i] + 1]++;
+    }
+    for (int cell = 0; cell < numRows * numColumns; ++cell) {
+      cellStart[cell + 1] += cellStart[cell];
+    }
+
+    this.facilityIndexes = new int[numFacilities];
+    this.latitudes = new double[numFacilities];
+    this.longitudes = new double[numFacilities];
+    this.x = new double[numFacilities];
+    this.y = new double[numFacilities];
+    this.z = new double[numFacilities];
+    int nextPosition[] = Arrays.copyOf(cellStart, cellStart.length - 1);
+    for (int i = 0; i < numFacilities; ++i) {
+      int position = nextPosition[cells[i]]++;
+      facilityIndexes[position] = i;
+      this.latitudes[position] = latitudes[i];
+      this.longitudes[position] = normalizeLongitude(longitudes[i]);
+      double latitude = Math.toRadians(latitudes[i]);
+      double longitude = Math.toRadians(longitudes[i]);
+      x[position] = Math.cos(latitude) * Math.cos(longitude);
+      y[position] = Math.cos(latitude) * Math.sin(longitude);
+      z[position] = Math.sin(latitude);
+    }
+  }
+
+  public int size() {
+    return facilityIndexes.length;
+  }
+
+  /**
+   * Finds the {@code k} facilities nearest to the given position, nearest first.
+   * Fewer are found only if the index holds fewer than {@code k} facilities.
+   */
+  public void findNearest(double latitudeDegrees, double longitudeDegrees, int k, Result result) {
+    Preconditions.checkArgument(k >= 0);
+    result.clear();
+    if (k == 0) {
+      return;
+    }
+    double latitude = Math.toRadians(latitudeDegrees);
+    double longitude = Math.toRadians(longitudeDegrees);
+    double queryX = Math.cos(latitude) * Math.cos(longitude);
+    double queryY = Math.cos(latitude) * Math.sin(longitude);
+    double queryZ = Math.sin(latitude);
+    int row = getRow(latitudeDegrees);
+    int column = getColumn(longitudeDegrees);
+    double normalizedLongitude = normalizeLongitude(longitudeDegrees);
+
+    // result is a max-heap on chord length until the search ends.
+    for (int ring = 0; ; ++ring) {
+      int firstRow = Math.max(0, row - ring);
+      int lastRow = Math.min(numRows - 1, row + ring);
+      boolean allColumns = 2 * ring + 1 >= numColumns;
+      if (row - ring >= 0) {
+        searchRow(row - ring, column, ring, allColumns, queryX, queryY, queryZ, k, result);
+      }
+      if (ring > 0 && row + ring < numRows) {
+        searchRow(row + ring, column, ring, allColumns, queryX, queryY, queryZ, k, result);
+      }
+      if (ring > 0 && 2 * ring - 1 < numColumns) {
+        int westColumn = Math.floorMod(column - ring, numColumns);
+        int eastColumn = Math.floorMod(column + ring, numColumns);
+        for (int r = row - ring + 1; r < row + ring; ++r) {
+          if (r < 0 || r >= numRows) {
+            continue;
+          }
+          searchCell(r * numColumns + westColumn, queryX, queryY, queryZ, k, result);
+          if (eastColumn != westColumn) {
+            searchCell(r * numColumns + eastColumn, queryX, queryY, queryZ, k, result);
+          }
+        }
+      }
+      boolean searchedEverything = firstRow == 0 && lastRow == numRows - 1 && allColumns;
+      if (searchedEverything || (result.size == k && result.chordsSquared[0] <= getMinChordSquaredOutside(
+          latitudeDegrees, normalizedLongitude, row, column, ring, allColumns))) {
+        break;
+      }
+    }
+    sortHeap(result);
+  }
+
+  /**
+   * Finds the facilities with latitude in [minLatitude, maxLatitude] and longitude in
+   * [minLongitude, maxLongitude], in no particular order.  The longitude range crosses the
+   * antimeridian if {@code minLongitude > maxLongitude}, and spans the globe if it covers 360 degrees.
+   */
+  public void findWithin(double minLatitude, double minLongitude, double maxLatitude, double maxLongitude,
+      Result result) {
+    Preconditions.checkArgument(minLatitude <= maxLatitude);
+    result.clear();
+    boolean allLongitudes = maxLongitude - minLongitude >= 360;
+    minLongitude = normalizeLongitude(minLongitude);
+    maxLongitude = normalizeLongitude(maxLongitude);
+    boolean crossesAntimeridian = minLongitude > maxLongitude;
+    int firstColumn = getColumn(minLongitude);
+    int lastColumn = getColumn(maxLongitude);
+    int numSearchedColumns = Math.floorMod(lastColumn - firstColumn, numColumns) + 1;
+    if (allLongitudes || (crossesAntimeridian && firstColumn == lastColumn)) {
+      numSearchedColumns = numColumns;
+    }
+    for (int row = getRow(Math.max(-90, minLatitude)); row <= getRow(Math.min(90, maxLatitude)); ++row) {
+      for (int i = 0; i < numSearchedColumns; ++i) {
+        int cell = row * numColumns + (firstColumn + i) % numColumns;
+        for (int position = cellStart[cell]; position < cellStart[cell + 1]; ++position) {
+          double latitude = latitudes[position];
+          double longitude = longitudes[position];
+          boolean longitudeWithin = allLongitudes || (crossesAntimeridian
+              ? longitude >= minLongitude || longitude <= maxLongitude
+              : longitude >= minLongitude && longitude <= maxLongitude);
+          if (longitudeWithin && latitude >= minLatitude && latitude <= maxLatitude) {
+            result.add(facilityIndexes[position], Double.NaN);
+          }
+        }
+      }
+    }
+  }
+
+  private void searchRow(int row, int column, int ring, boolean allColumns,
+      double queryX, double queryY, double queryZ, int k, Result result) {
+    int numSearchedColumns = allColumns ? numColumns : 2 * ring + 1;
+    int firstColumn = allColumns ? 0 : column - ring;
+    for (int i = 0; i < numSearchedColumns; ++i) {
+      int cell = row * numColumns + Math.floorMod(firstColumn + i, numColumns);
+      searchCell(cell, queryX, queryY, queryZ, k, result);
+    }
+  }
+
+  private void searchCell(int cell, double queryX, double queryY, double queryZ, int k, Result result) {
+    for (int position = cellStart[cell]; position < cellStart[cell + 1]; ++position) {
+      double dx = x[position] - queryX;
+      double dy = y[position] - queryY;
+      double dz = z[position] - queryZ;
+      double chordSquared = dx * dx + dy * dy + dz * dz;
+      if (result.size < k) {
+        result.add(facilityIndexes[position], chordSquared);
+        siftUp(result, result.size - 1);
+      } else if (chordSquared < result.chordsSquared[0]) {
+        result.indexes[0] = facilityIndexes[position];
+        result.chordsSquared[0] = chordSquared;
+        siftDown(result, 0, result.size);
+      }
+    }
+  }
+
+  /**
+   * Returns a lower bound on the squared chord length from the query to any point outside the
+   * cells searched after {@code ring}.  Such a point is either beyond the searched rows, and so at
+   * least the latitude gap away, or within them but beyond the searched columns.
+   */
+  private double getMinChordSquaredOutside(double latitude, double longitude, int row, int column,
+      int ring, boolean allColumns) {
+    // Antipodal points have a squared half-angle sine of 1.
+    double minSinSquared = 1;
+    if (row - ring > 0) {
+      double latitudeGap = Math.toRadians(latitude - getRowSouthEdge(row - ring));
+      minSinSquared = Math.min(minSinSquared, square(Math.sin(Math.max(0, latitudeGap) / 2)));
+    }
+    if (row + ring < numRows - 1) {
+      double latitudeGap = Math.toRadians(getRowSouthEdge(row + ring + 1) - latitude);
+      minSinSquared = Math.min(minSinSquared, square(Math.sin(Math.max(0, latitudeGap) / 2)));
+    }
+    if (!allColumns) {
+      double westEdge = (column - ring) / (double) cellsPerDegree - 180;
+      double eastEdge = (column + ring + 1) / (double) cellsPerDegree - 180;
+      double longitudeGap = Math.toRadians(Math.min(longitude - westEdge, eastEdge - longitude));
+      double bandSouth = getRowSouthEdge(Math.max(0, row - ring));
+      double bandNorth = getRowSouthEdge(Math.min(numRows, row + ring + 1));
+      double minBandCos = Math.cos(Math.toRadians(Math.max(Math.abs(bandSouth), Math.abs(bandNorth))));
+      double sinSquared = Math.cos(Math.toRadians(latitude)) * minBandCos
+          * square(Math.sin(Math.max(0, longitudeGap) / 2));
+      minSinSquared = Math.min(minSinSquared, sinSquared);
+    }
+    return 4 * minSinSquared;
+  }
+
+  private static double square(double value) {
+    return value * value;
+  }
+
+  private double getRowSouthEdge(int row) {
+    return row / (double) cellsPerDegree - 90;
+  }
+
+  private int getRow(double latitude) {
+    return Math.min(numRows - 1, Math.max(0, (int) Math.floor((latitude + 90) * cellsPerDegree)));
+  }
+
+  private int getColumn(double longitude) {
+    return Math.min(numColumns - 1, (int) Math.floor((normalizeLongitude(longitude) + 180) * cellsPerDegree));
+  }
+
+  /** Returns the equivalent longitude in [-180, 180). */
+  private static double normalizeLongitude(double longitude) {
+    if (longitude >= -180 && longitude < 180) {
+      return longitude;
+    }
+    double normalized = (longitude + 180) % 360;
+    return (normalized < 0 ? normalized + 360 : normalized) - 180;
+  }
+
+  private static void siftUp(Result heap, int child) {
+    while (child > 0) {
+      int parent = (child - 1) / 2;
+      if (heap.chordsSquared[parent] >= heap.chordsSquared[child]) {
+        return;
+      }
+      swap(heap, parent, child);
+      child = parent;
+    }
+  }
+
+  private static void siftDown(Result heap, int parent, int size) {
+    while (true) {
+      int child = 2 * parent + 1;
+      if (child >= size) {
+        return;
+      }
+      if (child + 1 < size && heap.chordsSquared[child + 1] > heap.chordsSquared[child]) {
+        child++;
+      }
+      if (heap.chordsSquared[parent] >= heap.chordsSquared[child]) {
+        return;
+      }
+      swap(heap, parent, child);
+      parent = child;
+    }
+  }
+
+  /** Sorts a max-heap in place into ascending order. */
+  private static void sortHeap(Result heap) {
+    for (int end = heap.size - 1; end > 0; --end) {
+      swap(heap, 0, end);
+      siftDown(heap, 0, end);
+    }
+  }
+
+  private static void swap(Result heap, int i, int j) {
+    int index = heap.indexes[i];
+    heap.indexes[i] = heap.indexes[j];
+    heap.indexes[j] = index;
+    double chordSquared = heap.chordsSquared[i];
+    heap.chordsSquared[i] = heap.chordsSquared[j];
+    heap.chordsSquared[j] = chordSquared;
+  }
+}
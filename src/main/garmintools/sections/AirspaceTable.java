@@ -34,6 +34,6 @@ public class AirspaceTable {
   public IndexForeignKey lookup(String airspace) {
     int index = AIRSPACE.indexOf(airspace);
     Preconditions.checkState(index != -1, "Undefined airspace: " + airspace);
-    return new IndexForeignKey(index);
+    return IndexForeignKey.of(index);
   }
 }
@@ -38,5 +38,10 @@ public class CoordinateSystemSection extends Section<List<Proto.CoordinateSystem
           new CoordinateSystemProtoAdapter(),
           CoordinateSystemSection.class);
     }
+
+    @Override
+    public List<Proto.CoordinateSystem> getProtoInputs(Proto.NavigationData proto) {
+      return protoAdapter.read(proto);
+    }
   }
 }
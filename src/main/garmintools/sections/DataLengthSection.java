@@ -16,6 +16,7 @@
 
 package garmintools.sections;
 
+import garmintools.Proto;
 import garmintools.adapters.garmin.DataLengthGarminAdapter;
 import garmintools.adapters.garmin.GarminAdapter;
 import garmintools.adapters.proto.DataLengthProtoAdapter;
@@ -23,6 +24,8 @@ import garmintools.adapters.proto.ProtoAdapter;
 
 import java.util.List;
 
+import com.google.common.collect.ImmutableList;
+
 public class DataLengthSection extends Section<List<Integer>> {
   DataLengthSection(int sectionNumber, List<Integer> data,
       GarminAdapter<List<Integer>> garminAdapter,
@@ -134,5 +137,10 @@ public class DataLengthSection extends Section<List<Integer>> {
           new DataLengthProtoAdapter(),
           DataLengthSection.class);
     }
+
+    @Override
+    public List<Proto.Metadata> getProtoInputs(Proto.NavigationData proto) {
+      return ImmutableList.of(proto.getMetadata());
+    }
   }
 }
@@ -22,22 +22,26 @@ import garmintools.adapters.garmin.GarminAdapter;
 import garmintools.adapters.proto.IcaoRegionProtoAdapter;
 import garmintools.adapters.proto.ProtoAdapter;
 import garmintools.keys.IndexForeignKey;
+import garmintools.util.InterningTable;
 
 import java.util.List;
 
 import com.google.common.base.Preconditions;
 
 public class IcaoRegionSection extends Section<List<Proto.IcaoRegion>> {
+  private final InterningTable<Proto.IcaoRegion> interningTable;
+
   IcaoRegionSection(int sectionNumber, List<Proto.IcaoRegion> data,
       GarminAdapter<List<Proto.IcaoRegion>> garminAdapter,
       ProtoAdapter<List<Proto.IcaoRegion>> protoAdapter) {
     super(sectionNumber, data, garminAdapter, protoAdapter);
+    interningTable = new InterningTable<>(data);
   }
 
   public IndexForeignKey lookupByRegion(Proto.IcaoRegion region) {
-    int index = data.indexOf(region);
+    int index = interningTable.indexOf(region);
     Preconditions.checkState(index != -1);
-    return new IndexForeignKey(index);
+    return IndexForeignKey.of(index);
   }
 
   public Proto.IcaoRegion lookup(IndexForeignKey key) {
@@ -51,5 +55,10 @@ public class IcaoRegionSection extends Section<List<Proto.IcaoRegion>> {
           new IcaoRegionProtoAdapter(),
           IcaoRegionSection.class);
     }
+
+    @Override
+    public List<Proto.IcaoRegion> getProtoInputs(Proto.NavigationData proto) {
+      return protoAdapter.read(proto);
+    }
   }
 }
@@ -53,12 +53,12 @@ public class LandingFacilityDetailSection extends Section<List<LandingFacilityDe
 
   public IndexForeignKey insert(LandingFacilityDetail landingFacilityDetail) {
     data.add(landingFacilityDetail);
-    return new IndexForeignKey(data.size() - 1);
+    return IndexForeignKey.of(data.size() - 1);
   }
 
   public SectionOffsetForeignKey getOffsetForIndex(IndexForeignKey key) {
     int sectionOffset = indexToSectionOffset.get(key.getIndex());
-    return new SectionOffsetForeignKey(sectionOffset);
+    return SectionOffsetForeignKey.of(sectionOffset);
   }
 
   public LandingFacilityDetail lookup(SectionOffsetForeignKey key) {
@@ -33,6 +33,7 @@ import java.util.TreeMap;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.HashBiMap;
+import com.google.common.collect.Range;
 
 /**
  * Map of section 6 indexes to the first byte of the landing facility identifier.
@@ -70,6 +71,20 @@ public class LandingFacilityIdentifierIndexSection extends Section <Map<Byte, In
     return firstOffsetToByte.get(lastOffset);
   }
 
+  /**
+   * Returns the range of landing facility indexes whose identifiers start with {@code prefixByte}.
+   * The range is empty if no identifier has the prefix.
+   */
+  public Range<Integer> getIndexRange(byte prefixByte, int numLandingFacilities) {
+    Integer firstOffset = data.get(prefixByte);
+    if (firstOffset == null) {
+      return Range.closedOpen(0, 0);
+    }
+    SortedMap<Integer, Byte> laterOffsets = firstOffsetToByte.tailMap(firstOffset + 1);
+    return Range.closedOpen(firstOffset,
+        laterOffsets.isEmpty() ? numLandingFacilities : laterOffsets.firstKey());
+  }
+
   public void insertIndexForByte(byte prefixByte, int index) {
     Preconditions.checkState(firstOffsetToByte.isEmpty());
     if (!data.containsKey(prefixByte)) {
@@ -27,6 +27,11 @@ import garmintools.wrappers.LandingFacility;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+
+import com.google.common.base.Function;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
 
 public class LandingFacilitySection extends Section<List<LandingFacility>> {
   LandingFacilitySection(int sectionNumber, List<LandingFacility> data,
@@ -44,11 +49,16 @@ public class LandingFacilitySection extends Section<List<LandingFacility>> {
   @Override
   public void mergeFromProto(SectionManager sectionManager, Proto.NavigationData proto) {
     LandingFacilityNormalizer normalizer = new LandingFacilityNormalizer(sectionManager);
-    for (int index = 0; index < proto.getLandingFacilityCount(); ++index) {
-      data.add(normalizer.normalize(proto.getLandingFacility(index), index));
+    for (Proto.LandingFacility landingFacility : proto.getLandingFacilityList()) {
+      add(normalizer, landingFacility);
     }
   }
 
+  /** Normalizes {@code landingFacility} and appends it to the section. */
+  void add(LandingFacilityNormalizer normalizer, Proto.LandingFacility landingFacility) {
+    data.add(normalizer.normalize(landingFacility, data.size()));
+  }
+
   @Override
   public void mergeToProto(SectionManager sectionManager, Proto.NavigationData.Builder protoBuilder) {
     LandingFacilityNormalizer normalizer = new LandingFacilityNormalizer(sectionManager);
@@ -61,11 +71,23 @@ public class LandingFacilitySection extends Section<List<LandingFacility>> {
     protoAdapter.write(rewrittenLandingFacility, protoBuilder);
   }
 
+  /** Denormalizes each landing facility as it is iterated, rather than all of them up front. */
+  Iterable<Proto.LandingFacility> denormalize(SectionManager sectionManager) {
+    final LandingFacilityNormalizer normalizer = new LandingFacilityNormalizer(sectionManager);
+    return Iterables.transform(data, new Function<LandingFacility, Proto.LandingFacility>() {
+      @Override
+      public Proto.LandingFacility apply(LandingFacility landingFacility) {
+        return normalizer.denormalize(landingFacility);
+      }
+    });
+  }
+
   @Override
   public GarminOutput getSectionBytes(SectionManager sectionManager) {
     // We need to change the details index from an index FK to a offset FK.
     // We also need to change the name and location index from an index FK to a var len FK.
     // This is why string and details must be written first, so the FKs will be known.
+    // See Factory.getForeignKeySectionNumbers.
     List<LandingFacility> rewrittenLandingFacility = new ArrayList<>();
     for (LandingFacility landingFacility : data) {
       LandingFacility.Builder builder = LandingFacility.newBuilder(landingFacility)
@@ -87,6 +109,11 @@ public class LandingFacilitySection extends Section<List<LandingFacility>> {
           LandingFacilitySection.class);
     }
 
+    @Override
+    public Set<Integer> getForeignKeySectionNumbers() {
+      return ImmutableSet.of(Ids.STRING_SECTION, Ids.LANDING_FACILITY_DETAIL_SECTION);
+    }
+
     @Override
     public LandingFacilitySection createFromProto(Proto.NavigationData proto) {
       return new LandingFacilitySection(sectionNumber, garminAdapter, protoAdapter);
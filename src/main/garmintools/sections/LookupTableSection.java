@@ -16,26 +16,34 @@
 
 package garmintools.sections;
 
+import garmintools.Proto;
 import garmintools.adapters.garmin.LookupTableGarminAdapter;
 import garmintools.adapters.garmin.GarminAdapter;
 import garmintools.adapters.proto.LookupTableProtoAdapter;
 import garmintools.adapters.proto.ProtoAdapter;
 import garmintools.keys.IndexForeignKey;
+import garmintools.util.InterningTable;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.protobuf.MessageLite;
 
 public class LookupTableSection extends Section<List<String>> {
+  private final InterningTable<String> interningTable;
+
   LookupTableSection(int sectionNumber, List<String> data,
       GarminAdapter<List<String>> garminAdapter,
       ProtoAdapter<List<String>> protoAdapter) {
-    super(sectionNumber, data, garminAdapter, protoAdapter);
+    // Copied so that strings may be inserted into tables read from immutable lists.
+    super(sectionNumber, new ArrayList<>(data), garminAdapter, protoAdapter);
+    interningTable = new InterningTable<>(this.data);
   }
 
   public IndexForeignKey lookupOrInsert(String string) {
-    if (!data.contains(string)) {
-      data.add(string);
-    }
-    return new IndexForeignKey(data.indexOf(string));
+    return IndexForeignKey.of(interningTable.lookupOrInsert(string));
   }
 
   public String lookup(IndexForeignKey key) {
@@ -43,11 +51,30 @@ public class LookupTableSection extends Section<List<String>> {
   }
 
   static class Factory extends SectionFactory<List<String>> {
+    // Tables into which the landing facility normalizers insert the values they use.
+    private static final Set<Integer> NORMALIZED_SECTIONS = ImmutableSet.of(
+        Ids.RUNWAY_LIGHTING_SECTION, Ids.RUNWAY_SURFACE_SECTION, Ids.LANDING_FACILITY_TYPE_SECTION,
+        Ids.GENERIC_AIRPORT_STRING_SECTION1);
+
     Factory(int sectionNumber) {
       super(sectionNumber,
           new LookupTableGarminAdapter(sectionNumber),
           new LookupTableProtoAdapter(sectionNumber),
           LookupTableSection.class);
     }
+
+    @Override
+    public List<? extends MessageLite> getProtoInputs(Proto.NavigationData proto) {
+      if (NORMALIZED_SECTIONS.contains(sectionNumber)) {
+        return super.getProtoInputs(proto);
+      }
+      List<Proto.StringConstantSection> inputs = new ArrayList<>();
+      for (Proto.StringConstantSection stringConstantSection : proto.getStringConstantSectionList()) {
+        if (stringConstantSection.getSectionNumber() == sectionNumber) {
+          inputs.add(stringConstantSection);
+        }
+      }
+      return inputs;
+    }
   }
 }
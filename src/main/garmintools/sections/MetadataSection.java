@@ -29,6 +29,10 @@ public class MetadataSection extends Section<Proto.Metadata> {
     super(sectionNumber, data, garminAdapter, protoAdapter);
   }
 
+  public Proto.Metadata getMetadata() {
+    return data;
+  }
+
   static class Factory extends SectionFactory<Proto.Metadata> {
     Factory() {
       super(Ids.METADATA_SECTION,
@@ -0,0 +1,126 @@
+/**
+ *    Copyright 2016 Iron City Software LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package garmintools.sections;
+
+import garmintools.Proto;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.ExtensionRegistryLite;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.WireFormat;
+
+/**
+ * Reads a serialized {@link Proto.NavigationData} field by field, so that its landing facilities,
+ * which are the bulk of it, are never all in memory at once.
+ */
+final class NavigationDataReader {
+  interface LandingFacilityConsumer {
+    void accept(Proto.LandingFacility landingFacility);
+  }
+
+  private NavigationDataReader() { }
+
+  /** Returns every field of the serialized message except its landing facilities. */
+  static Proto.NavigationData readAllButLandingFacilities(InputStream inputStream)
+      throws IOException {
+    CodedInputStream input = CodedInputStream.newInstance(inputStream);
+    Proto.NavigationData.Builder builder = Proto.NavigationData.newBuilder();
+    ByteString.Output fieldBytes = ByteString.newOutput();
+    for (int tag = input.readTag(); tag != 0; tag = input.readTag()) {
+      if (isLandingFacility(tag)) {
+        input.skipField(tag);
+        continue;
+      }
+      // Merging fields one at a time is equivalent to merging them together.
+      CodedOutputStream output = CodedOutputStream.newInstance(fieldBytes);
+      copyField(tag, input, output);
+      output.flush();
+      builder.mergeFrom(fieldBytes.toByteString());
+      fieldBytes.reset();
+    }
+    return builder.build();
+  }
+
+  /** Passes each landing facility of the serialized message to {@code consumer} in order. */
+  static void readLandingFacilities(InputStream inputStream, LandingFacilityConsumer consumer)
+      throws IOException {
+    CodedInputStream input = CodedInputStream.newInstance(inputStream);
+    for (int tag = input.readTag(); tag != 0; tag = input.readTag()) {
+      if (isLandingFacility(tag)) {
+        consumer.accept(input.readMessage(Proto.LandingFacility.parser(),
+            ExtensionRegistryLite.getEmptyRegistry()));
+      } else {
+        input.skipField(tag);
+      }
+    }
+  }
+
+  /** Copies the field with {@code tag}, which was just read from {@code input}, to {@code output}. */
+  static void copyField(int tag, CodedInputStream input, CodedOutputStream output)
+      throws IOException {
+    switch (WireFormat.getTagWireType(tag)) {
+      case WireFormat.WIRETYPE_VARINT: {
+        long value = input.readRawVarint64();
+        output.writeUInt32NoTag(tag);
+        output.writeUInt64NoTag(value);
+        break;
+      }
+      case WireFormat.WIRETYPE_FIXED64: {
+        long value = input.readRawLittleEndian64();
+        output.writeUInt32NoTag(tag);
+        output.writeFixed64NoTag(value);
+        break;
+      }
+      case WireFormat.WIRETYPE_LENGTH_DELIMITED: {
+        ByteString value = input.readBytes();
+        output.writeUInt32NoTag(tag);
+        output.writeBytesNoTag(value);
+        break;
+      }
+      case WireFormat.WIRETYPE_START_GROUP: {
+        output.writeUInt32NoTag(tag);
+        int endTag = (tag & ~7) | WireFormat.WIRETYPE_END_GROUP;
+        for (int groupTag = input.readTag(); groupTag != endTag; groupTag = input.readTag()) {
+          if (groupTag == 0) {
+            throw new InvalidProtocolBufferException("Unterminated group");
+          }
+          copyField(groupTag, input, output);
+        }
+        output.writeUInt32NoTag(endTag);
+        break;
+      }
+      case WireFormat.WIRETYPE_FIXED32: {
+        int value = input.readRawLittleEndian32();
+        output.writeUInt32NoTag(tag);
+        output.writeFixed32NoTag(value);
+        break;
+      }
+      default:
+        throw new InvalidProtocolBufferException("Unexpected wire type in tag " + tag);
+    }
+  }
+
+  private static boolean isLandingFacility(int tag) {
+    return WireFormat.getTagFieldNumber(tag) == Proto.NavigationData.LANDING_FACILITY_FIELD_NUMBER
+        && WireFormat.getTagWireType(tag) == WireFormat.WIRETYPE_LENGTH_DELIMITED;
+  }
+}
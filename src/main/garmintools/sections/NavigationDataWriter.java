@@ -0,0 +1,67 @@
+/**
+ *    Copyright 2016 Iron City Software LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package garmintools.sections;
+
+import garmintools.Proto;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import com.google.common.base.Preconditions;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+
+/**
+ * Writes a serialized {@link Proto.NavigationData} whose landing facilities are supplied one at a
+ * time, so that they are never all in memory at once.
+ */
+final class NavigationDataWriter {
+  private NavigationDataWriter() { }
+
+  /**
+   * Writes {@code proto} with {@code landingFacilities} in place of its own.  The bytes are the
+   * same as serializing the built message, since fields are written in field number order.
+   */
+  static void write(Proto.NavigationData proto, Iterable<Proto.LandingFacility> landingFacilities,
+      OutputStream outputStream) throws IOException {
+    Preconditions.checkArgument(proto.getLandingFacilityCount() == 0,
+        "Landing facilities must only be supplied separately");
+    CodedOutputStream output = CodedOutputStream.newInstance(outputStream);
+    CodedInputStream input = proto.toByteString().newCodedInput();
+    boolean wroteLandingFacilities = false;
+    for (int tag = input.readTag(); tag != 0; tag = input.readTag()) {
+      if (!wroteLandingFacilities
+          && WireFormat.getTagFieldNumber(tag) > Proto.NavigationData.LANDING_FACILITY_FIELD_NUMBER) {
+        writeLandingFacilities(landingFacilities, output);
+        wroteLandingFacilities = true;
+      }
+      NavigationDataReader.copyField(tag, input, output);
+    }
+    if (!wroteLandingFacilities) {
+      writeLandingFacilities(landingFacilities, output);
+    }
+    output.flush();
+  }
+
+  private static void writeLandingFacilities(Iterable<Proto.LandingFacility> landingFacilities,
+      CodedOutputStream output) throws IOException {
+    for (Proto.LandingFacility landingFacility : landingFacilities) {
+      output.writeMessage(Proto.NavigationData.LANDING_FACILITY_FIELD_NUMBER, landingFacility);
+    }
+  }
+}
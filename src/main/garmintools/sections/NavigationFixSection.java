@@ -20,7 +20,6 @@ import garmintools.adapters.garmin.GarminAdapter;
 import garmintools.adapters.garmin.NavigationFixGarminAdapter;
 import garmintools.adapters.proto.LookupTableProtoAdapter;
 import garmintools.adapters.proto.ProtoAdapter;
-import garmintools.keys.IndexForeignKey;
 
 import java.util.List;
 
@@ -31,19 +30,6 @@ public class NavigationFixSection extends LookupTableSection {
     super(sectionNumber, data, garminAdapter, protoAdapter);
   }
 
-  @Override
-  public IndexForeignKey lookupOrInsert(String string) {
-    if (!data.contains(string)) {
-      data.add(string);
-    }
-    return new IndexForeignKey(data.indexOf(string));
-  }
-
-  @Override
-  public String lookup(IndexForeignKey key) {
-    return data.get(key.getIndex());
-  }
-
   static class Factory extends SectionFactory<List<String>> {
     Factory() {
       super(Ids.NAVIGATION_FIX_SECTION,
@@ -28,7 +28,7 @@ public class RunwayNumberSuffixTable {
   public IndexForeignKey getKey(String string) {
     for (int index = 0; index < RUNWAY_NUMBER_SUFFIXES.length; ++index) {
       if (string.equals(RUNWAY_NUMBER_SUFFIXES[index])) {
-        return new IndexForeignKey(index);
+        return IndexForeignKey.of(index);
       }
     }
     throw new IllegalArgumentException("Not a known runway suffix: " + string);
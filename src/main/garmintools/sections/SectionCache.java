@@ -0,0 +1,119 @@
+/**
+ *    Copyright 2016 Iron City Software LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package garmintools.sections;
+
+import garmintools.adapters.garmin.GarminOutput;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.base.Preconditions;
+import com.google.common.hash.HashCode;
+
+/**
+ * An on-disk cache of encoded sections, one file per section named by its key.
+ * See {@link SectionManager#getGarminOutputs(java.util.concurrent.Executor, SectionCache)} for
+ * how keys are derived.  Entries are never invalidated; a changed input changes the key.
+ */
+public class SectionCache {
+  /** Part of every key; increment when a change to an encoder changes its output. */
+  static final int FORMAT_VERSION = 1;
+
+  private static final String SUFFIX = ".section";
+  private static final int HEADER_SIZE = 8;
+
+  private final File directory;
+  private final AtomicInteger hitCount = new AtomicInteger();
+  private final AtomicInteger missCount = new AtomicInteger();
+
+  public SectionCache(File directory) throws IOException {
+    Preconditions.checkNotNull(directory);
+    if (!directory.isDirectory() && !directory.mkdirs()) {
+      throw new IOException("Unable to create " + directory.getAbsolutePath());
+    }
+    this.directory = directory;
+  }
+
+  /** Returns the number of sections read from the cache. */
+  public int getHitCount() {
+    return hitCount.get();
+  }
+
+  /** Returns the number of sections encoded because they were not in the cache. */
+  public int getMissCount() {
+    return missCount.get();
+  }
+
+  boolean contains(HashCode key) {
+    return getFile(key).isFile();
+  }
+
+  GarminOutput get(HashCode key) throws IOException {
+    File file = getFile(key);
+    if (!file.isFile()) {
+      throw new FileNotFoundException("Cache entry removed: " + file.getAbsolutePath());
+    }
+    ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file.toPath()))
+        .order(ByteOrder.LITTLE_ENDIAN);
+    if (buffer.remaining() < HEADER_SIZE) {
+      throw new IOException("Truncated cache entry: " + file.getAbsolutePath());
+    }
+    int itemQuantity = buffer.getInt();
+    int itemLength = buffer.getInt();
+    hitCount.incrementAndGet();
+    return new GarminOutput(itemQuantity, itemLength, buffer);
+  }
+
+  /**
+   * Stores {@code output}, which is left unchanged.  The entry is written to a temporary file and
+   * then renamed, so that concurrent or interrupted writers never leave a partial entry.
+   */
+  void put(HashCode key, GarminOutput output) throws IOException {
+    missCount.incrementAndGet();
+    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    header.putInt(output.getItemQuantity()).putInt(output.getItemLength()).flip();
+    ByteBuffer data = output.asReadOnlyBuffer();
+    File temporaryFile = File.createTempFile(key.toString(), ".tmp", directory);
+    try {
+      try (FileChannel channel = FileChannel.open(temporaryFile.toPath(),
+          StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+        while (header.hasRemaining()) {
+          channel.write(header);
+        }
+        while (data.hasRemaining()) {
+          channel.write(data);
+        }
+      }
+      Files.move(temporaryFile.toPath(), getFile(key).toPath(), StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      temporaryFile.delete();
+    }
+  }
+
+  private File getFile(HashCode key) {
+    return new File(directory, key.toString() + SUFFIX);
+  }
+}
@@ -24,6 +24,12 @@ import garmintools.wrappers.TableOfContentsEntry;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Set;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.protobuf.MessageLite;
 
 abstract class SectionFactory<T> {
   final int sectionNumber;
@@ -43,6 +49,22 @@ abstract class SectionFactory<T> {
     return sectionNumber;
   }
 
+  /**
+   * Returns the sections whose written foreign keys this section refers to.
+   * Those sections must be encoded before this one.
+   */
+  public Set<Integer> getForeignKeySectionNumbers() {
+    return ImmutableSet.of();
+  }
+
+  /**
+   * Returns the parts of {@code proto} from which this section is encoded, not counting the
+   * sections it takes foreign keys from.  By default this is the whole proto.
+   */
+  public List<? extends MessageLite> getProtoInputs(Proto.NavigationData proto) {
+    return ImmutableList.of(proto);
+  }
+
   public Section<T> createFromGarmin(DataLengthSection dataLengthSection, TableOfContentsEntry entry, ByteBuffer byteBuffer) {
     return createSection(garminAdapter.read(dataLengthSection, entry, byteBuffer));
   }
@@ -18,28 +18,55 @@ package garmintools.sections;
 
 import garmintools.Proto;
 import garmintools.adapters.garmin.GarminOutput;
+import garmintools.normalize.LandingFacilityNormalizer;
 import garmintools.wrappers.TableOfContentsEntry;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.logging.Logger;
+
+import com.google.common.base.Function;
 import com.google.common.base.Joiner;
 import com.google.common.base.Preconditions;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.base.Throwables;
 import com.google.common.collect.ContiguousSet;
 import com.google.common.collect.DiscreteDomain;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSortedSet;
 import com.google.common.collect.Range;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteSource;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListenableFutureTask;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.google.protobuf.MessageLite;
 
 public class SectionManager {
   // This list is used when the proto does not specify an ordering.
-  // This list can probably be dynamically calculated if we had a foreign key dependency graph.
+  // The order in which sections are written to the file.  Sections are encoded in an order
+  // derived from their foreign key dependencies; see SectionFactory.getForeignKeySectionNumbers.
   private static final int[] DEFAULT_SECTION_ORDER = new int[] {
     12000, 12001,
      0, 74, 99, 43, 75, 27, 89,  1,  2, 86, 10, 42, 85, 90, 91, 92, 93, 94, 41, 62, 55, 56, 57, 58, 70,
@@ -48,6 +75,18 @@ public class SectionManager {
      8, 69, 29, 28, 40, 37, 36, 38, 39, 68, 88, 45, 44, 46, 73, 72, 65
   };
 
+  private static final List<Integer> FILE_SECTION_ORDER = createFileSectionOrder();
+
+  private static List<Integer> createFileSectionOrder() {
+    ImmutableList.Builder<Integer> listBuilder = ImmutableList.builder();
+    for (int sectionNumber : DEFAULT_SECTION_ORDER) {
+      if (sectionNumber <= Ids.MAX_SECTION_NUMBER) {
+        listBuilder.add(sectionNumber);
+      }
+    }
+    return listBuilder.build();
+  }
+
   // TODO: this is the work to do :-(
   private static final int[] UNPARSED_SECTIONS = new int[] {
      4,  5,  7,  8, 11, 12, 13, 14, 15, 16, 17, 18, 19, 20, 21, 22, 23, 24, 25, 26, 27, 28, 29,
@@ -55,22 +94,32 @@ public class SectionManager {
     65, 66, 68, 69, 71, 72, 73, 74, 75, 78, 82, 83, 84, 85, 86, 88, 89, 90, 91, 92, 93, 94, 95, 96, 97, 98, 99
   };
 
-  private final Map<Integer, Section<?>> sections;
+  // Sections read lazily from garmin are decoded by the first get() of their supplier.
+  private final Map<Integer, Supplier<Section<?>>> sections;
   private final AirspaceTable airspaceTable;
   private final RunwayNumberSuffixTable runwayNumberSuffixTable;
+  // The proto the sections were read from, or null if they were read from garmin.
+  private final Proto.NavigationData proto;
+  // The hash of the serialized proto if its landing facilities were streamed rather than kept.
+  private final HashCode protoHash;
 
-  private SectionManager(List<Section<?>> sections,
+  private SectionManager(Map<Integer, Supplier<Section<?>>> sections,
       AirspaceTable airspaceTable,
-      RunwayNumberSuffixTable runwayNumberSuffixTable) {
-    ImmutableMap.Builder<Integer, Section<?>> mapBuilder = ImmutableMap.builder();
-    for (Section<?> section : sections) {
-      mapBuilder.put(section.sectionNumber, section);
-    }
-    this.sections = mapBuilder.build();
+      RunwayNumberSuffixTable runwayNumberSuffixTable,
+      Proto.NavigationData proto,
+      HashCode protoHash) {
+    this.sections = ImmutableMap.copyOf(sections);
+    this.proto = proto;
+    this.protoHash = protoHash;
     this.airspaceTable = new AirspaceTable();
     this.runwayNumberSuffixTable = new RunwayNumberSuffixTable();
   }
 
+  private Section<?> getSection(int sectionNumber) {
+    Supplier<Section<?>> supplier = sections.get(sectionNumber);
+    return supplier == null ? null : supplier.get();
+  }
+
   public AirspaceTable getAirspaceTable() {
     return airspaceTable;
   }
@@ -80,75 +129,298 @@ public class SectionManager {
   }
 
   public DataLengthSection getDataLengthSection() {
-    return (DataLengthSection) sections.get(Ids.DATA_LENGTH_SECTION);
+    return (DataLengthSection) getSection(Ids.DATA_LENGTH_SECTION);
   }
 
   public IcaoRegionSection getIcaoRegionSection() {
-    return (IcaoRegionSection) sections.get(Ids.ICAO_REGION_SECTION);
+    return (IcaoRegionSection) getSection(Ids.ICAO_REGION_SECTION);
   }
 
   public StringSection getStringSection() {
-    return (StringSection) sections.get(Ids.STRING_SECTION);
+    return (StringSection) getSection(Ids.STRING_SECTION);
   }
 
   public LandingFacilityIdentifierIndexSection getLandingFacilityIdentifierIndexSection() {
-    return (LandingFacilityIdentifierIndexSection) sections.get(Ids.LANDING_FACILITY_IDENTIFIER_INDEX_SECTION);
+    return (LandingFacilityIdentifierIndexSection) getSection(Ids.LANDING_FACILITY_IDENTIFIER_INDEX_SECTION);
   }
 
   public LandingFacilityDetailSection getLandingFacilityDetailSection() {
-    return (LandingFacilityDetailSection) sections.get(Ids.LANDING_FACILITY_DETAIL_SECTION);
+    return (LandingFacilityDetailSection) getSection(Ids.LANDING_FACILITY_DETAIL_SECTION);
   }
 
   public LookupTableSection getRunwayLightingSection() {
-    return (LookupTableSection) sections.get(Ids.RUNWAY_LIGHTING_SECTION);
+    return (LookupTableSection) getSection(Ids.RUNWAY_LIGHTING_SECTION);
   }
 
   public LookupTableSection getRunwaySurfaceSection() {
-    return (LookupTableSection) sections.get(Ids.RUNWAY_SURFACE_SECTION);
+    return (LookupTableSection) getSection(Ids.RUNWAY_SURFACE_SECTION);
   }
 
   public LookupTableSection getGenericAirportStringSection1() {
-    return (LookupTableSection) sections.get(Ids.GENERIC_AIRPORT_STRING_SECTION1);
+    return (LookupTableSection) getSection(Ids.GENERIC_AIRPORT_STRING_SECTION1);
   }
 
   public LookupTableSection getLandingFacilityTypeSection() {
-    return (LookupTableSection) sections.get(Ids.LANDING_FACILITY_TYPE_SECTION);
+    return (LookupTableSection) getSection(Ids.LANDING_FACILITY_TYPE_SECTION);
   }
 
   public LookupTableSection getGenericAirportStringSection2() {
-    return (LookupTableSection) sections.get(Ids.GENERIC_AIRPORT_STRING_SECTION2);
+    return (LookupTableSection) getSection(Ids.GENERIC_AIRPORT_STRING_SECTION2);
   }
 
   public TableOfContentsSection getTableOfContentsSection() {
-    return (TableOfContentsSection) sections.get(Ids.TABLE_OF_CONTENTS_SECTION);
+    return (TableOfContentsSection) getSection(Ids.TABLE_OF_CONTENTS_SECTION);
   }
 
   public MetadataSection getMetadataSection() {
-    return (MetadataSection) sections.get(Ids.METADATA_SECTION);
+    return (MetadataSection) getSection(Ids.METADATA_SECTION);
   }
 
   public void mergeFromProto(Proto.NavigationData proto) {
-    for (Section<?> section : sections.values()) {
-      section.mergeFromProto(this, proto);
+    for (Supplier<Section<?>> section : sections.values()) {
+      section.get().mergeFromProto(this, proto);
     }
   }
 
   public void mergeToProto(Proto.NavigationData.Builder protoBuilder) {
-    for (Section<?> section : sections.values()) {
-      section.mergeToProto(this, protoBuilder);
+    for (Supplier<Section<?>> section : sections.values()) {
+      section.get().mergeToProto(this, protoBuilder);
+    }
+  }
+
+  /**
+   * Writes the same bytes as serializing the result of {@link #mergeToProto}, but each landing
+   * facility is denormalized and written in turn instead of all being built first.
+   */
+  public void writeToProto(OutputStream outputStream) throws IOException {
+    Proto.NavigationData.Builder protoBuilder = Proto.NavigationData.newBuilder();
+    for (int sectionNumber : sections.keySet()) {
+      if (sectionNumber != Ids.LANDING_FACILITY_SECTION) {
+        getSection(sectionNumber).mergeToProto(this, protoBuilder);
+      }
     }
+    LandingFacilitySection landingFacilitySection =
+        (LandingFacilitySection) getSection(Ids.LANDING_FACILITY_SECTION);
+    NavigationDataWriter.write(protoBuilder.build(),
+        landingFacilitySection == null
+            ? ImmutableList.<Proto.LandingFacility>of()
+            : landingFacilitySection.denormalize(this),
+        outputStream);
   }
 
   public Map<Integer, GarminOutput> getGarminOutputs() {
+    return getGarminOutputs(MoreExecutors.directExecutor());
+  }
+
+  /**
+   * Encodes each section on {@code executor} once the sections it takes foreign keys from are
+   * encoded, so independent sections may be encoded concurrently.
+   * The outputs are ordered as they are to be written to the file.
+   */
+  public Map<Integer, GarminOutput> getGarminOutputs(Executor executor) {
+    return getGarminOutputs(executor, null);
+  }
+
+  /**
+   * Encodes sections as {@link #getGarminOutputs(Executor)} does, but reads sections from
+   * {@code cache} when their inputs are unchanged and stores the sections it encodes.
+   * A section is keyed by a hash of the parts of the proto it is encoded from
+   * (see {@link SectionFactory#getProtoInputs}) and of the keys of the sections it takes foreign
+   * keys from.  The sections a re-encoded section takes foreign keys from are encoded as well,
+   * since their written keys are only known once they are encoded.
+   * Only sections read from a proto may be cached.  If {@code cache} is null, every section is
+   * encoded.
+   */
+  public Map<Integer, GarminOutput> getGarminOutputs(Executor executor, SectionCache cache) {
+    CachePlan cachePlan = createCachePlan(cache);
+    Map<Integer, ListenableFuture<GarminOutput>> sectionToFuture = new HashMap<>();
+    for (int sectionNumber : FILE_SECTION_ORDER) {
+      scheduleEncoding(sectionNumber, executor, cachePlan, sectionToFuture, new HashSet<Integer>());
+    }
     ImmutableMap.Builder<Integer, GarminOutput> sectionToBufferBuilder = ImmutableMap.builder();
-    for (int sectionNumber : DEFAULT_SECTION_ORDER) {
-      if (sectionNumber <= Ids.MAX_SECTION_NUMBER) {
-        sectionToBufferBuilder.put(sectionNumber, sections.get(sectionNumber).getSectionBytes(this));
-      }
+    for (int sectionNumber : FILE_SECTION_ORDER) {
+      sectionToBufferBuilder.put(sectionNumber, getOutput(sectionToFuture.get(sectionNumber)));
     }
     return sectionToBufferBuilder.build();
   }
 
+  /** Receives encoded sections in the order they are to be written to the file. */
+  public interface GarminOutputConsumer {
+    void accept(int sectionNumber, GarminOutput output) throws IOException;
+  }
+
+  /**
+   * Encodes sections as {@link #getGarminOutputs(Executor)} does, but hands each output to
+   * {@code consumer} in file order and then releases it.  Encoding is scheduled at most
+   * {@code maxSectionsAhead} sections beyond the section being consumed (plus the sections they
+   * take foreign keys from), which bounds the number of outputs held at once.
+   */
+  public void writeGarminOutputs(Executor executor, int maxSectionsAhead,
+      GarminOutputConsumer consumer) throws IOException {
+    writeGarminOutputs(executor, maxSectionsAhead, null, consumer);
+  }
+
+  /**
+   * Writes sections as {@link #writeGarminOutputs(Executor, int, GarminOutputConsumer)} does,
+   * using {@code cache} as {@link #getGarminOutputs(Executor, SectionCache)} does.
+   */
+  public void writeGarminOutputs(Executor executor, int maxSectionsAhead, SectionCache cache,
+      GarminOutputConsumer consumer) throws IOException {
+    Preconditions.checkArgument(maxSectionsAhead >= 0);
+    CachePlan cachePlan = createCachePlan(cache);
+    Map<Integer, ListenableFuture<GarminOutput>> sectionToFuture = new HashMap<>();
+    int numScheduledSections = 0;
+    for (int index = 0; index < FILE_SECTION_ORDER.size(); ++index) {
+      for (; numScheduledSections < FILE_SECTION_ORDER.size()
+          && numScheduledSections <= (long) index + maxSectionsAhead; ++numScheduledSections) {
+        scheduleEncoding(FILE_SECTION_ORDER.get(numScheduledSections), executor, cachePlan,
+            sectionToFuture, new HashSet<Integer>());
+      }
+      int sectionNumber = FILE_SECTION_ORDER.get(index);
+      GarminOutput output = getOutput(sectionToFuture.get(sectionNumber));
+      // Leave a completed placeholder so that the section is not encoded again as a dependency.
+      sectionToFuture.put(sectionNumber, Futures.<GarminOutput>immediateFuture(null));
+      consumer.accept(sectionNumber, output);
+    }
+  }
+
+  private static GarminOutput getOutput(ListenableFuture<GarminOutput> future) {
+    try {
+      return Uninterruptibles.getUninterruptibly(future);
+    } catch (ExecutionException e) {
+      throw Throwables.propagate(e.getCause());
+    }
+  }
+
+  private ListenableFuture<GarminOutput> scheduleEncoding(int sectionNumber, Executor executor,
+      final CachePlan cachePlan, Map<Integer, ListenableFuture<GarminOutput>> sectionToFuture,
+      Set<Integer> visiting) {
+    if (sectionToFuture.containsKey(sectionNumber)) {
+      return sectionToFuture.get(sectionNumber);
+    }
+    Preconditions.checkState(visiting.add(sectionNumber),
+        "Foreign key cycle through section %s", sectionNumber);
+    final Section<?> section = Preconditions.checkNotNull(getSection(sectionNumber),
+        "Section %s is not present", sectionNumber);
+    ListenableFuture<GarminOutput> future;
+    if (cachePlan != null && cachePlan.cachedSections.contains(sectionNumber)) {
+      // Nothing that is encoded takes foreign keys from this section, so it may be read as is.
+      final HashCode key = cachePlan.keys.get(sectionNumber);
+      ListenableFutureTask<GarminOutput> task = ListenableFutureTask.create(
+          new Callable<GarminOutput>() {
+            @Override
+            public GarminOutput call() throws IOException {
+              return cachePlan.cache.get(key);
+            }
+          });
+      executor.execute(task);
+      future = task;
+    } else {
+      List<ListenableFuture<GarminOutput>> dependencies = new ArrayList<>();
+      for (int dependency : SECTION_FACTORIES.get(sectionNumber).getForeignKeySectionNumbers()) {
+        dependencies.add(scheduleEncoding(dependency, executor, cachePlan, sectionToFuture, visiting));
+      }
+      final HashCode key = cachePlan == null || cachePlan.cache.contains(cachePlan.keys.get(sectionNumber))
+          ? null
+          : cachePlan.keys.get(sectionNumber);
+      future = Futures.transform(Futures.allAsList(dependencies),
+          new Function<List<GarminOutput>, GarminOutput>() {
+            @Override
+            public GarminOutput apply(List<GarminOutput> unused) {
+              GarminOutput output = section.getSectionBytes(SectionManager.this);
+              if (key != null) {
+                try {
+                  cachePlan.cache.put(key, output);
+                } catch (IOException e) {
+                  throw Throwables.propagate(e);
+                }
+              }
+              return output;
+            }
+          }, executor);
+    }
+    visiting.remove(sectionNumber);
+    sectionToFuture.put(sectionNumber, future);
+    return future;
+  }
+
+  /** The keys of the sections to be written, and those of them to be read from the cache. */
+  private static class CachePlan {
+    final SectionCache cache;
+    final Map<Integer, HashCode> keys;
+    final Set<Integer> cachedSections;
+
+    CachePlan(SectionCache cache, Map<Integer, HashCode> keys, Set<Integer> cachedSections) {
+      this.cache = cache;
+      this.keys = keys;
+      this.cachedSections = cachedSections;
+    }
+  }
+
+  private CachePlan createCachePlan(SectionCache cache) {
+    if (cache == null) {
+      return null;
+    }
+    Preconditions.checkState(proto != null, "Only sections read from a proto may be cached");
+    Map<Integer, HashCode> keys = new HashMap<>();
+    Map<MessageLite, HashCode> inputToHash = new IdentityHashMap<>();
+    if (protoHash != null) {
+      // The retained proto lacks its landing facilities, so it stands for the whole serialized one.
+      inputToHash.put(proto, protoHash);
+    }
+    for (int sectionNumber : FILE_SECTION_ORDER) {
+      computeKey(sectionNumber, keys, inputToHash, new HashSet<Integer>());
+    }
+    Set<Integer> encodedSections = new HashSet<>();
+    for (int sectionNumber : FILE_SECTION_ORDER) {
+      if (!cache.contains(keys.get(sectionNumber))) {
+        addWithForeignKeySections(sectionNumber, encodedSections);
+      }
+    }
+    Set<Integer> cachedSections = new HashSet<>(FILE_SECTION_ORDER);
+    cachedSections.removeAll(encodedSections);
+    return new CachePlan(cache, keys, cachedSections);
+  }
+
+  private HashCode computeKey(int sectionNumber, Map<Integer, HashCode> keys,
+      Map<MessageLite, HashCode> inputToHash, Set<Integer> visiting) {
+    if (keys.containsKey(sectionNumber)) {
+      return keys.get(sectionNumber);
+    }
+    Preconditions.checkState(visiting.add(sectionNumber),
+        "Foreign key cycle through section %s", sectionNumber);
+    SectionFactory<?> factory = SECTION_FACTORIES.get(sectionNumber);
+    Hasher hasher = Hashing.sha256().newHasher()
+        .putInt(SectionCache.FORMAT_VERSION)
+        .putInt(sectionNumber);
+    List<? extends MessageLite> inputs = factory.getProtoInputs(proto);
+    hasher.putInt(inputs.size());
+    for (MessageLite input : inputs) {
+      // Inputs such as the whole proto are shared by several sections, so each is hashed once.
+      HashCode inputHash = inputToHash.get(input);
+      if (inputHash == null) {
+        inputHash = Hashing.sha256().hashBytes(input.toByteArray());
+        inputToHash.put(input, inputHash);
+      }
+      hasher.putBytes(inputHash.asBytes());
+    }
+    for (int dependency : ImmutableSortedSet.copyOf(factory.getForeignKeySectionNumbers())) {
+      hasher.putBytes(computeKey(dependency, keys, inputToHash, visiting).asBytes());
+    }
+    visiting.remove(sectionNumber);
+    HashCode key = hasher.hash();
+    keys.put(sectionNumber, key);
+    return key;
+  }
+
+  private static void addWithForeignKeySections(int sectionNumber, Set<Integer> sectionNumbers) {
+    if (sectionNumbers.add(sectionNumber)) {
+      for (int dependency : SECTION_FACTORIES.get(sectionNumber).getForeignKeySectionNumbers()) {
+        addWithForeignKeySections(dependency, sectionNumbers);
+      }
+    }
+  }
+
   private static final List<SectionFactory<?>> SECTION_FACTORIES_LIST = ImmutableList.<SectionFactory<?>>of(
       new MetadataSection.Factory(),
       new TableOfContentsSection.Factory(),
@@ -200,68 +472,199 @@ public class SectionManager {
   }
 
   public static class GarminBuilder {
-    private List<Section<?>> sections = new ArrayList<>();
+    private final Logger logger = Logger.getLogger(getClass().getName());
+    private final Map<Integer, Supplier<Section<?>>> sections = new LinkedHashMap<>();
 
-    public GarminBuilder readTableOfContents(InputStream inputStream, int inputFileLength) throws IOException {
+    public GarminBuilder readTableOfContents(ByteBuffer byteBuffer, int inputFileLength) {
       TableOfContentsSection.Factory factory = (TableOfContentsSection.Factory)
           SECTION_FACTORIES.get(Ids.TABLE_OF_CONTENTS_SECTION);
-      sections.add(factory.createFromGarmin(inputStream, inputFileLength));
+      add(factory.createFromGarmin(byteBuffer, inputFileLength));
       return this;
     }
 
     public GarminBuilder addSection(TableOfContentsEntry entry, ByteBuffer byteBuffer) {
-      Section<?> section = SECTION_FACTORIES.get(entry.sectionNumber)
-          .createFromGarmin((DataLengthSection) getSection(Ids.DATA_LENGTH_SECTION), entry, byteBuffer);
-      sections.add(section);
+      add(readSection((DataLengthSection) getSection(Ids.DATA_LENGTH_SECTION), entry, byteBuffer));
       return this;
     }
 
-    public Section<?> getSection(int sectionNumber) {
-      for (Section<?> section : sections) {
-        if (section.sectionNumber == sectionNumber) {
-          return section;
+    /**
+     * Adds sections in the iteration order of {@code entryToBuffer}, decoding them on
+     * {@code executorService}.  The data length section, which other sections read, is decoded first.
+     */
+    public GarminBuilder addSections(Map<TableOfContentsEntry, ByteBuffer> entryToBuffer,
+        ExecutorService executorService) {
+      DataLengthSection dataLengthSection = (DataLengthSection) getSection(Ids.DATA_LENGTH_SECTION);
+      for (Map.Entry<TableOfContentsEntry, ByteBuffer> sectionEntry : entryToBuffer.entrySet()) {
+        if (sectionEntry.getKey().sectionNumber == Ids.DATA_LENGTH_SECTION) {
+          logger.info(String.format("Reading section %d", Ids.DATA_LENGTH_SECTION));
+          dataLengthSection = (DataLengthSection) readSection(null, sectionEntry.getKey(), sectionEntry.getValue());
         }
       }
-      return null;
+      final DataLengthSection finalDataLengthSection = dataLengthSection;
+      List<Future<Section<?>>> futures = new ArrayList<>();
+      for (final Map.Entry<TableOfContentsEntry, ByteBuffer> sectionEntry : entryToBuffer.entrySet()) {
+        if (sectionEntry.getKey().sectionNumber == Ids.DATA_LENGTH_SECTION) {
+          futures.add(Futures.<Section<?>>immediateFuture(finalDataLengthSection));
+          continue;
+        }
+        futures.add(executorService.submit(new Callable<Section<?>>() {
+          @Override
+          public Section<?> call() {
+            logger.info(String.format("Reading section %d", sectionEntry.getKey().sectionNumber));
+            return readSection(finalDataLengthSection, sectionEntry.getKey(), sectionEntry.getValue());
+          }
+        }));
+      }
+      for (Future<Section<?>> future : futures) {
+        try {
+          add(Uninterruptibles.getUninterruptibly(future));
+        } catch (ExecutionException e) {
+          throw Throwables.propagate(e.getCause());
+        }
+      }
+      return this;
+    }
+
+    private static Section<?> readSection(DataLengthSection dataLengthSection,
+        TableOfContentsEntry entry, ByteBuffer byteBuffer) {
+      Section<?> section = SECTION_FACTORIES.get(entry.sectionNumber)
+          .createFromGarmin(dataLengthSection, entry, byteBuffer);
+      Preconditions.checkState(!byteBuffer.hasRemaining(),
+          String.format("Trailing input (%d of %d bytes)", byteBuffer.remaining(), entry.actualLength));
+      return section;
+    }
+
+    /**
+     * Adds sections in the iteration order of {@code entryToBuffer}, each of which is decoded on
+     * first access.  Decoded sections may be used from any thread.
+     */
+    public GarminBuilder addLazySections(Map<TableOfContentsEntry, ByteBuffer> entryToBuffer) {
+      Supplier<Section<?>> dataLengthSupplier = sections.get(Ids.DATA_LENGTH_SECTION);
+      for (Map.Entry<TableOfContentsEntry, ByteBuffer> sectionEntry : entryToBuffer.entrySet()) {
+        if (sectionEntry.getKey().sectionNumber == Ids.DATA_LENGTH_SECTION) {
+          dataLengthSupplier = createLazySection(Suppliers.<Section<?>>ofInstance(null),
+              sectionEntry.getKey(), sectionEntry.getValue());
+        }
+      }
+      if (dataLengthSupplier == null) {
+        dataLengthSupplier = Suppliers.ofInstance(null);
+      }
+      for (Map.Entry<TableOfContentsEntry, ByteBuffer> sectionEntry : entryToBuffer.entrySet()) {
+        add(sectionEntry.getKey().sectionNumber,
+            sectionEntry.getKey().sectionNumber == Ids.DATA_LENGTH_SECTION
+                ? dataLengthSupplier
+                : createLazySection(dataLengthSupplier, sectionEntry.getKey(), sectionEntry.getValue()));
+      }
+      return this;
+    }
+
+    private static Supplier<Section<?>> createLazySection(
+        final Supplier<Section<?>> dataLengthSupplier,
+        final TableOfContentsEntry entry, final ByteBuffer byteBuffer) {
+      return Suppliers.memoize(new Supplier<Section<?>>() {
+        @Override
+        public Section<?> get() {
+          return readSection((DataLengthSection) dataLengthSupplier.get(), entry, byteBuffer);
+        }
+      });
+    }
+
+    private void add(Section<?> section) {
+      add(section.sectionNumber, Suppliers.<Section<?>>ofInstance(section));
+    }
+
+    private void add(int sectionNumber, Supplier<Section<?>> section) {
+      Preconditions.checkState(!sections.containsKey(sectionNumber), "Duplicate section %s", sectionNumber);
+      sections.put(sectionNumber, section);
+    }
+
+    public Section<?> getSection(int sectionNumber) {
+      Supplier<Section<?>> section = sections.get(sectionNumber);
+      return section == null ? null : section.get();
     }
 
     public SectionManager build() {
       return new SectionManager(sections,
           new AirspaceTable(),
-          new RunwayNumberSuffixTable());
+          new RunwayNumberSuffixTable(),
+          null,
+          null);
     }
   }
 
   public static class ProtoBuilder {
     private final Proto.NavigationData proto;
-    private final List<Section<?>> sections;
 
     public ProtoBuilder(Proto.NavigationData proto) {
       this.proto = proto;
-      this.sections = new ArrayList<>();
     }
 
     public SectionManager build() {
-      for (int sectionNumber : DEFAULT_SECTION_ORDER) { // proto.getMetadata().getSectionList()) {
-        SectionFactory<?> sectionFactory = SECTION_FACTORIES.get(sectionNumber);
-        // System.out.println("Reading section " + sectionNumber);
-        Section<?> section = sectionFactory.createFromProto(proto);  // first pass
-        sections.add(section);
-      }
-      SectionManager sectionManager = new SectionManager(sections,
-          new AirspaceTable(),
-          new RunwayNumberSuffixTable());
+      SectionManager sectionManager = createFromProto(proto, null);
       sectionManager.mergeFromProto(proto);  // second pass
       return sectionManager;
     }
   }
 
+  /**
+   * Builds from a serialized proto without holding all of its landing facilities at once.
+   * The landing facilities are read in a second pass: string constants follow them on the wire,
+   * and the lookup tables they seed must exist before any facility is normalized.  The source is
+   * also read once more to hash it for {@link SectionCache} keys.
+   */
+  public static class StreamingProtoBuilder {
+    private final ByteSource source;
+
+    public StreamingProtoBuilder(ByteSource source) {
+      this.source = source;
+    }
+
+    public SectionManager build() throws IOException {
+      Proto.NavigationData proto;
+      try (InputStream inputStream = source.openBufferedStream()) {
+        proto = NavigationDataReader.readAllButLandingFacilities(inputStream);
+      }
+      // Not a HashingInputStream: skipped landing facilities would bypass its hasher.
+      final SectionManager sectionManager =
+          createFromProto(proto, source.hash(Hashing.sha256()));
+      sectionManager.mergeFromProto(proto);  // second pass, less the landing facilities
+      final LandingFacilitySection landingFacilitySection =
+          (LandingFacilitySection) sectionManager.getSection(Ids.LANDING_FACILITY_SECTION);
+      final LandingFacilityNormalizer normalizer = new LandingFacilityNormalizer(sectionManager);
+      try (InputStream inputStream = source.openBufferedStream()) {
+        NavigationDataReader.readLandingFacilities(inputStream,
+            new NavigationDataReader.LandingFacilityConsumer() {
+              @Override
+              public void accept(Proto.LandingFacility landingFacility) {
+                landingFacilitySection.add(normalizer, landingFacility);
+              }
+            });
+      }
+      return sectionManager;
+    }
+  }
+
+  private static SectionManager createFromProto(Proto.NavigationData proto, HashCode protoHash) {
+    Map<Integer, Supplier<Section<?>>> sectionMap = new LinkedHashMap<>();
+    for (int sectionNumber : DEFAULT_SECTION_ORDER) { // proto.getMetadata().getSectionList()) {
+      SectionFactory<?> sectionFactory = SECTION_FACTORIES.get(sectionNumber);
+      Section<?> section = sectionFactory.createFromProto(proto);  // first pass
+      Preconditions.checkState(sectionMap.put(section.sectionNumber,
+          Suppliers.<Section<?>>ofInstance(section)) == null);
+    }
+    return new SectionManager(sectionMap,
+        new AirspaceTable(),
+        new RunwayNumberSuffixTable(),
+        proto,
+        protoHash);
+  }
+
   @Override
   public String toString() {
     List<String> strings = new ArrayList<>();
     for (int sectionNumber : sections.keySet()) {
       strings.add(String.format(">>> section %2d\n%s\n<<< section %2d",
-          sectionNumber, sections.get(sectionNumber), sectionNumber));
+          sectionNumber, getSection(sectionNumber), sectionNumber));
     }
     return Joiner.on('\n').join(strings);
   }
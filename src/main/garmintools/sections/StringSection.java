@@ -24,30 +24,31 @@ import garmintools.adapters.proto.ProtoAdapter;
 import garmintools.adapters.proto.StringProtoAdapter;
 import garmintools.keys.IndexForeignKey;
 import garmintools.keys.VariableLengthEncodingForeignKey;
+import garmintools.util.InterningTable;
 import garmintools.wrappers.StringAndKey;
 import garmintools.wrappers.TableOfContentsEntry;
 
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.ImmutableMap;
 
 public class StringSection extends Section<List<String>> {
-  private Map<Integer, VariableLengthEncodingForeignKey> indexToWrittenKey;
-  private List<VariableLengthEncodingForeignKey> readKeys;
-  private final HashMap<String, IndexForeignKey> hashCodeCache = new HashMap<>();
+  private List<VariableLengthEncodingForeignKey> indexToWrittenKey;
+  // Bit offsets of the strings read from garmin, increasing as the strings were read in order.
+  private int readKeyBitOffsets[];
+  private final InterningTable<String> interningTable;
 
   // read from proto
   public StringSection(int sectionNumber, List<String> data,
       GarminAdapter<List<String>> garminAdapter,
       ProtoAdapter<List<String>> protoAdapter) {
-    super(sectionNumber, data, garminAdapter, protoAdapter);
+    // Copied so that strings may be inserted when landing facilities are normalized.
+    super(sectionNumber, new ArrayList<>(data), garminAdapter, protoAdapter);
+    interningTable = new InterningTable<>(this.data);
   }
 
   // read from garmin
@@ -56,27 +57,23 @@ public class StringSection extends Section<List<String>> {
       GarminAdapter<List<String>> garminAdapter,
       ProtoAdapter<List<String>> protoAdapter) {
     super(sectionNumber, data, garminAdapter, protoAdapter);
-    readKeys = keys;
+    interningTable = new InterningTable<>(data);
+    readKeyBitOffsets = new int[keys.size()];
+    for (int index = 0; index < readKeyBitOffsets.length; ++index) {
+      readKeyBitOffsets[index] = keys.get(index).getBitOffset();
+      Preconditions.checkArgument(index == 0 || readKeyBitOffsets[index] > readKeyBitOffsets[index - 1]);
+    }
   }
 
   public String lookup(VariableLengthEncodingForeignKey key) {
-    Preconditions.checkState(readKeys != null);
-    return data.get(readKeys.indexOf(key));
+    Preconditions.checkState(readKeyBitOffsets != null);
+    int index = Arrays.binarySearch(readKeyBitOffsets, key.getBitOffset());
+    Preconditions.checkArgument(index >= 0, "No string at %s", key);
+    return data.get(index);
   }
 
   public IndexForeignKey lookupOrInsert(String text) {
-    // TODO: consider changing T to Map<String, IFK>
-    if (hashCodeCache.size() != data.size()) {
-      Preconditions.checkState(hashCodeCache.isEmpty() && !data.isEmpty());
-      for (int index = 0; index < data.size(); ++index) {
-        hashCodeCache.put(data.get(index), new IndexForeignKey(index));
-      }
-    }
-    if (!hashCodeCache.containsKey(text)) {
-      data.add(text);
-      hashCodeCache.put(text, new IndexForeignKey(data.size() - 1));
-    }
-    return hashCodeCache.get(text);
+    return IndexForeignKey.of(interningTable.lookupOrInsert(text));
   }
 
   // Resolves unsorted index to written VLE key.
@@ -86,20 +83,36 @@ public class StringSection extends Section<List<String>> {
 
   @Override
   public GarminOutput getSectionBytes(SectionManager sectionManager) {
-    List<String> sortedData = new ArrayList<>(data);
-    Collections.sort(sortedData);  // Not sure if this is required, but Garmin strings are sorted.
-    GarminOutputAndKeys output = (GarminOutputAndKeys) garminAdapter.write(sortedData);
-
-    ImmutableMap.Builder<Integer, VariableLengthEncodingForeignKey> mapBuilder = ImmutableMap.builder();
-    for (int index = 0; index < output.keys.size(); index++) {
-      String string = data.get(index);
-      int sortedIndex = sortedData.indexOf(string);
-      mapBuilder.put(sortedIndex, output.keys.get(index));
+    // Not sure if this is required, but Garmin strings are sorted.
+    String sortedStrings[] = data.toArray(new String[data.size()]);
+    Arrays.sort(sortedStrings);
+    // order[position] is the index of the string written at position; equal strings keep their order.
+    int order[] = new int[sortedStrings.length];
+    int numPlaced[] = new int[sortedStrings.length];
+    for (int index = 0; index < order.length; ++index) {
+      int firstPosition = findFirst(sortedStrings, data.get(index));
+      order[firstPosition + numPlaced[firstPosition]++] = index;
     }
-    indexToWrittenKey = mapBuilder.build();
+    GarminOutputAndKeys output = ((StringGarminAdapter) garminAdapter).writeInOrder(data, order);
+    indexToWrittenKey = output.keys;
     return output;
   }
 
+  /** Returns the first position of {@code text}, which must be present, in {@code sortedStrings}. */
+  private static int findFirst(String sortedStrings[], String text) {
+    int low = 0;
+    int high = sortedStrings.length;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (sortedStrings[mid].compareTo(text) < 0) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
   static class Factory extends SectionFactory<List<String>> {
     Factory() {
       super(Ids.STRING_SECTION,
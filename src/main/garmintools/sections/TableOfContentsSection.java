@@ -23,8 +23,7 @@ import garmintools.adapters.proto.TableOfContentsProtoAdapter;
 import garmintools.wrappers.TableOfContents;
 import garmintools.wrappers.TableOfContentsEntry;
 
-import java.io.IOException;
-import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -34,7 +33,7 @@ import com.google.common.base.Joiner;
 /**
  * The table of contents of a Garmin NavData file maps well-known sections to subsets of the file.
  * For some sections, the declared length doesn't match the actual length.
- * We retain the correct lengths in order to read each section's portion of the InputStream fully.
+ * We retain the correct lengths in order to slice each section's portion of the file exactly.
  * If we move to a random-access model this would not be necessary.
  */
 public class TableOfContentsSection extends Section<TableOfContents> {
@@ -85,9 +84,8 @@ public class TableOfContentsSection extends Section<TableOfContents> {
           TableOfContentsSection.class);
     }
 
-    public TableOfContentsSection createFromGarmin(InputStream inputStream, int inputFileLength)
-        throws IOException {
-      TableOfContents data = ((TableOfContentsGarminAdapter) garminAdapter).read(inputStream, inputFileLength);
+    public TableOfContentsSection createFromGarmin(ByteBuffer byteBuffer, int inputFileLength) {
+      TableOfContents data = ((TableOfContentsGarminAdapter) garminAdapter).read(byteBuffer, inputFileLength);
       return new TableOfContentsSection(sectionNumber, data, garminAdapter, protoAdapter);
     }
   }
@@ -22,6 +22,10 @@ import garmintools.adapters.garmin.UnparsedSectionGarminAdapter;
 import garmintools.adapters.proto.ProtoAdapter;
 import garmintools.adapters.proto.UnparsedSectionProtoAdapter;
 
+import java.util.List;
+
+import com.google.common.collect.ImmutableList;
+
 public class UnparsedSection extends Section<Proto.UnparsedSection> {
   UnparsedSection(int sectionNumber, Proto.UnparsedSection data,
       GarminAdapter<Proto.UnparsedSection> garminAdapter,
@@ -36,5 +40,10 @@ public class UnparsedSection extends Section<Proto.UnparsedSection> {
           new UnparsedSectionProtoAdapter(sectionNumber),
           UnparsedSection.class);
     }
+
+    @Override
+    public List<Proto.UnparsedSection> getProtoInputs(Proto.NavigationData proto) {
+      return ImmutableList.of(protoAdapter.read(proto));
+    }
   }
 }
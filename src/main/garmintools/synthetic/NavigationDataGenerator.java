@@ -0,0 +1,516 @@
+/**
+ *    Copyright 2016 Iron City Software LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package garmintools.synthetic;
+
+import garmintools.Proto;
+import garmintools.Proto.CommunicationFrequency;
+import garmintools.Proto.CommunicationFrequency.FrequencyType;
+import garmintools.Proto.IcaoRegion;
+import garmintools.Proto.LandingFacility;
+import garmintools.Proto.LandingFacility.LandingFacilityType;
+import garmintools.Proto.LandingFacilityDetail;
+import garmintools.Proto.Runway;
+import garmintools.encoding.SixBitAsciiEncoding;
+import garmintools.util.StringUtil;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import com.google.common.collect.ImmutableList;
+import com.google.protobuf.ByteString;
+
+/**
+ * Builds random navigation data which encodes to garmin and decodes back to the same proto.
+ * The same seed and size always produce the same data, so it is suitable for benchmarks.
+ *
+ * <p>Facilities cluster around their ICAO region, and regions, facility types, runways,
+ * frequencies and names are drawn from weights resembling a worldwide database, in which most
+ * facilities are small public or private airfields in the United States.
+ */
+public class NavigationDataGenerator {
+  // Sections that SectionManager reads as UnparsedSection or as string constant tables.
+  private static final int UNPARSED_SECTIONS[] = { 4, 5, 7, 8, 11, 12, 13, 14, 15, 16, 17, 18, 19,
+      20, 21, 22, 23, 24, 25, 26, 27, 28, 29, 30, 31, 32, 33, 34, 35, 36, 37, 38, 39, 40, 42, 43,
+      44, 45, 46, 50, 51, 52, 56, 57, 58, 61, 63, 65, 66, 68, 69, 71, 72, 73, 74, 75, 78, 82, 83,
+      84, 85, 86, 88, 89, 90, 91, 92, 93, 94, 95, 96, 97, 98, 99 };
+  private static final int STRING_CONSTANT_SECTIONS[] = {
+      53, 54, 59, 60, 62, 64, 67, 70, 76, 77, 79, 80, 81, 87 };
+  private static final int NAVIGATION_FIX_SECTION = 10;
+  private static final int STRING_SECTION = 2;
+
+  // Names and locations are offsets in 19 bits, so the string section must stay under 512KB.
+  private static final int MAX_NUM_CITIES = 3000;
+
+  private static final String LETTERS = "ABCDEFGHIJKLMNOPQRSTUVWXYZ";
+  private static final String LETTERS_AND_DIGITS = LETTERS + "0123456789";
+
+  private static final class RegionModel {
+    final String prefix;
+    final String name;
+    final String identifierPrefix;
+    final double latitudeDegrees;
+    final double longitudeDegrees;
+    final double spreadDegrees;
+    final int meanElevationFeet;
+    final int weight;
+
+    RegionModel(String prefix, String name, String identifierPrefix, double latitudeDegrees,
+        double longitudeDegrees, double spreadDegrees, int meanElevationFeet, int weight) {
+      this.prefix = prefix;
+      this.name = name;
+      this.identifierPrefix = identifierPrefix;
+      this.latitudeDegrees = latitudeDegrees;
+      this.longitudeDegrees = longitudeDegrees;
+      this.spreadDegrees = spreadDegrees;
+      this.meanElevationFeet = meanElevationFeet;
+      this.weight = weight;
+    }
+
+    /** Whether the location string ends with a state, as LandingFacilityNormalizer expects. */
+    boolean hasStates() {
+      return name.equals("USA") || name.equals("ALASKA") || name.equals("HAWAII");
+    }
+  }
+
+  private static final List<RegionModel> REGIONS = ImmutableList.of(
+      new RegionModel("K1", "USA", "K", 41, -76, 3, 800, 8),
+      new RegionModel("K2", "USA", "K", 33, -84, 3, 600, 8),
+      new RegionModel("K3", "USA", "K", 43, -90, 3, 900, 8),
+      new RegionModel("K4", "USA", "K", 32, -97, 3, 700, 8),
+      new RegionModel("K5", "USA", "K", 40, -105, 3, 4500, 6),
+      new RegionModel("K6", "USA", "K", 45, -120, 3, 2000, 5),
+      new RegionModel("K7", "USA", "K", 36, -119, 2, 1500, 5),
+      new RegionModel("PA", "ALASKA", "PA", 62, -150, 4, 500, 3),
+      new RegionModel("PH", "HAWAII", "PH", 20.5, -157, 1, 100, 1),
+      new RegionModel("CY", "CANADA", "CY", 51, -100, 7, 1200, 6),
+      new RegionModel("MM", "MEXICO", "MM", 22, -101, 4, 3000, 3),
+      new RegionModel("SB", "BRAZIL", "SB", -15, -50, 7, 1500, 5),
+      new RegionModel("SC", "CHILE", "SC", -33, -71, 4, 1000, 1),
+      new RegionModel("SK", "COLOMBIA", "SK", 5, -74, 3, 2500, 1),
+      new RegionModel("YB", "AUSTRALIA", "YB", -25, 150, 4, 800, 2),
+      new RegionModel("YM", "AUSTRALIA", "YM", -33, 145, 5, 800, 3),
+      new RegionModel("NZ", "NEW ZEALAND", "NZ", -41, 174, 2, 300, 1),
+      new RegionModel("EG", "UNITED KINGDOM", "EG", 53, -2, 2, 300, 2),
+      new RegionModel("LF", "FRANCE", "LF", 46.5, 2.5, 2.5, 600, 3),
+      new RegionModel("ED", "GERMANY", "ED", 51, 10, 2, 700, 3),
+      new RegionModel("ES", "SWEDEN", "ES", 60, 15, 3, 300, 1),
+      new RegionModel("LI", "ITALY", "LI", 42, 12.5, 2.5, 500, 1),
+      new RegionModel("RJ", "JAPAN", "RJ", 36, 138, 2.5, 300, 1),
+      new RegionModel("ZB", "CHINA", "ZB", 38, 114, 5, 1500, 1),
+      new RegionModel("VT", "INDIA", "VT", 21, 78, 5, 1000, 1),
+      new RegionModel("FA", "SOUTH AFRICA", "FA", -28, 26, 3, 4000, 2));
+
+  private static final String STATES[] = { "AL", "AR", "AZ", "CA", "CO", "CT", "FL", "GA", "IA",
+      "ID", "IL", "IN", "KS", "KY", "LA", "MA", "MD", "ME", "MI", "MN", "MO", "MS", "MT", "NC",
+      "ND", "NE", "NH", "NJ", "NM", "NV", "NY", "OH", "OK", "OR", "PA", "SC", "SD", "TN", "TX",
+      "UT", "VA", "VT", "WA", "WI", "WV", "WY" };
+
+  private static final String CITY_SYLLABLES[] = { "SPRING", "FIELD", "WOOD", "LAKE", "MILL",
+      "PORT", "BROOK", "HAVEN", "TON", "VILLE", "BURG", "DALE", "RIDGE", "GREEN", "WATER", "STONE",
+      "MONT", "ROCK", "FORD", "LAND", "MOR", "AN", "EL", "CAR", "LIN", "WEST", "NORTH", "OAK",
+      "PINE", "CEDAR", "FAIR", "CLEAR", "RED", "BEL", "ASH", "HILL", "BRIDGE", "SAL", "VIS", "TA" };
+  private static final String CITY_PREFIXES[] = { "NEW ", "PORT ", "SAINT ", "LAKE ", "FORT ",
+      "EAST ", "SAN " };
+  private static final String SURNAMES[] = { "SMITH", "JOHNSON", "MILLER", "DAVIS", "WILSON",
+      "TAYLOR", "CLARK", "HALL", "YOUNG", "KING", "WRIGHT", "BAKER", "NELSON", "CARTER", "MITCHELL",
+      "ROBERTS", "TURNER", "PHILLIPS", "CAMPBELL", "PARKER", "EVANS", "COLLINS", "STEWART",
+      "MORRIS", "ROGERS", "REED", "COOK", "MORGAN", "BELL", "MURPHY", "BAILEY", "COOPER", "HOWARD",
+      "WARD", "PETERSON", "GRAY", "WATSON", "BROOKS", "KELLY", "SANDERS", "PRICE", "BENNETT",
+      "BARNES", "ROSS", "HENDERSON", "JENKINS", "PERRY", "POWELL", "HUGHES", "FLORES" };
+  private static final String PUBLIC_SUFFIXES[] = { "MUNICIPAL", "REGIONAL", "COUNTY", "AIRPORT",
+      "MEMORIAL", "FIELD", "AIRPARK", "EXECUTIVE" };
+  private static final String PRIVATE_SUFFIXES[] = { "RANCH", "FIELD", "STRIP", "AIRSTRIP",
+      "FARM", "AIRPORT", "LANDING FIELD" };
+  private static final String NARRATIVE_WORDS[] = { "CTAF", "24HR", "0600-2200", "ARR", "DEP",
+      "RWY 09-27", "OPS", "WEST", "EAST", "NORTH", "SOUTH", "SECTOR", "ON REQUEST", "PPR", "OTS",
+      "VFR ONLY", "IFR", "(0700-1900)", "LCL", "WKDAYS", "WKENDS", "SR-SS", "CLSD", "MON-FRI",
+      "AVBL", "ATIS ALSO", "ON 122.8", "CLNC DEL", "PCL 3X", "O/T", "TFC ADZY", "S/E", "N/W" };
+
+  private static final FrequencyType TOWERED_FREQUENCY_TYPES[] = { FrequencyType.ATIS,
+      FrequencyType.CLEARANCE, FrequencyType.GROUND, FrequencyType.TOWER, FrequencyType.APPROACH,
+      FrequencyType.DEPARTURE, FrequencyType.UNICOM };
+  private static final int TOWERED_FREQUENCY_PERCENTAGES[] = { 90, 50, 100, 100, 60, 30, 20 };
+  private static final FrequencyType UNTOWERED_FREQUENCY_TYPES[] = { FrequencyType.UNICOM,
+      FrequencyType.AWOS, FrequencyType.ASOS, FrequencyType.MULTICOM,
+      FrequencyType.PILOT_CONTROLLED_LIGHTING, FrequencyType.CENTER };
+  private static final int UNTOWERED_FREQUENCY_PERCENTAGES[] = { 70, 35, 15, 10, 15, 10 };
+
+  private final Random random;
+  private final List<String> cities;
+  private final Set<String> identifiers;
+
+  public NavigationDataGenerator(long seed) {
+    this.random = new Random(seed);
+    this.cities = new ArrayList<>();
+    this.identifiers = new HashSet<>();
+  }
+
+  /** Returns navigation data with {@code numLandingFacilities} landing facilities. */
+  public Proto.NavigationData generate(int numLandingFacilities) {
+    Proto.NavigationData.Builder builder = Proto.NavigationData.newBuilder();
+    addMetadata(builder.getMetadataBuilder());
+    builder.getTableOfContentsBuilder().setNumSections(101);
+    builder.addCoordinateSystem(Proto.CoordinateSystem.newBuilder()
+        .setName("WGS 84")
+        .addAllParameters(Arrays.asList(1, 2, 3, 4, 5, 6, 7)));
+    builder.addCoordinateSystem(Proto.CoordinateSystem.newBuilder()
+        .setName("NAHRWAN SAUDI ARABIA")
+        .addAllParameters(Arrays.asList(7, 6, 5, 4, 3, 2, 200)));
+
+    List<IcaoRegion> icaoRegions = new ArrayList<>();
+    int totalWeight = 0;
+    for (RegionModel region : REGIONS) {
+      icaoRegions.add(IcaoRegion.newBuilder()
+          .setLandingFacilityIdentifierPrefix(region.prefix)
+          .setRegion(region.name)
+          .build());
+      totalWeight += region.weight;
+    }
+    builder.addAllIcaoRegion(icaoRegions);
+
+    List<LandingFacility> landingFacilities = new ArrayList<>();
+    for (int i = 0; i < numLandingFacilities; ++i) {
+      int regionIndex = 0;
+      for (int weight = random.nextInt(totalWeight); weight >= REGIONS.get(regionIndex).weight; ++regionIndex) {
+        weight -= REGIONS.get(regionIndex).weight;
+      }
+      landingFacilities.add(createLandingFacility(REGIONS.get(regionIndex), icaoRegions.get(regionIndex)));
+    }
+    // The identifier index section requires facilities in encoded identifier order.
+    Collections.sort(landingFacilities, new Comparator<LandingFacility>() {
+      @Override
+      public int compare(LandingFacility a, LandingFacility b) {
+        return Integer.compare(getEncodedIdentifier(a.getIdentifier()), getEncodedIdentifier(b.getIdentifier()));
+      }
+    });
+    builder.addAllLandingFacility(landingFacilities);
+
+    SortedSet<String> strings = new TreeSet<>();
+    for (LandingFacility landingFacility : landingFacilities) {
+      strings.add(landingFacility.getName());
+      strings.add(landingFacility.getCity() + landingFacility.getState());
+    }
+    builder.addStringConstantSectionBuilder()
+        .setSectionNumber(STRING_SECTION)
+        .addAllConstant(strings);
+
+    for (int sectionNumber : STRING_CONSTANT_SECTIONS) {
+      Proto.StringConstantSection.Builder sectionBuilder =
+          builder.addStringConstantSectionBuilder().setSectionNumber(sectionNumber);
+      for (int i = 0; i < 5; ++i) {
+        sectionBuilder.addConstant(word(1, sectionNumber == 77 ? 7 : 12, "ABCDEFGHIJ"));
+      }
+    }
+    Proto.StringConstantSection.Builder fixes =
+        builder.addStringConstantSectionBuilder().setSectionNumber(NAVIGATION_FIX_SECTION);
+    for (int i = 0; i < 50; ++i) {
+      fixes.addConstant(word(5, 5, LETTERS));
+    }
+    for (int sectionNumber : UNPARSED_SECTIONS) {
+      int itemLength = 1 + random.nextInt(8);
+      int itemQuantity = 1 + random.nextInt(50);
+      byte data[] = new byte[itemLength * itemQuantity];
+      random.nextBytes(data);
+      builder.addUnparsedSection(Proto.UnparsedSection.newBuilder()
+          .setSectionNumber(sectionNumber)
+          .setItemLength(itemLength)
+          .setItemQuantity(itemQuantity)
+          .setData(ByteString.copyFrom(data)));
+    }
+    return builder.build();
+  }
+
+  private void addMetadata(Proto.Metadata.Builder metadata) {
+    metadata.setCycleNumber(1601)
+        .setPartNumber("006-D0170-15")
+        .setCoverageRegion("WORLDWIDE")
+        .setCopyrightLine1("COPYRIGHT SYNTHETIC")
+        .setCopyrightLine2("NOT FOR NAVIGATION")
+        .setEffectiveDate(date(2016, 1, 7))
+        .setExpiresDate(date(2016, 2, 4))
+        .setAeronauticalDataSnapshotDate(date(2016, 1, 1))
+        .setUnknownData1(1)
+        .setUnknownData2(2)
+        .setUnknownData3(3)
+        .setUnknownData4(4)
+        .setUnknownData5(5);
+    for (int i = 0; i < 20; ++i) {
+      metadata.addDataLength(i == 3 ? 6 : (i >= 9 && i <= 11) ? 3 + i - 9 : 2);
+    }
+  }
+
+  private static Proto.Date date(int year, int month, int day) {
+    return Proto.Date.newBuilder().setYear(year).setMonth(month).setDay(day).build();
+  }
+
+  private LandingFacility createLandingFacility(RegionModel region, IcaoRegion icaoRegion) {
+    int percentile = random.nextInt(100);
+    LandingFacilityType type = percentile < 55 ? LandingFacilityType.PUBLIC
+        : percentile < 85 ? LandingFacilityType.PRIVATE
+        : percentile < 95 ? LandingFacilityType.HELIPORT
+        : LandingFacilityType.MILITARY;
+    boolean isTowered = type == LandingFacilityType.MILITARY
+        || (type == LandingFacilityType.PUBLIC && random.nextInt(5) == 0);
+    String city = createCity();
+    boolean isIcaoIdentifier = type == LandingFacilityType.PUBLIC || isTowered;
+    String identifier = createIdentifier(region, isIcaoIdentifier);
+    for (int attempt = 1; !identifiers.add(identifier); ++attempt) {
+      // Once a region's ICAO style identifiers fill up, fall back to local style identifiers.
+      identifier = createIdentifier(region, isIcaoIdentifier && attempt < 3);
+    }
+    LandingFacility.Builder builder = LandingFacility.newBuilder()
+        .setIdentifier(identifier)
+        .setName(createName(type, isTowered, city))
+        .setLatitudeDegrees(quantize(Math.max(-89.9, Math.min(89.9,
+            region.latitudeDegrees + random.nextGaussian() * region.spreadDegrees))))
+        .setLongitudeDegrees(quantize(
+            region.longitudeDegrees + random.nextGaussian() * region.spreadDegrees * 1.5))
+        .setElevationFeet(Math.min(14000, (int) (-Math.log(1 - random.nextDouble()) * region.meanElevationFeet)))
+        .setLandingFacilityType(type)
+        .setCity(city)
+        .setIcaoRegion(icaoRegion);
+    if (region.hasStates()) {
+      // Each city lies in one state.
+      builder.setState(region.prefix.equals("PA") ? "AK"
+          : region.prefix.equals("PH") ? "HI"
+          : STATES[Math.floorMod(city.hashCode(), STATES.length)]);
+    }
+    boolean isPublicUse = type == LandingFacilityType.PUBLIC || type == LandingFacilityType.MILITARY;
+    if (isTowered && random.nextInt(4) != 0) {
+      builder.setRadarAvailable(true);
+    }
+    if (isPublicUse ? random.nextInt(10) < 4 : random.nextInt(20) == 0) {
+      builder.setJetAFuelAvailable(true);
+    }
+    if (isPublicUse ? random.nextInt(10) < 7 : random.nextInt(10) == 0) {
+      builder.setAvgasFuelAvailable(true);
+    }
+    if (isTowered && random.nextInt(3) == 0) {
+      builder.setAirspace(region.hasStates()
+          ? (random.nextInt(4) == 0 ? LandingFacility.Airspace.CLASS_B : LandingFacility.Airspace.CLASS_C)
+          : (random.nextBoolean() ? LandingFacility.Airspace.CTA : LandingFacility.Airspace.TMA));
+    }
+    boolean hasDetail = type == LandingFacilityType.HELIPORT ? random.nextBoolean()
+        : type == LandingFacilityType.PRIVATE ? random.nextInt(10) < 7
+        : random.nextInt(20) != 0;
+    int unknown[] = { random.nextInt(4), random.nextInt(2), random.nextInt(4), random.nextInt(2),
+        random.nextInt(32), random.nextInt(2), random.nextInt(2),
+        hasDetail ? 0 : random.nextInt(0x10000), random.nextInt(0x2000), 0x3ffff, random.nextInt(256) };
+    for (int value : unknown) {
+      builder.addUnknown(value);
+    }
+    if (hasDetail) {
+      addDetail(builder.getDetailBuilder(), type, isTowered);
+    }
+    return builder.build();
+  }
+
+  /**
+   * Returns an ICAO style identifier starting with the region's prefix, or a local style
+   * identifier such as those of private fields, which may contain digits.
+   */
+  private String createIdentifier(RegionModel region, boolean isIcaoIdentifier) {
+    if (isIcaoIdentifier) {
+      int length = 4 - region.identifierPrefix.length();
+      return region.identifierPrefix + word(length, length, LETTERS);
+    }
+    return word(1, 1, LETTERS) + word(3, 3, LETTERS_AND_DIGITS);
+  }
+
+  /** Returns {@code degrees} rounded to the encoded resolution, so that it round-trips. */
+  private static double quantize(double degrees) {
+    long units = Math.round(degrees / 180 * (1 << 24));
+    units = Math.floorMod(units + (1 << 24), 1L << 25) - (1 << 24);
+    return units / (double) (1 << 24) * 180;
+  }
+
+  /** Returns a new city, or one already used since several facilities often serve a city. */
+  private String createCity() {
+    if (cities.size() == MAX_NUM_CITIES || (!cities.isEmpty() && random.nextInt(4) == 0)) {
+      return cities.get(random.nextInt(cities.size()));
+    }
+    StringBuilder city = new StringBuilder();
+    if (random.nextInt(8) == 0) {
+      city.append(CITY_PREFIXES[random.nextInt(CITY_PREFIXES.length)]);
+    }
+    int numSyllables = 1 + random.nextInt(3);
+    for (int i = 0; i < numSyllables; ++i) {
+      city.append(CITY_SYLLABLES[random.nextInt(CITY_SYLLABLES.length)]);
+    }
+    cities.add(city.toString());
+    return city.toString();
+  }
+
+  private String createName(LandingFacilityType type, boolean isTowered, String city) {
+    String surname = SURNAMES[random.nextInt(SURNAMES.length)];
+    switch (type) {
+      case HELIPORT:
+        return random.nextBoolean() ? city + " HOSPITAL HELIPORT" : surname + " HELIPORT";
+      case PRIVATE:
+        return surname + " " + PRIVATE_SUFFIXES[random.nextInt(PRIVATE_SUFFIXES.length)];
+      case MILITARY:
+        return random.nextBoolean() ? city + " AFB" : surname + " AAF";
+      default:
+        if (isTowered) {
+          return city + (random.nextBoolean() ? " INTL" : " REGIONAL");
+        }
+        return (random.nextInt(4) == 0 ? surname : city) + " "
+            + PUBLIC_SUFFIXES[random.nextInt(PUBLIC_SUFFIXES.length)];
+    }
+  }
+
+  private void addDetail(LandingFacilityDetail.Builder detail, LandingFacilityType type, boolean isTowered) {
+    int numRunways;
+    if (type == LandingFacilityType.HELIPORT) {
+      numRunways = 0;
+    } else if (type == LandingFacilityType.PRIVATE) {
+      numRunways = random.nextInt(5) == 0 ? 2 : 1;
+    } else {
+      int percentile = random.nextInt(100);
+      numRunways = (percentile < 45 ? 1 : percentile < 80 ? 2 : percentile < 95 ? 3 : 4) + (isTowered ? 1 : 0);
+    }
+    for (int i = 0; i < numRunways; ++i) {
+      addRunway(detail.addRunwayBuilder(), type, isTowered);
+    }
+
+    int numFrequencies = 0;
+    FrequencyType frequencyTypes[] = isTowered ? TOWERED_FREQUENCY_TYPES : UNTOWERED_FREQUENCY_TYPES;
+    int frequencyPercentages[] = isTowered ? TOWERED_FREQUENCY_PERCENTAGES : UNTOWERED_FREQUENCY_PERCENTAGES;
+    int percentageScale = type == LandingFacilityType.PUBLIC || isTowered ? 1 : 3;
+    for (int i = 0; i < frequencyTypes.length; ++i) {
+      if (random.nextInt(100 * percentageScale) < frequencyPercentages[i]) {
+        addCommunicationFrequency(detail.addCommunicationFrequencyBuilder(), frequencyTypes[i]);
+        ++numFrequencies;
+      }
+    }
+    if (random.nextInt(10) == 0) {
+      detail.addUnknownSectionBuilder().setSectionNumber(5).setData(ByteString.copyFrom(new byte[] { 5, 5, 5 }));
+    }
+    if (numRunways == 0 && numFrequencies == 0 && detail.getUnknownSectionCount() == 0) {
+      // A detail must have at least one sub-section.
+      detail.addUnknownSectionBuilder().setSectionNumber(7).setData(ByteString.copyFrom(new byte[] { 7 }));
+    }
+  }
+
+  private void addRunway(Runway.Builder runway, LandingFacilityType type, boolean isTowered) {
+    int lengthFeet;
+    int widthFeet;
+    Runway.RunwayLighting lighting;
+    Runway.RunwaySurface surface;
+    int percentile = random.nextInt(100);
+    if (type == LandingFacilityType.PRIVATE) {
+      lengthFeet = gaussian(2200, 800, 800, 5000);
+      widthFeet = gaussian(50, 20, 20, 100);
+      lighting = percentile < 85 ? Runway.RunwayLighting.NO_LIGHTS : Runway.RunwayLighting.PILOT_CONTROLLED_LIGHTING;
+      surface = percentile < 50 ? Runway.RunwaySurface.TURF_SURFACE
+          : percentile < 70 ? Runway.RunwaySurface.DIRT_SURFACE
+          : percentile < 80 ? Runway.RunwaySurface.GRAVEL_SURFACE
+          : percentile < 95 ? Runway.RunwaySurface.HARD_SURFACE
+          : Runway.RunwaySurface.WATER_SURFACE;
+    } else if (isTowered) {
+      lengthFeet = gaussian(7000, 2500, 4000, 15000);
+      widthFeet = percentile < 60 ? 150 : percentile < 90 ? 100 : 200;
+      lighting = Runway.RunwayLighting.FULL_TIME;
+      surface = Runway.RunwaySurface.HARD_SURFACE;
+    } else {
+      lengthFeet = gaussian(3800, 1300, 1500, 9000);
+      widthFeet = percentile < 40 ? 75 : percentile < 70 ? 60 : percentile < 90 ? 100 : 50;
+      lighting = percentile < 60 ? Runway.RunwayLighting.PILOT_CONTROLLED_LIGHTING
+          : percentile < 80 ? Runway.RunwayLighting.PART_TIME
+          : Runway.RunwayLighting.NO_LIGHTS;
+      surface = percentile < 80 ? Runway.RunwaySurface.HARD_SURFACE
+          : percentile < 90 ? Runway.RunwaySurface.SEALED_SURFACE
+          : Runway.RunwaySurface.TURF_SURFACE;
+    }
+    // Only the lower numbered end of each runway is recorded.
+    runway.setRunwayNumber(1 + random.nextInt(18))
+        .setRunwayLengthFeet(lengthFeet / 10 * 10)
+        .setRunwayWidthFeet(widthFeet)
+        .setRunwayLighting(lighting)
+        .setRunwaySurface(surface)
+        .addUnknown(random.nextInt(2))
+        .addUnknown(random.nextInt(2))
+        .addUnknown(random.nextInt(2))
+        .addUnknown(random.nextInt(256));
+    if (random.nextInt(10) == 0) {
+      runway.setRunwaySuffix(random.nextBoolean() ? Runway.RunwaySuffix.LEFT : Runway.RunwaySuffix.RIGHT);
+    }
+    if (random.nextInt(4) == 0) {
+      runway.setUnknownAdditionalInfo1(ByteString.copyFrom(new byte[] { 1, 2, 3, 4 }));
+    }
+    if (random.nextInt(4) == 0) {
+      runway.setUnknownAdditionalInfo2(ByteString.copyFrom(new byte[] { 1, 2, 3, 4, 5, 6 }));
+    }
+    if (random.nextInt(4) == 0) {
+      runway.setUnknownAdditionalInfo3(ByteString.copyFrom(new byte[] { 9 }));
+    }
+  }
+
+  private void addCommunicationFrequency(CommunicationFrequency.Builder frequency, FrequencyType type) {
+    frequency.setFrequencyGhz((random.nextInt(800) * 25 + 0xd2f0) * 2)
+        .setFrequencyType(type);
+    for (int u = 0; u < 8; ++u) {
+      frequency.addUnknown(u == 0 ? random.nextInt(4) : (u == 4 || u == 5) ? random.nextInt(8) : random.nextInt(2));
+    }
+    if (random.nextInt(3) == 0) {
+      StringBuilder narrative = new StringBuilder();
+      int numWords = 1 + random.nextInt(4);
+      for (int i = 0; i < numWords; ++i) {
+        if (i > 0) {
+          narrative.append(' ');
+        }
+        narrative.append(NARRATIVE_WORDS[random.nextInt(NARRATIVE_WORDS.length)]);
+      }
+      frequency.setNarrative(narrative.toString());
+    }
+    if (random.nextInt(5) == 0) {
+      frequency.setUnknownAdditionalInfo1(ByteString.copyFrom(new byte[] { 1, 2, 3 }));
+    }
+    if (random.nextInt(5) == 0) {
+      frequency.setUnknownAdditionalInfo2(ByteString.copyFrom(new byte[] { 1, 2, 3, 4 }));
+    }
+    if (random.nextInt(5) == 0) {
+      frequency.setUnknownAdditionalInfo5(true);
+    }
+  }
+
+  private int gaussian(int mean, int standardDeviation, int min, int max) {
+    return Math.max(min, Math.min(max, (int) (mean + random.nextGaussian() * standardDeviation)));
+  }
+
+  private static int getEncodedIdentifier(String identifier) {
+    byte encoded[] = SixBitAsciiEncoding.COMPLEX_ENCODING.encode(StringUtil.pad(identifier, 4));
+    return ((encoded[2] & 0xff) << 16) | ((encoded[1] & 0xff) << 8) | (encoded[0] & 0xff);
+  }
+
+  private String word(int minLength, int maxLength, String alphabet) {
+    int length = minLength + random.nextInt(maxLength - minLength + 1);
+    StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < length; ++i) {
+      builder.append(alphabet.charAt(random.nextInt(alphabet.length())));
+    }
+    return builder.toString();
+  }
+}
@@ -0,0 +1,75 @@
+/**
+ *    Copyright 2016 Iron City Software LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package garmintools.util;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Decorates an insertion ordered list of values to find the index of a value in constant time.
+ * The index of a value is that of its first occurrence in the list.
+ */
+public class InterningTable<T> {
+  private final List<T> values;
+  private final Map<T, Integer> valueToIndex = new HashMap<>();
+
+  // The number of leading values present in valueToIndex.  The map is brought up to date lazily,
+  // so tables which are never searched are never indexed.
+  private int numIndexedValues = 0;
+
+  /** {@code values} must be mutable in order to insert. */
+  public InterningTable(List<T> values) {
+    this.values = values;
+  }
+
+  /** Returns the index of {@code value}, or -1 if it is not present. */
+  public int indexOf(T value) {
+    updateIndex();
+    Integer index = valueToIndex.get(value);
+    return index == null ? -1 : index;
+  }
+
+  /** Returns the index of {@code value}, appending it if it is not present. */
+  public int lookupOrInsert(T value) {
+    int index = indexOf(value);
+    if (index == -1) {
+      values.add(value);
+      index = values.size() - 1;
+      valueToIndex.put(value, index);
+      numIndexedValues++;
+    }
+    return index;
+  }
+
+  public T get(int index) {
+    return values.get(index);
+  }
+
+  public int size() {
+    return values.size();
+  }
+
+  private void updateIndex() {
+    for (; numIndexedValues < values.size(); ++numIndexedValues) {
+      T value = values.get(numIndexedValues);
+      if (!valueToIndex.containsKey(value)) {
+        valueToIndex.put(value, numIndexedValues);
+      }
+    }
+  }
+}
@@ -0,0 +1,97 @@
+/**
+ *    Copyright 2016 Iron City Software LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package garmintools.wrappers;
+
+import java.util.BitSet;
+
+/**
+ * Landing facilities as read from garmin, one primitive array per field.  This holds a few dozen
+ * bytes per facility where a list of {@link LandingFacility} holds a proto and several keys.
+ * Row {@code i} is the landing facility at index {@code i} of the section.  Use
+ * {@code LandingFacilityGarminAdapter.getLandingFacility} to materialize a row.
+ */
+public class LandingFacilityColumns {
+  private static final int TWO_TO_TWENTY_FOUR = 1 << 24;
+
+  /** Latitude and longitude as signed 24-bit fractions of 180 degrees. */
+  public final int latitudeBits[];
+  public final int longitudeBits[];
+  public final short elevationFeet[];
+
+  /** The two encoded identifier bytes after the prefix byte, as {@code (byte1 << 8) | byte0}. */
+  public final char identifiers[];
+
+  /** ICAO region index << 6 | landing facility type index << 3 | airspace index. */
+  public final int lookupIndexes[];
+
+  /** Bit offsets of the name and location in the string section. */
+  public final int nameBitOffsets[];
+  public final int locationBitOffsets[];
+
+  /** Section offset of the detail if {@link #hasDetail} is set, otherwise an unknown field. */
+  public final int detailOffsets[];
+
+  public final BitSet hasDetail;
+  public final BitSet avgasFuelAvailable;
+  public final BitSet jetAFuelAvailable;
+  public final BitSet radarAvailable;
+
+  /** Unknown fields, packed by the garmin adapter. */
+  public final int unknownBits[];
+  public final byte unknownBytes[];
+
+  public LandingFacilityColumns(int size) {
+    this.latitudeBits = new int[size];
+    this.longitudeBits = new int[size];
+    this.elevationFeet = new short[size];
+    this.identifiers = new char[size];
+    this.lookupIndexes = new int[size];
+    this.nameBitOffsets = new int[size];
+    this.locationBitOffsets = new int[size];
+    this.detailOffsets = new int[size];
+    this.hasDetail = new BitSet(size);
+    this.avgasFuelAvailable = new BitSet(size);
+    this.jetAFuelAvailable = new BitSet(size);
+    this.radarAvailable = new BitSet(size);
+    this.unknownBits = new int[size];
+    this.unknownBytes = new byte[size];
+  }
+
+  public int size() {
+    return latitudeBits.length;
+  }
+
+  public double getLatitudeDegrees(int index) {
+    return ((double) latitudeBits[index]) / TWO_TO_TWENTY_FOUR * 180;
+  }
+
+  public double getLongitudeDegrees(int index) {
+    return ((double) longitudeBits[index]) / TWO_TO_TWENTY_FOUR * 180;
+  }
+
+  public int getIcaoRegionIndex(int index) {
+    return (lookupIndexes[index] >> 6) & 0x1ff;
+  }
+
+  public int getLandingFacilityTypeIndex(int index) {
+    return (lookupIndexes[index] >> 3) & 7;
+  }
+
+  public int getAirspaceIndex(int index) {
+    return lookupIndexes[index] & 7;
+  }
+}
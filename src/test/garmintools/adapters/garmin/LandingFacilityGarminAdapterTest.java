@@ -0,0 +1,64 @@
+/**
+ *    Copyright 2016 Iron City Software LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package garmintools.adapters.garmin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import garmintools.Proto;
+import garmintools.sections.Ids;
+import garmintools.sections.SectionManager;
+import garmintools.synthetic.NavigationDataGenerator;
+import garmintools.wrappers.LandingFacility;
+import garmintools.wrappers.LandingFacilityColumns;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class LandingFacilityGarminAdapterTest {
+  @Test
+  public void testReadColumns_RoundTrips() {
+    Proto.NavigationData navigationData = new NavigationDataGenerator(1).generate(2000);
+    ByteBuffer sectionBuffer = new SectionManager.ProtoBuilder(navigationData).build()
+        .getGarminOutputs().get(Ids.LANDING_FACILITY_SECTION).asReadOnlyBuffer();
+    LandingFacilityGarminAdapter adapter = new LandingFacilityGarminAdapter();
+    LandingFacilityColumns columns = adapter.readColumns(sectionBuffer.duplicate().order(sectionBuffer.order()));
+    assertEquals(navigationData.getLandingFacilityCount(), columns.size());
+
+    List<LandingFacility> landingFacilities = new ArrayList<>();
+    int numWithoutDetail = 0;
+    for (int index = 0; index < columns.size(); ++index) {
+      Proto.LandingFacility expected = navigationData.getLandingFacility(index);
+      LandingFacility landingFacility = adapter.getLandingFacility(columns, index);
+      assertEquals(expected.getUnknownList(), landingFacility.protoLandingFacility.getUnknownList());
+      assertEquals(expected.hasDetail(), columns.hasDetail.get(index));
+      if (!expected.hasDetail()) {
+        ++numWithoutDetail;
+        assertEquals(expected.getUnknown(7), columns.detailOffsets[index]);
+        assertNull(landingFacility.detail);
+      }
+      assertEquals(landingFacility.protoLandingFacility,
+          adapter.readLandingFacility(sectionBuffer, index).protoLandingFacility);
+      landingFacilities.add(landingFacility);
+    }
+    assertTrue(numWithoutDetail > 0);
+    assertEquals(sectionBuffer, adapter.write(landingFacilities).asReadOnlyBuffer());
+  }
+}
@@ -0,0 +1,99 @@
+/**
+ *    Copyright 2016 Iron City Software LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package garmintools.delta;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+
+import garmintools.Proto;
+import garmintools.files.NavigationDataFileFactory;
+import garmintools.synthetic.NavigationDataGenerator;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class DeltaGeneratorTest {
+  @Test
+  public void testPatch_RebuildsNewFile() throws IOException {
+    Proto.NavigationData oldNavigationData = new NavigationDataGenerator(1).generate(1000);
+    List<Proto.LandingFacility> landingFacilities =
+        new ArrayList<>(oldNavigationData.getLandingFacilityList());
+    landingFacilities.remove(500);
+    landingFacilities.remove(100);
+    Proto.LandingFacility landingFacility = landingFacilities.get(700);
+    landingFacilities.set(700, landingFacility.toBuilder()
+        .setElevationFeet(landingFacility.getElevationFeet() + 1).build());
+    Proto.NavigationData newNavigationData = oldNavigationData.toBuilder()
+        .clearLandingFacility().addAllLandingFacility(landingFacilities).build();
+    byte oldFile[] = encode(oldNavigationData);
+    byte newFile[] = encode(newNavigationData);
+
+    byte delta[] = generate(oldFile, newFile);
+    assertTrue(delta.length < newFile.length / 4);
+    assertArrayEquals(newFile, patch(oldFile, delta));
+  }
+
+  @Test
+  public void testGenerate_IdenticalFiles() throws IOException {
+    byte file[] = encode(new NavigationDataGenerator(1).generate(100));
+    byte delta[] = generate(file, file);
+    assertTrue(delta.length < 64);
+    assertArrayEquals(file, patch(file, delta));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testPatch_RejectsOtherOldFile() throws IOException {
+    byte oldFile[] = encode(new NavigationDataGenerator(1).generate(100));
+    byte newFile[] = encode(new NavigationDataGenerator(2).generate(100));
+    patch(newFile, generate(oldFile, newFile));
+  }
+
+  private static byte[] encode(Proto.NavigationData navigationData) throws IOException {
+    File garminDataFile = File.createTempFile("delta", ".bin");
+    try {
+      try (FileOutputStream outputStream = new FileOutputStream(garminDataFile)) {
+        new NavigationDataFileFactory().createFromProto(navigationData).writeToGarmin(outputStream);
+      }
+      return Files.readAllBytes(garminDataFile.toPath());
+    } finally {
+      garminDataFile.delete();
+    }
+  }
+
+  private static byte[] generate(byte oldFile[], byte newFile[]) throws IOException {
+    ByteArrayOutputStream delta = new ByteArrayOutputStream();
+    new DeltaGenerator().generate(ByteBuffer.wrap(oldFile), ByteBuffer.wrap(newFile), delta);
+    return delta.toByteArray();
+  }
+
+  private static byte[] patch(byte oldFile[], byte delta[]) throws IOException {
+    ByteArrayOutputStream newFile = new ByteArrayOutputStream();
+    new DeltaPatcher().patch(ByteBuffer.wrap(oldFile), new ByteArrayInputStream(delta),
+        Channels.newChannel(newFile));
+    return newFile.toByteArray();
+  }
+}
@@ -0,0 +1,101 @@
+/**
+ *    Copyright 2016 Iron City Software LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package garmintools.delta;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import garmintools.Proto;
+import garmintools.files.NavigationDataFileFactory;
+import garmintools.synthetic.NavigationDataGenerator;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class InPlaceUpdaterTest {
+  private File garminDataFile;
+  private File targetFile;
+
+  @Before
+  public void setUp() throws IOException {
+    garminDataFile = File.createTempFile("garmin", ".bin");
+    targetFile = File.createTempFile("target", ".bin");
+  }
+
+  @After
+  public void tearDown() {
+    garminDataFile.delete();
+    targetFile.delete();
+  }
+
+  @Test
+  public void testUpdate_WritesOnlyDifferences() throws IOException {
+    Proto.NavigationData navigationData = new NavigationDataGenerator(1).generate(1000);
+    Proto.LandingFacility landingFacility = navigationData.getLandingFacility(500);
+    encode(navigationData, garminDataFile);
+    encode(navigationData.toBuilder().setLandingFacility(500, landingFacility.toBuilder()
+        .setElevationFeet(landingFacility.getElevationFeet() + 1)).build(), targetFile);
+
+    InPlaceUpdater.Result result = new InPlaceUpdater(512).update(garminDataFile, targetFile);
+    assertArrayEquals(Files.readAllBytes(targetFile.toPath()),
+        Files.readAllBytes(garminDataFile.toPath()));
+    assertEquals(targetFile.length(), result.fileLength);
+    assertTrue(result.bytesWritten > 0);
+    assertTrue(result.bytesWritten <= 2 * 512);
+
+    assertEquals(0, new InPlaceUpdater(512).update(garminDataFile, targetFile).bytesWritten);
+  }
+
+  @Test
+  public void testUpdate_ChangesLength() throws IOException {
+    encode(new NavigationDataGenerator(1).generate(1000), garminDataFile);
+    encode(new NavigationDataGenerator(2).generate(100), targetFile);
+
+    new InPlaceUpdater().update(garminDataFile, targetFile);
+    assertArrayEquals(Files.readAllBytes(targetFile.toPath()),
+        Files.readAllBytes(garminDataFile.toPath()));
+  }
+
+  @Test
+  public void testApplyDelta_ShrinksFile() throws IOException {
+    encode(new NavigationDataGenerator(1).generate(1000), garminDataFile);
+    encode(new NavigationDataGenerator(2).generate(100), targetFile);
+    File deltaFile = File.createTempFile("delta", ".bin");
+    try {
+      new DeltaGenerator().generate(garminDataFile, targetFile, deltaFile);
+      InPlaceUpdater.Result result = new InPlaceUpdater().applyDelta(garminDataFile, deltaFile);
+      assertArrayEquals(Files.readAllBytes(targetFile.toPath()),
+          Files.readAllBytes(garminDataFile.toPath()));
+      assertEquals(targetFile.length(), result.fileLength);
+    } finally {
+      deltaFile.delete();
+    }
+  }
+
+  private static void encode(Proto.NavigationData navigationData, File file) throws IOException {
+    try (FileOutputStream outputStream = new FileOutputStream(file)) {
+      new NavigationDataFileFactory().createFromProto(navigationData).writeToGarmin(outputStream);
+    }
+  }
+}
@@ -17,8 +17,12 @@
 package garmintools.encoding;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import garmintools.keys.VariableLengthEncodingForeignKey;
 
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 
 import org.junit.Test;
 
@@ -54,4 +58,42 @@ public class BitBufferTest {
     assertEquals(0x128, bitBuffer.readNumBits(9));
     assertEquals(54, bitBuffer.getNumRemainingBits());
   }
+
+  @Test
+  public void testReadThirtyTwoBits() {
+    BitBuffer bitBuffer = new BitBuffer(byteBuffer);
+    bitBuffer.setOffset(1, 4);
+    assertEquals(0xba091b29, bitBuffer.readNumBits(32));
+    assertEquals(20, bitBuffer.getNumRemainingBits());
+  }
+
+  @Test
+  public void testReadToEnd() {
+    BitBuffer bitBuffer = new BitBuffer(byteBuffer);
+    bitBuffer.setOffset(0, 3);
+    assertEquals(0x0a, bitBuffer.readNumBits(5));
+    assertEquals(0x0ba091b, bitBuffer.readNumBits(28));
+    assertEquals(0x52, bitBuffer.readNumBits(9));
+    assertEquals(0x417, bitBuffer.readNumBits(11));
+    assertEquals(VariableLengthEncodingForeignKey.of(7, 0), bitBuffer.getKey());
+    assertEquals(0x41, bitBuffer.readNumBits(8));
+    assertFalse(bitBuffer.hasRemaining());
+    assertFalse(byteBuffer.hasRemaining());
+  }
+
+  @Test
+  public void testBufferPositionFollowsLastByteRead() {
+    BitBuffer bitBuffer = new BitBuffer(byteBuffer);
+    bitBuffer.setOffset(2, 0);
+    bitBuffer.readNumBits(8);
+    assertEquals(3, byteBuffer.position());
+    bitBuffer.readNumBits(1);
+    assertEquals(4, byteBuffer.position());
+  }
+
+  @Test
+  public void testLittleEndianBuffer() {
+    BitBuffer bitBuffer = new BitBuffer(byteBuffer.order(ByteOrder.LITTLE_ENDIAN));
+    assertEquals(0xca0ba091, bitBuffer.readNumBits(32));
+  }
 }
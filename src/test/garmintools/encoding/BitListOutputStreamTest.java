@@ -19,6 +19,8 @@ package garmintools.encoding;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 
+import garmintools.keys.VariableLengthEncodingForeignKey;
+
 import java.io.IOException;
 
 import org.junit.Test;
@@ -60,4 +62,26 @@ public class BitListOutputStreamTest {
     assertEquals(1, outputStream.getBytePosition());
     outputStream.close();
   }
+
+  @Test
+  public void testKeyBeforeFirstWrite() throws IOException {
+    BitListOutputStream outputStream = new BitListOutputStream();
+    assertEquals(VariableLengthEncodingForeignKey.of(0, 0), outputStream.getKey());
+    outputStream.writeBits(0x5, 3);
+    assertEquals(VariableLengthEncodingForeignKey.of(0, 3), outputStream.getKey());
+    outputStream.close();
+  }
+
+  @Test
+  public void testWriteCodes() throws IOException {
+    BitListOutputStream outputStream = new BitListOutputStream(0 /* initial capacity */);
+    outputStream.writeBits(0x5, 3);
+    outputStream.writeBits(0x1e3, 9);
+    outputStream.writeBits(0xcafebabe, 32);
+    assertArrayEquals(new byte[] { (byte) 0xbe, (byte) 0x3c, (byte) 0xaf, (byte) 0xeb,
+        (byte) 0xab, (byte) 0xe0 }, outputStream.toByteArray());
+    assertEquals(4, outputStream.getBitPosition());
+    assertEquals(5, outputStream.getBytePosition());
+    outputStream.close();
+  }
 }
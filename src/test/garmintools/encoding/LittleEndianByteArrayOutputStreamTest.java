@@ -0,0 +1,68 @@
+/**
+ *    Copyright 2016 Iron City Software LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package garmintools.encoding;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.primitives.Bytes;
+
+public class LittleEndianByteArrayOutputStreamTest {
+  @Test
+  public void testWrite() {
+    LittleEndianByteArrayOutputStream output = new LittleEndianByteArrayOutputStream(1);
+    output.write(0xab);
+    output.writeShort(0x1234);
+    output.writeInt(0x89abcdef);
+    output.writeLong(0x0102030405060708L);
+    assertEquals(15, output.position());
+    assertArrayEquals(Bytes.toArray(ImmutableList.of(
+        0xab, 0x34, 0x12, 0xef, 0xcd, 0xab, 0x89, 0x08, 0x07, 0x06, 0x05, 0x04, 0x03, 0x02, 0x01)),
+        output.toByteArray());
+  }
+
+  @Test
+  public void testToByteBuffer() {
+    LittleEndianByteArrayOutputStream output = new LittleEndianByteArrayOutputStream();
+    output.writeShort(0x1234);
+    ByteBuffer byteBuffer = output.toByteBuffer();
+    assertEquals(2, byteBuffer.remaining());
+    assertEquals(0x1234, byteBuffer.getShort());
+  }
+
+  @Test
+  public void testPutShort() {
+    LittleEndianByteArrayOutputStream output = new LittleEndianByteArrayOutputStream();
+    output.writeShort(0);
+    output.write(0xab);
+    output.putShort(0, 0x1234);
+    assertEquals(3, output.position());
+    assertArrayEquals(Bytes.toArray(ImmutableList.of(0x34, 0x12, 0xab)), output.toByteArray());
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testPutShort_PastEnd() {
+    LittleEndianByteArrayOutputStream output = new LittleEndianByteArrayOutputStream();
+    output.write(0xab);
+    output.putShort(0, 0x1234);
+  }
+}
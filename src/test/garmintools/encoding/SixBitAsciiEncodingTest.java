@@ -21,6 +21,8 @@ import static garmintools.encoding.SixBitAsciiEncoding.SIMPLE_ENCODING;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 
+import java.nio.ByteBuffer;
+
 import org.junit.Test;
 
 import com.google.common.collect.ImmutableList;
@@ -87,4 +89,27 @@ public class SixBitAsciiEncodingTest {
     assertEquals(4, SixBitAsciiEncoding.getEncodedSize("AAKAY".length()));
     assertArrayEquals(b, COMPLEX_ENCODING.encode("AAKAY"));
   }
+
+  @Test
+  public void testDecodeFromBuffer() {
+    ByteBuffer byteBuffer = ByteBuffer.wrap(Bytes.toArray(ImmutableList.of(0xff, 0x25, 0xc8, 0x4, 0xff)));
+    char text[] = new char[4];
+    assertEquals(4, COMPLEX_ENCODING.decode(byteBuffer, 1, 3, text));
+    assertEquals("AL05", new String(text));
+    assertEquals(0, byteBuffer.position());
+  }
+
+  @Test
+  public void testEncodeToBuffer_Padded() {
+    ByteBuffer byteBuffer = ByteBuffer.allocate(5);
+    byteBuffer.put((byte) 0xff);
+    COMPLEX_ENCODING.encode("A05", 4, byteBuffer);
+    assertEquals(4, byteBuffer.position());
+    assertArrayEquals(Bytes.toArray(ImmutableList.of(0xff, 0x40, 0x9, 0x6, 0x0)), byteBuffer.array());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testEncode_UnexpectedCharacter() {
+    COMPLEX_ENCODING.encode("A-05");
+  }
 }
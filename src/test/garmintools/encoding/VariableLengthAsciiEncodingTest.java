@@ -18,6 +18,8 @@ package garmintools.encoding;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.nio.ByteBuffer;
@@ -59,6 +61,29 @@ public class VariableLengthAsciiEncodingTest {
     assertEquals("(D)-3002", vls.decode());
   }
 
+  @Test
+  public void testHasRemaining_IgnoresPadding() {
+    BitListOutputStream outputStream = new BitListOutputStream();
+    new VariableLengthAsciiEncoding(outputStream).encode("NA");  // 11 bits, then 5 bits of padding
+    VariableLengthAsciiEncoding vls =
+        new VariableLengthAsciiEncoding(ByteBuffer.wrap(outputStream.toByteArray()));
+    assertTrue(vls.hasRemaining());
+    assertEquals("NA", vls.decode());
+    assertFalse(vls.hasRemaining());
+  }
+
+  @Test
+  public void testDecodeFailure() {
+    VariableLengthAsciiEncoding vls = new VariableLengthAsciiEncoding(
+        ByteBuffer.wrap(Bytes.toArray(ImmutableList.of(0x1f, 0xf0))));
+    try {
+      vls.decode(0, 3);
+      fail();
+    } catch (IllegalStateException e) {
+      assertEquals("Failed to decode 1ff", e.getMessage());
+    }
+  }
+
   @Test
   public void testEncode() {
     BitListOutputStream outputStream = new BitListOutputStream();
@@ -0,0 +1,85 @@
+/**
+ *    Copyright 2016 Iron City Software LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package garmintools.files;
+
+import static org.junit.Assert.assertEquals;
+
+import garmintools.Proto;
+import garmintools.synthetic.NavigationDataGenerator;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class NavigationDataFileFactoryTest {
+  private File garminDataFile;
+  private ExecutorService executorService;
+
+  @Before
+  public void setUp() throws IOException {
+    garminDataFile = File.createTempFile("garmin", ".bin");
+    try (FileOutputStream outputStream = new FileOutputStream(garminDataFile)) {
+      new NavigationDataFileFactory().createFromProto(new NavigationDataGenerator(1).generate(2000))
+          .writeToGarmin(outputStream);
+    }
+    executorService = Executors.newFixedThreadPool(4);
+  }
+
+  @After
+  public void tearDown() {
+    executorService.shutdown();
+    garminDataFile.delete();
+  }
+
+  @Test
+  public void testCreateFromGarmin_ParallelMatchesSerial() throws IOException {
+    assertEquals(decode(new NavigationDataFileFactory().createFromGarmin(garminDataFile)),
+        decode(new NavigationDataFileFactory(executorService).createFromGarmin(garminDataFile)));
+  }
+
+  @Test
+  public void testCreateFromGarmin_MappedMatchesStream() throws IOException {
+    Proto.NavigationData expected;
+    try (FileInputStream inputStream = new FileInputStream(garminDataFile)) {
+      expected = decode(new NavigationDataFileFactory().createFromGarmin(inputStream,
+          garminDataFile.length()));
+    }
+    assertEquals(expected, decode(new NavigationDataFileFactory().createFromGarmin(garminDataFile)));
+  }
+
+  @Test
+  public void testCreateLazilyFromGarmin_MatchesEager() throws IOException {
+    GarminNavigationDataFile eagerFile = new NavigationDataFileFactory().createFromGarmin(garminDataFile);
+    GarminNavigationDataFile lazyFile =
+        new NavigationDataFileFactory().createLazilyFromGarmin(garminDataFile);
+    assertEquals(eagerFile.getMetadata(), lazyFile.getMetadata());
+    assertEquals(decode(eagerFile), decode(lazyFile));
+  }
+
+  private static Proto.NavigationData decode(GarminNavigationDataFile dataFile) {
+    Proto.NavigationData.Builder protoBuilder = Proto.NavigationData.newBuilder();
+    dataFile.writeToProto(protoBuilder);
+    return protoBuilder.build();
+  }
+}
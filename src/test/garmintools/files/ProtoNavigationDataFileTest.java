@@ -0,0 +1,72 @@
+/**
+ *    Copyright 2016 Iron City Software LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package garmintools.files;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import garmintools.Proto;
+import garmintools.synthetic.NavigationDataGenerator;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.util.concurrent.MoreExecutors;
+
+public class ProtoNavigationDataFileTest {
+  private File garminDataFile;
+  private ExecutorService executorService;
+
+  @Before
+  public void setUp() throws IOException {
+    garminDataFile = File.createTempFile("garmin", ".bin");
+    executorService = Executors.newFixedThreadPool(4);
+  }
+
+  @After
+  public void tearDown() {
+    executorService.shutdown();
+    garminDataFile.delete();
+  }
+
+  @Test
+  public void testWriteToGarmin_ParallelMatchesSerial() throws IOException {
+    Proto.NavigationData navigationData = new NavigationDataGenerator(1).generate(2000);
+    byte[] expected = write(navigationData, MoreExecutors.directExecutor(), 0);
+    for (int maxSectionsAhead = 0; maxSectionsAhead <= 2; ++maxSectionsAhead) {
+      assertArrayEquals("maxSectionsAhead " + maxSectionsAhead,
+          expected, write(navigationData, executorService, maxSectionsAhead));
+    }
+  }
+
+  private byte[] write(Proto.NavigationData navigationData, Executor executor,
+      int maxSectionsAhead) throws IOException {
+    try (FileOutputStream outputStream = new FileOutputStream(garminDataFile)) {
+      new NavigationDataFileFactory().createFromProto(navigationData)
+          .writeToGarmin(outputStream, executor, maxSectionsAhead);
+    }
+    return Files.readAllBytes(garminDataFile.toPath());
+  }
+}
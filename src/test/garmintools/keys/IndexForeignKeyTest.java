@@ -0,0 +1,41 @@
+/**
+ *    Copyright 2016 Iron City Software LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package garmintools.keys;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+public class IndexForeignKeyTest {
+  @Test
+  public void testOf_SharesSmallKeys() {
+    assertSame(IndexForeignKey.of(0), IndexForeignKey.of(0));
+    assertSame(IndexForeignKey.of(1023), IndexForeignKey.of(1023));
+    assertEquals(1023, IndexForeignKey.of(1023).getIndex());
+  }
+
+  @Test
+  public void testOf_AllocatesLargeKeys() {
+    IndexForeignKey key = IndexForeignKey.of(1024);
+    assertNotSame(key, IndexForeignKey.of(1024));
+    assertEquals(key, IndexForeignKey.of(1024));
+    assertEquals(key.hashCode(), IndexForeignKey.of(1024).hashCode());
+    assertEquals(1024, key.getIndex());
+  }
+}
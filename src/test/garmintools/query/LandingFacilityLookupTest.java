@@ -0,0 +1,120 @@
+/**
+ *    Copyright 2016 Iron City Software LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package garmintools.query;
+
+import static garmintools.encoding.SixBitAsciiEncoding.COMPLEX_ENCODING;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import garmintools.Proto;
+import garmintools.files.NavigationDataFileFactory;
+import garmintools.sections.LandingFacilityIdentifierIndexSection;
+import garmintools.synthetic.NavigationDataGenerator;
+import garmintools.util.StringUtil;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.Range;
+
+public class LandingFacilityLookupTest {
+  private File garminDataFile;
+  private List<Proto.LandingFacility> landingFacilities;
+  private LandingFacilityLookup lookup;
+
+  @Before
+  public void setUp() throws IOException {
+    garminDataFile = File.createTempFile("garmin", ".bin");
+    try (FileOutputStream outputStream = new FileOutputStream(garminDataFile)) {
+      new NavigationDataFileFactory().createFromProto(new NavigationDataGenerator(1).generate(2000))
+          .writeToGarmin(outputStream);
+    }
+    Proto.NavigationData.Builder protoBuilder = Proto.NavigationData.newBuilder();
+    new NavigationDataFileFactory().createFromGarmin(garminDataFile).writeToProto(protoBuilder);
+    landingFacilities = protoBuilder.getLandingFacilityList();
+    lookup = new NavigationDataFileFactory().createLandingFacilityLookup(garminDataFile);
+  }
+
+  @After
+  public void tearDown() {
+    garminDataFile.delete();
+  }
+
+  @Test
+  public void testLookup_MatchesDecodedFacilities() {
+    assertEquals(landingFacilities.size(), lookup.getNumLandingFacilities());
+    for (int index = 0; index < landingFacilities.size(); ++index) {
+      Proto.LandingFacility landingFacility = landingFacilities.get(index);
+      assertEquals(index, lookup.indexOf(landingFacility.getIdentifier()));
+      assertEquals(landingFacility, lookup.lookup(landingFacility.getIdentifier()));
+      assertEquals(landingFacility, lookup.lookup(index));
+    }
+  }
+
+  @Test
+  public void testIndexOf_FindsPrefixRangeEdges() throws IOException {
+    LandingFacilityIdentifierIndexSection indexSection = new NavigationDataFileFactory()
+        .createLazilyFromGarmin(garminDataFile).getSectionManager()
+        .getLandingFacilityIdentifierIndexSection();
+    Set<Byte> prefixBytes = new HashSet<>();
+    for (Proto.LandingFacility landingFacility : landingFacilities) {
+      prefixBytes.add(encode(landingFacility.getIdentifier())[2]);
+    }
+    for (byte prefixByte : prefixBytes) {
+      Range<Integer> range = indexSection.getIndexRange(prefixByte, landingFacilities.size());
+      int first = range.lowerEndpoint();
+      int last = range.upperEndpoint() - 1;
+      assertEquals(prefixByte, encode(landingFacilities.get(first).getIdentifier())[2]);
+      assertEquals(prefixByte, encode(landingFacilities.get(last).getIdentifier())[2]);
+      assertEquals(first, lookup.indexOf(landingFacilities.get(first).getIdentifier()));
+      assertEquals(last, lookup.indexOf(landingFacilities.get(last).getIdentifier()));
+    }
+  }
+
+  @Test
+  public void testLookup_Absent() {
+    Set<String> identifiers = new HashSet<>();
+    for (Proto.LandingFacility landingFacility : landingFacilities) {
+      identifiers.add(landingFacility.getIdentifier());
+    }
+    for (String identifier : new String[] { "", "0000", "9999", "ZZZZ", "Q0Q0" }) {
+      if (!identifiers.contains(identifier)) {
+        assertEquals(identifier, -1, lookup.indexOf(identifier));
+        assertNull(identifier, lookup.lookup(identifier));
+      }
+    }
+  }
+
+  @Test
+  public void testLookup_Invalid() {
+    for (String identifier : new String[] { "KPITT", "kpit", "K-X", "K\u00e9" }) {
+      assertEquals(identifier, -1, lookup.indexOf(identifier));
+      assertNull(identifier, lookup.lookup(identifier));
+    }
+  }
+
+  private static byte[] encode(String identifier) {
+    return COMPLEX_ENCODING.encode(StringUtil.pad(identifier, 4));
+  }
+}
@@ -0,0 +1,126 @@
+/**
+ *    Copyright 2016 Iron City Software LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package garmintools.query;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class LandingFacilitySpatialIndexTest {
+  private static final double LATITUDES[] = { 40.49, 40.35, 0, 89.9, -89.9, 10, 10 };
+  private static final double LONGITUDES[] = { -80.23, -79.93, 0, 45, -120, 179.9, -179.9 };
+
+  @Test
+  public void testFindNearest() {
+    LandingFacilitySpatialIndex index = new LandingFacilitySpatialIndex(LATITUDES, LONGITUDES, 1);
+    LandingFacilitySpatialIndex.Result result = new LandingFacilitySpatialIndex.Result();
+    index.findNearest(40.44, -80.0, 2, result);
+    assertEquals(2, result.size());
+    assertEquals(1, result.getIndex(0));
+    assertEquals(0, result.getIndex(1));
+    assertTrue(result.getDistanceNauticalMiles(0) < result.getDistanceNauticalMiles(1));
+    assertEquals(10.93, result.getDistanceNauticalMiles(1), 0.01);
+  }
+
+  @Test
+  public void testFindNearest_AcrossAntimeridianAndPole() {
+    LandingFacilitySpatialIndex index = new LandingFacilitySpatialIndex(LATITUDES, LONGITUDES, 1);
+    LandingFacilitySpatialIndex.Result result = new LandingFacilitySpatialIndex.Result();
+    index.findNearest(10, 179.95, 1, result);
+    assertEquals(5, result.getIndex(0));
+    index.findNearest(10, -179.99, 1, result);
+    assertEquals(6, result.getIndex(0));
+    index.findNearest(89.5, -135, 1, result);
+    assertEquals(3, result.getIndex(0));
+  }
+
+  @Test
+  public void testFindNearest_MoreThanIndexed() {
+    LandingFacilitySpatialIndex index = new LandingFacilitySpatialIndex(LATITUDES, LONGITUDES, 1);
+    LandingFacilitySpatialIndex.Result result = new LandingFacilitySpatialIndex.Result();
+    index.findNearest(0, 0, 100, result);
+    assertEquals(LATITUDES.length, result.size());
+    assertEquals(2, result.getIndex(0));
+  }
+
+  @Test
+  public void testFindNearest_MatchesExhaustiveSearch() {
+    Random random = new Random(7);
+    double latitudes[] = new double[2000];
+    double longitudes[] = new double[2000];
+    for (int i = 0; i < latitudes.length; ++i) {
+      latitudes[i] = random.nextDouble() * 180 - 90;
+      longitudes[i] = random.nextDouble() * 360 - 180;
+    }
+    LandingFacilitySpatialIndex index = new LandingFacilitySpatialIndex(latitudes, longitudes, 2);
+    LandingFacilitySpatialIndex.Result result = new LandingFacilitySpatialIndex.Result();
+    for (int query = 0; query < 200; ++query) {
+      double latitude = random.nextDouble() * 180 - 90;
+      double longitude = random.nextDouble() * 360 - 180;
+      index.findNearest(latitude, longitude, 5, result);
+      List<Double> distances = new ArrayList<>();
+      for (int i = 0; i < latitudes.length; ++i) {
+        distances.add(distance(latitude, longitude, latitudes[i], longitudes[i]));
+      }
+      Collections.sort(distances);
+      assertEquals(5, result.size());
+      for (int i = 0; i < 5; ++i) {
+        assertEquals(distances.get(i), result.getDistanceNauticalMiles(i), 1e-6);
+      }
+    }
+  }
+
+  @Test
+  public void testFindWithin() {
+    LandingFacilitySpatialIndex index = new LandingFacilitySpatialIndex(LATITUDES, LONGITUDES, 4);
+    LandingFacilitySpatialIndex.Result result = new LandingFacilitySpatialIndex.Result();
+    index.findWithin(40, -81, 41, -80, result);
+    assertEquals(Arrays.asList(0), indexes(result));
+    index.findWithin(40, -81, 41, -79, result);
+    assertEquals(Arrays.asList(0, 1), indexes(result));
+    index.findWithin(9, 179, 11, -179, result);
+    assertEquals(Arrays.asList(5, 6), indexes(result));
+    index.findWithin(-90, -180, 90, 180, result);
+    assertEquals(LATITUDES.length, result.size());
+    index.findWithin(20, 20, 30, 30, result);
+    assertEquals(0, result.size());
+  }
+
+  private static List<Integer> indexes(LandingFacilitySpatialIndex.Result result) {
+    List<Integer> indexes = new ArrayList<>();
+    for (int i = 0; i < result.size(); ++i) {
+      indexes.add(result.getIndex(i));
+    }
+    Collections.sort(indexes);
+    return indexes;
+  }
+
+  private static double distance(double latitude1, double longitude1, double latitude2, double longitude2) {
+    double sinLatitude = Math.sin(Math.toRadians(latitude2 - latitude1) / 2);
+    double sinLongitude = Math.sin(Math.toRadians(longitude2 - longitude1) / 2);
+    double a = sinLatitude * sinLatitude + Math.cos(Math.toRadians(latitude1))
+        * Math.cos(Math.toRadians(latitude2)) * sinLongitude * sinLongitude;
+    return 2 * Math.asin(Math.sqrt(a)) * LandingFacilitySpatialIndex.EARTH_RADIUS_NAUTICAL_MILES;
+  }
+}
@@ -0,0 +1,86 @@
+/**
+ *    Copyright 2016 Iron City Software LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package garmintools.sections;
+
+import static org.junit.Assert.assertEquals;
+import garmintools.Proto;
+import garmintools.synthetic.NavigationDataGenerator;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.google.common.io.ByteSource;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.UnknownFieldSet;
+
+public class NavigationDataReaderTest {
+  @Test
+  public void testReadAllButLandingFacilities_CopiesUnknownFields() throws IOException {
+    Proto.NavigationData navigationData = createNavigationDataWithUnknownFields();
+    assertEquals(navigationData.toBuilder().clearLandingFacility().build(),
+        NavigationDataReader.readAllButLandingFacilities(
+            new ByteArrayInputStream(navigationData.toByteArray())));
+  }
+
+  @Test
+  public void testReadLandingFacilities() throws IOException {
+    Proto.NavigationData navigationData = createNavigationDataWithUnknownFields();
+    final List<Proto.LandingFacility> landingFacilities = new ArrayList<>();
+    NavigationDataReader.readLandingFacilities(new ByteArrayInputStream(navigationData.toByteArray()),
+        new NavigationDataReader.LandingFacilityConsumer() {
+          @Override
+          public void accept(Proto.LandingFacility landingFacility) {
+            landingFacilities.add(landingFacility);
+          }
+        });
+    assertEquals(navigationData.getLandingFacilityList(), landingFacilities);
+  }
+
+  @Test
+  public void testStreamingProtoBuilder_MatchesProtoBuilder() throws IOException {
+    Proto.NavigationData navigationData = new NavigationDataGenerator(2).generate(200);
+    SectionCacheTest.assertOutputsEqual(
+        new SectionManager.ProtoBuilder(navigationData).build()
+            .getGarminOutputs(MoreExecutors.directExecutor()),
+        new SectionManager.StreamingProtoBuilder(ByteSource.wrap(navigationData.toByteArray()))
+            .build().getGarminOutputs(MoreExecutors.directExecutor()));
+  }
+
+  private static Proto.NavigationData createNavigationDataWithUnknownFields() {
+    UnknownFieldSet group = UnknownFieldSet.newBuilder()
+        .addField(1, UnknownFieldSet.Field.newBuilder().addVarint(7).addFixed32(-3).build())
+        .addField(2, UnknownFieldSet.Field.newBuilder().addGroup(UnknownFieldSet.newBuilder()
+            .addField(3, UnknownFieldSet.Field.newBuilder().addFixed64(-1L).build()).build()).build())
+        .build();
+    UnknownFieldSet unknownFields = UnknownFieldSet.newBuilder()
+        .addField(2000, UnknownFieldSet.Field.newBuilder().addVarint(-5L).addVarint(300).build())
+        .addField(2001, UnknownFieldSet.Field.newBuilder().addFixed32(0x12345678).build())
+        .addField(2002, UnknownFieldSet.Field.newBuilder().addFixed64(123456789012L).build())
+        .addField(2003, UnknownFieldSet.Field.newBuilder()
+            .addLengthDelimited(ByteString.copyFromUtf8("unknown")).build())
+        .addField(2004, UnknownFieldSet.Field.newBuilder().addGroup(group).build())
+        .build();
+    return new NavigationDataGenerator(3).generate(20).toBuilder()
+        .setUnknownFields(unknownFields)
+        .build();
+  }
+}
@@ -0,0 +1,94 @@
+/**
+ *    Copyright 2016 Iron City Software LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package garmintools.sections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import garmintools.Proto;
+import garmintools.files.NavigationDataFileFactory;
+import garmintools.synthetic.NavigationDataGenerator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.UnknownFieldSet;
+
+public class NavigationDataWriterTest {
+  @Test
+  public void testWrite_MatchesSerializedMessage() throws IOException {
+    Proto.NavigationData navigationData = new NavigationDataGenerator(1).generate(200);
+    assertTrue(navigationData.getStringConstantSectionCount() > 0);
+    assertWriteMatches(navigationData.toBuilder()
+        .setUnknownFields(UnknownFieldSet.newBuilder()
+            .addField(2000, UnknownFieldSet.Field.newBuilder().addVarint(1).build())
+            .build())
+        .build());
+  }
+
+  @Test
+  public void testWrite_NoLandingFacilities() throws IOException {
+    assertWriteMatches(new NavigationDataGenerator(1).generate(200).toBuilder()
+        .clearLandingFacility()
+        .build());
+    assertWriteMatches(Proto.NavigationData.getDefaultInstance());
+  }
+
+  @Test
+  public void testWrite_OnlyFieldsAfterLandingFacilities() throws IOException {
+    Proto.NavigationData navigationData = new NavigationDataGenerator(1).generate(20);
+    assertWriteMatches(Proto.NavigationData.newBuilder()
+        .addAllLandingFacility(navigationData.getLandingFacilityList())
+        .addAllStringConstantSection(navigationData.getStringConstantSectionList())
+        .build());
+  }
+
+  @Test
+  public void testWriteToProto_MatchesMergeToProto() throws IOException {
+    File garminDataFile = File.createTempFile("garmin", ".bin");
+    try {
+      try (FileOutputStream outputStream = new FileOutputStream(garminDataFile)) {
+        new NavigationDataFileFactory().createFromProto(new NavigationDataGenerator(1).generate(200))
+            .writeToGarmin(outputStream);
+      }
+      SectionManager sectionManager = new NavigationDataFileFactory()
+          .createFromGarmin(garminDataFile).getSectionManager();
+      Proto.NavigationData.Builder protoBuilder = Proto.NavigationData.newBuilder();
+      sectionManager.mergeToProto(protoBuilder);
+      ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+      sectionManager.writeToProto(outputStream);
+      assertEquals(protoBuilder.build().toByteString(), ByteString.copyFrom(outputStream.toByteArray()));
+    } finally {
+      garminDataFile.delete();
+    }
+  }
+
+  private static void assertWriteMatches(Proto.NavigationData navigationData) throws IOException {
+    List<Proto.LandingFacility> landingFacilities =
+        ImmutableList.copyOf(navigationData.getLandingFacilityList());
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    NavigationDataWriter.write(navigationData.toBuilder().clearLandingFacility().build(),
+        landingFacilities, outputStream);
+    assertEquals(navigationData.toByteString(), ByteString.copyFrom(outputStream.toByteArray()));
+  }
+}
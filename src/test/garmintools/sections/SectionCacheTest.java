@@ -0,0 +1,116 @@
+/**
+ *    Copyright 2016 Iron City Software LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package garmintools.sections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import garmintools.Proto;
+import garmintools.adapters.garmin.GarminOutput;
+import garmintools.synthetic.NavigationDataGenerator;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.io.ByteSource;
+import com.google.common.util.concurrent.MoreExecutors;
+
+public class SectionCacheTest {
+  private File directory;
+
+  @Before
+  public void setUp() throws IOException {
+    directory = Files.createTempDirectory("sections").toFile();
+  }
+
+  @After
+  public void tearDown() {
+    for (File file : directory.listFiles()) {
+      file.delete();
+    }
+    directory.delete();
+  }
+
+  @Test
+  public void testGetGarminOutputs_ReadsUnchangedSections() throws IOException {
+    Proto.NavigationData navigationData = new NavigationDataGenerator(1).generate(200);
+    Map<Integer, GarminOutput> expected = encode(navigationData, null);
+
+    SectionCache coldCache = new SectionCache(directory);
+    assertOutputsEqual(expected, encode(navigationData, coldCache));
+    assertEquals(0, coldCache.getHitCount());
+    assertEquals(expected.size(), coldCache.getMissCount());
+
+    SectionCache warmCache = new SectionCache(directory);
+    assertOutputsEqual(expected, encode(navigationData, warmCache));
+    assertEquals(expected.size(), warmCache.getHitCount());
+    assertEquals(0, warmCache.getMissCount());
+  }
+
+  @Test
+  public void testGetGarminOutputs_EncodesChangedSections() throws IOException {
+    Proto.NavigationData navigationData = new NavigationDataGenerator(1).generate(200);
+    encode(navigationData, new SectionCache(directory));
+
+    Proto.NavigationData.Builder builder = navigationData.toBuilder();
+    builder.setLandingFacility(0, builder.getLandingFacility(0).toBuilder().setName("RENAMED"));
+    Proto.NavigationData changedNavigationData = builder.build();
+    SectionCache cache = new SectionCache(directory);
+    assertOutputsEqual(encode(changedNavigationData, null), encode(changedNavigationData, cache));
+    assertTrue(cache.getHitCount() > 0);
+    assertTrue(cache.getMissCount() > 0);
+  }
+
+  @Test
+  public void testGetGarminOutputs_StreamedProtoReadsSectionsOfParsedProto() throws IOException {
+    Proto.NavigationData navigationData = new NavigationDataGenerator(2).generate(200);
+    Map<Integer, GarminOutput> expected = encode(navigationData, new SectionCache(directory));
+
+    // Keys of a streamed proto hash the serialized proto, as keys of a parsed one do.
+    SectionCache cache = new SectionCache(directory);
+    SectionManager sectionManager = new SectionManager.StreamingProtoBuilder(
+        ByteSource.wrap(navigationData.toByteArray())).build();
+    assertOutputsEqual(expected,
+        sectionManager.getGarminOutputs(MoreExecutors.directExecutor(), cache));
+    assertEquals(expected.size(), cache.getHitCount());
+  }
+
+  private static Map<Integer, GarminOutput> encode(Proto.NavigationData navigationData,
+      SectionCache cache) {
+    return new SectionManager.ProtoBuilder(navigationData).build()
+        .getGarminOutputs(MoreExecutors.directExecutor(), cache);
+  }
+
+  static void assertOutputsEqual(Map<Integer, GarminOutput> expected,
+      Map<Integer, GarminOutput> actual) {
+    assertEquals(expected.keySet(), actual.keySet());
+    for (int sectionNumber : expected.keySet()) {
+      GarminOutput expectedOutput = expected.get(sectionNumber);
+      GarminOutput actualOutput = actual.get(sectionNumber);
+      assertEquals(expectedOutput.getItemLength(), actualOutput.getItemLength());
+      assertEquals(expectedOutput.getItemQuantity(), actualOutput.getItemQuantity());
+      assertEquals("Section " + sectionNumber,
+          expectedOutput.asReadOnlyBuffer(), actualOutput.asReadOnlyBuffer());
+    }
+  }
+}
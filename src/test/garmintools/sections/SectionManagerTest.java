@@ -0,0 +1,68 @@
+/**
+ *    Copyright 2016 Iron City Software LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package garmintools.sections;
+
+import static org.junit.Assert.assertEquals;
+
+import garmintools.Proto;
+import garmintools.adapters.garmin.GarminOutput;
+import garmintools.synthetic.NavigationDataGenerator;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.util.concurrent.MoreExecutors;
+
+public class SectionManagerTest {
+  private ExecutorService executorService;
+
+  @Before
+  public void setUp() {
+    executorService = Executors.newFixedThreadPool(4);
+  }
+
+  @After
+  public void tearDown() {
+    executorService.shutdown();
+  }
+
+  @Test
+  public void testGetGarminOutputs_ParallelMatchesSerial() {
+    Proto.NavigationData navigationData = new NavigationDataGenerator(1).generate(2000);
+    Map<Integer, GarminOutput> expected = new SectionManager.ProtoBuilder(navigationData).build()
+        .getGarminOutputs(MoreExecutors.directExecutor());
+    for (int run = 0; run < 3; ++run) {
+      Map<Integer, GarminOutput> actual = new SectionManager.ProtoBuilder(navigationData).build()
+          .getGarminOutputs(executorService);
+      assertEquals(new ArrayList<>(expected.keySet()), new ArrayList<>(actual.keySet()));
+      for (int sectionNumber : expected.keySet()) {
+        GarminOutput expectedOutput = expected.get(sectionNumber);
+        GarminOutput actualOutput = actual.get(sectionNumber);
+        assertEquals(expectedOutput.getItemLength(), actualOutput.getItemLength());
+        assertEquals(expectedOutput.getItemQuantity(), actualOutput.getItemQuantity());
+        assertEquals("Section " + sectionNumber,
+            expectedOutput.asReadOnlyBuffer(), actualOutput.asReadOnlyBuffer());
+      }
+    }
+  }
+}
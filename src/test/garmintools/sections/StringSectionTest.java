@@ -0,0 +1,91 @@
+/**
+ *    Copyright 2016 Iron City Software LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package garmintools.sections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import garmintools.adapters.garmin.StringGarminAdapter;
+import garmintools.adapters.garmin.StringGarminAdapter.GarminOutputAndKeys;
+import garmintools.adapters.proto.StringProtoAdapter;
+import garmintools.encoding.VariableLengthAsciiEncoding;
+import garmintools.keys.IndexForeignKey;
+import garmintools.keys.VariableLengthEncodingForeignKey;
+
+import java.nio.ByteBuffer;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+public class StringSectionTest {
+  private static final List<String> SORTED_STRINGS = ImmutableList.of(
+      "", "A", "ALLEGHENY COUNTY", "BUTLER", "KPIT", "PITTSBURGH", "ZELIENOPLE");
+
+  @Test
+  public void testGetSectionBytes_KeysFollowOriginalIndexes() {
+    List<String> strings = ImmutableList.of(
+        "PITTSBURGH", "A", "ZELIENOPLE", "", "BUTLER", "A", "ALLEGHENY COUNTY", "KPIT");
+    StringSection section = new StringSection(Ids.STRING_SECTION, strings,
+        new StringGarminAdapter(), new StringProtoAdapter());
+    ByteBuffer byteBuffer = section.getSectionBytes(null).asReadOnlyBuffer();
+    for (int left = 0; left < strings.size(); ++left) {
+      VariableLengthEncodingForeignKey key = section.getKeyForIndex(IndexForeignKey.of(left));
+      assertEquals(strings.get(left), new VariableLengthAsciiEncoding(byteBuffer.duplicate())
+          .decode(key.getByteIndex(), key.getBitIndex()));
+      for (int right = 0; right < strings.size(); ++right) {
+        int leftBitOffset = key.getBitOffset();
+        int rightBitOffset = section.getKeyForIndex(IndexForeignKey.of(right)).getBitOffset();
+        int comparison = strings.get(left).compareTo(strings.get(right));
+        // Strings are written sorted, and equal strings in their original order.
+        assertEquals(comparison < 0 || (comparison == 0 && left < right),
+            leftBitOffset < rightBitOffset);
+      }
+    }
+  }
+
+  @Test
+  public void testLookup() {
+    StringGarminAdapter garminAdapter = new StringGarminAdapter();
+    int order[] = new int[SORTED_STRINGS.size()];
+    for (int index = 0; index < order.length; ++index) {
+      order[index] = index;
+    }
+    GarminOutputAndKeys output = garminAdapter.writeInOrder(SORTED_STRINGS, order);
+    StringSection section = new StringSection(Ids.STRING_SECTION, SORTED_STRINGS, output.keys,
+        garminAdapter, new StringProtoAdapter());
+    Set<Integer> bitIndexes = new HashSet<>();
+    for (int index = 0; index < SORTED_STRINGS.size(); ++index) {
+      VariableLengthEncodingForeignKey key = output.keys.get(index);
+      bitIndexes.add(key.getBitIndex());
+      assertEquals(SORTED_STRINGS.get(index), section.lookup(key));
+    }
+    assertTrue(bitIndexes.size() > 1);
+
+    VariableLengthEncodingForeignKey lastKey = output.keys.get(SORTED_STRINGS.size() - 1);
+    for (int bitOffset : new int[] { 1, lastKey.getBitOffset() + 1 }) {
+      try {
+        section.lookup(VariableLengthEncodingForeignKey.ofBitOffset(bitOffset));
+        fail("Expected no string at bit offset " + bitOffset);
+      } catch (IllegalArgumentException expected) {
+      }
+    }
+  }
+}
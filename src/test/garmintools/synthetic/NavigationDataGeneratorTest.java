@@ -0,0 +1,54 @@
+/**
+ *    Copyright 2016 Iron City Software LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package garmintools.synthetic;
+
+import static org.junit.Assert.assertEquals;
+
+import garmintools.Proto;
+import garmintools.files.NavigationDataFileFactory;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import org.junit.Test;
+
+public class NavigationDataGeneratorTest {
+  @Test
+  public void testGenerate_IsRepeatable() {
+    assertEquals(new NavigationDataGenerator(1).generate(100), new NavigationDataGenerator(1).generate(100));
+  }
+
+  @Test
+  public void testGenerate_RoundTrips() throws IOException {
+    for (long seed = 1; seed <= 3; ++seed) {
+      Proto.NavigationData navigationData = new NavigationDataGenerator(seed).generate(2000);
+      File garminDataFile = File.createTempFile("synthetic", ".bin");
+      try {
+        try (FileOutputStream outputStream = new FileOutputStream(garminDataFile)) {
+          new NavigationDataFileFactory().createFromProto(navigationData).writeToGarmin(outputStream);
+        }
+        Proto.NavigationData.Builder protoBuilder = Proto.NavigationData.newBuilder();
+        new NavigationDataFileFactory().createFromGarmin(garminDataFile).writeToProto(protoBuilder);
+        assertEquals(navigationData.getLandingFacilityList(), protoBuilder.getLandingFacilityList());
+        assertEquals(navigationData.getIcaoRegionList(), protoBuilder.getIcaoRegionList());
+      } finally {
+        garminDataFile.delete();
+      }
+    }
+  }
+}
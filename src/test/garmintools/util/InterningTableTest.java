@@ -0,0 +1,58 @@
+/**
+ *    Copyright 2016 Iron City Software LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package garmintools.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class InterningTableTest {
+  @Test
+  public void testIndexOf() {
+    InterningTable<String> table = new InterningTable<>(Arrays.asList("A", "B", "A", "C"));
+    assertEquals(0, table.indexOf("A"));
+    assertEquals(1, table.indexOf("B"));
+    assertEquals(3, table.indexOf("C"));
+    assertEquals(-1, table.indexOf("D"));
+  }
+
+  @Test
+  public void testLookupOrInsert() {
+    List<String> values = new ArrayList<>(Arrays.asList("A", "B"));
+    InterningTable<String> table = new InterningTable<>(values);
+    assertEquals(1, table.lookupOrInsert("B"));
+    assertEquals(2, table.lookupOrInsert("C"));
+    assertEquals(2, table.lookupOrInsert("C"));
+    assertEquals(Arrays.asList("A", "B", "C"), values);
+    assertEquals("C", table.get(2));
+  }
+
+  @Test
+  public void testValuesAppendedToList() {
+    List<String> values = new ArrayList<>(Arrays.asList("A"));
+    InterningTable<String> table = new InterningTable<>(values);
+    assertEquals(0, table.indexOf("A"));
+    values.add("B");
+    assertEquals(1, table.indexOf("B"));
+    assertEquals(2, table.lookupOrInsert("C"));
+    assertEquals(3, table.size());
+  }
+}